@@ -0,0 +1,86 @@
+package com.aerolink.ride.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fails (exit code 1) if any detour-check benchmark allocates per call.
+ *
+ * <p>
+ * Runs {@link RouteDeviationCheckerBenchmark} under the GC profiler and checks
+ * {@code gc.alloc.rate.norm} for every benchmark/parameter combination.
+ * Thread-local scratch set-up is amortised over millions of calls, so
+ * anything at or above {@value #MAX_BYTES_PER_OP} B/op is a real allocation.
+ * </p>
+ *
+ * <p>
+ * Run with:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.main=com.aerolink.ride.benchmark.AllocationGuard -Djmh.args=}
+ * </p>
+ */
+public final class AllocationGuard {
+
+    private static final double MAX_BYTES_PER_OP = 1.0;
+
+    /** JMH 1.37 label; older versions prefixed it with a middle dot. */
+    private static final String[] ALLOC_NORM_KEYS = { "gc.alloc.rate.norm", "·gc.alloc.rate.norm" };
+
+    private AllocationGuard() {
+        // Utility class
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RouteDeviationCheckerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        List<String> failures = new ArrayList<>();
+        for (RunResult result : results) {
+            String name = result.getParams().getBenchmark() + " " + result.getParams().getParamsKeys()
+                    .stream()
+                    .map(key -> key + "=" + result.getParams().getParam(key))
+                    .toList();
+            Result<?> alloc = allocNorm(result);
+            if (alloc == null) {
+                failures.add(name + ": no gc.alloc.rate.norm result");
+            } else if (alloc.getScore() >= MAX_BYTES_PER_OP) {
+                failures.add(String.format("%s: %.1f B/op", name, alloc.getScore()));
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            System.err.println("Allocation guard FAILED — per-call allocation on the detour-check path:");
+            failures.forEach(f -> System.err.println("  " + f));
+            System.exit(1);
+        }
+        System.out.println("Allocation guard passed: " + results.size() + " benchmarks at 0 B/op");
+    }
+
+    private static Result<?> allocNorm(RunResult result) {
+        for (String key : ALLOC_NORM_KEYS) {
+            Result<?> alloc = result.getSecondaryResults().get(key);
+            if (alloc != null) {
+                return alloc;
+            }
+        }
+        return null;
+    }
+}
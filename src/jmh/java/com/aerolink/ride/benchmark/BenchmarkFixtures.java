@@ -0,0 +1,136 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.entity.RideRequest;
+import com.aerolink.ride.enums.PoolStatus;
+import com.aerolink.ride.enums.RideStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic Mumbai-airport fixtures shared by all benchmarks.
+ *
+ * <p>
+ * Pickups are jittered around the airport terminals and drops around the
+ * same named destinations the frontend offers, so route shapes (and therefore
+ * detour outcomes) resemble production traffic rather than random noise.
+ * </p>
+ */
+public final class BenchmarkFixtures {
+
+    /** Airport pickup zones: T2, T1, departure drop-off, arrival pickup. */
+    private static final double[][] PICKUP_ZONES = {
+            { 19.0896, 72.8656 },
+            { 19.0990, 72.8740 },
+            { 19.0905, 72.8665 },
+            { 19.0885, 72.8645 },
+    };
+
+    /** Common destinations: Andheri, Bandra, BKC, Powai, Goregaon, Juhu, Dadar, Vashi. */
+    private static final double[][] DROP_ZONES = {
+            { 19.1197, 72.8464 },
+            { 19.0544, 72.8403 },
+            { 19.0668, 72.8712 },
+            { 19.1188, 72.9083 },
+            { 19.1663, 72.8490 },
+            { 19.0948, 72.8267 },
+            { 19.0178, 72.8448 },
+            { 19.0635, 72.9988 },
+    };
+
+    /** ~200 m of jitter around a pickup zone. */
+    private static final double PICKUP_JITTER_DEG = 0.002;
+
+    /** ~500 m of jitter around a destination. */
+    private static final double DROP_JITTER_DEG = 0.005;
+
+    private BenchmarkFixtures() {
+        // Utility class
+    }
+
+    /**
+     * Create a seeded random source so every fork sees the same fixtures.
+     */
+    public static Random random(long seed) {
+        return new Random(seed);
+    }
+
+    /**
+     * Build a single POOLED ride request from the airport to a destination zone.
+     *
+     * @param random    Seeded random source
+     * @param dropZone  Index into the destination table (wrapped)
+     * @param maxDetour Detour tolerance in km
+     */
+    public static RideRequest request(Random random, int dropZone, double maxDetour) {
+        double[] pickup = PICKUP_ZONES[random.nextInt(PICKUP_ZONES.length)];
+        double[] drop = DROP_ZONES[Math.floorMod(dropZone, DROP_ZONES.length)];
+        return RideRequest.builder()
+                .id(UUID.randomUUID())
+                .pickupLat(jitter(random, pickup[0], PICKUP_JITTER_DEG))
+                .pickupLng(jitter(random, pickup[1], PICKUP_JITTER_DEG))
+                .dropLat(jitter(random, drop[0], DROP_JITTER_DEG))
+                .dropLng(jitter(random, drop[1], DROP_JITTER_DEG))
+                .passengerCount(1)
+                .luggageCount(1)
+                .maxDetourKm(maxDetour)
+                .status(RideStatus.POOLED)
+                .build();
+    }
+
+    /**
+     * Build {@code count} riders all heading towards the same destination zone,
+     * which is the shape that actually reaches the detour simulation.
+     */
+    public static List<RideRequest> riders(Random random, int count, int dropZone, double maxDetour) {
+        List<RideRequest> riders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            riders.add(request(random, dropZone, maxDetour));
+        }
+        return riders;
+    }
+
+    /**
+     * Build a FORMING pool (no cab yet, as at booking time) with the given members.
+     */
+    public static RidePool formingPool(List<RideRequest> members) {
+        RideRequest anchor = members.get(0);
+        int seats = members.stream().mapToInt(RideRequest::getPassengerCount).sum();
+        int luggage = members.stream().mapToInt(RideRequest::getLuggageCount).sum();
+        RidePool pool = RidePool.builder()
+                .id(UUID.randomUUID())
+                .status(PoolStatus.FORMING)
+                .totalOccupiedSeats(seats)
+                .totalLuggage(luggage)
+                .pickupLat(anchor.getPickupLat())
+                .pickupLng(anchor.getPickupLng())
+                .dropLat(anchor.getDropLat())
+                .dropLng(anchor.getDropLng())
+                .rideRequests(new ArrayList<>(members))
+                .build();
+        for (RideRequest member : members) {
+            member.setRidePool(pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Build {@code count} FORMING candidate pools around the airport with
+     * 1–3 riders each, spread across all destination zones.
+     */
+    public static List<RidePool> candidatePools(Random random, int count, double maxDetour) {
+        List<RidePool> pools = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int members = 1 + random.nextInt(3);
+            pools.add(formingPool(riders(random, members, i, maxDetour)));
+        }
+        return pools;
+    }
+
+    private static double jitter(Random random, double value, double amplitude) {
+        return value + (random.nextDouble() * 2 - 1) * amplitude;
+    }
+}
@@ -0,0 +1,198 @@
+package com.aerolink.ride.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Latency of the nearest-available-cab search over a cabs-shaped table:
+ * the old per-row acos-haversine filter and sort against ST_DWithin on a
+ * GiST-indexed geography column with KNN ({@code <->}) ordering.
+ *
+ * <p>
+ * Not a JMH benchmark: it seeds a real table (default 100k cabs spread over
+ * a ~40 km square around Mumbai), runs the same random pickups through both
+ * queries and reports mean, p50 and p99 per query plus how often the two
+ * returned the same nearest cab.
+ * </p>
+ *
+ * <p>
+ * Needs the docker-compose PostgreSQL (PostGIS image). Run with:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.main=com.aerolink.ride.benchmark.CabProximityBenchmark -Djmh.args=100000}
+ * (argument: cabs, default 100k). Override the connection with
+ * {@code -Dbench.url}, {@code -Dbench.user}, {@code -Dbench.password}.
+ * The table is dropped afterwards.
+ * </p>
+ */
+public final class CabProximityBenchmark {
+
+    private static final String TABLE = "bench_cabs";
+    private static final int BATCH_SIZE = 1000;
+    private static final int WARMUP = 200;
+    private static final int QUERIES = 2000;
+    private static final double RADIUS_KM = 0.75;
+
+    private static final String HAVERSINE = """
+            SELECT id FROM %s
+            WHERE status = 'AVAILABLE'
+            AND (6371.0 * acos(least(1.0,
+                cos(radians(?)) * cos(radians(current_lat))
+                * cos(radians(current_lng) - radians(?))
+                + sin(radians(?)) * sin(radians(current_lat))
+            ))) <= ?
+            ORDER BY (6371.0 * acos(least(1.0,
+                cos(radians(?)) * cos(radians(current_lat))
+                * cos(radians(current_lng) - radians(?))
+                + sin(radians(?)) * sin(radians(current_lat))
+            )))
+            LIMIT 1
+            """.formatted(TABLE);
+
+    private static final String DWITHIN_KNN = """
+            SELECT id FROM %s
+            WHERE status = 'AVAILABLE'
+            AND ST_DWithin(location, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography, ? * 1000, false)
+            ORDER BY location <-> ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography
+            LIMIT 1
+            """.formatted(TABLE);
+
+    private CabProximityBenchmark() {
+        // Utility class
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int cabs = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String url = System.getProperty("bench.url",
+                "jdbc:postgresql://localhost:5434/aerolink?reWriteBatchedInserts=true");
+        String user = System.getProperty("bench.user", "aerolink");
+        String password = System.getProperty("bench.password", "aerolink123");
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            seed(connection, cabs);
+
+            Random random = new Random(7);
+            double[][] pickups = new double[WARMUP + QUERIES][];
+            for (int i = 0; i < pickups.length; i++) {
+                pickups[i] = new double[] { 18.95 + random.nextDouble() * 0.35, 72.80 + random.nextDouble() * 0.35 };
+            }
+
+            UUID[] haversineIds = new UUID[pickups.length];
+            UUID[] knnIds = new UUID[pickups.length];
+            long[] haversine = run(connection, HAVERSINE, pickups, haversineIds, (query, lat, lng) -> {
+                query.setDouble(1, lat);
+                query.setDouble(2, lng);
+                query.setDouble(3, lat);
+                query.setDouble(4, RADIUS_KM);
+                query.setDouble(5, lat);
+                query.setDouble(6, lng);
+                query.setDouble(7, lat);
+            });
+            long[] knn = run(connection, DWITHIN_KNN, pickups, knnIds, (query, lat, lng) -> {
+                query.setDouble(1, lng);
+                query.setDouble(2, lat);
+                query.setDouble(3, RADIUS_KM);
+                query.setDouble(4, lng);
+                query.setDouble(5, lat);
+            });
+
+            int same = 0;
+            for (int i = WARMUP; i < pickups.length; i++) {
+                if (haversineIds[i] == null ? knnIds[i] == null : haversineIds[i].equals(knnIds[i])) {
+                    same++;
+                }
+            }
+
+            System.out.printf("%d cabs, %d queries, radius %.2f km%n", cabs, QUERIES, RADIUS_KM);
+            System.out.printf("%-12s %10s %10s %10s%n", "query", "mean ms", "p50 ms", "p99 ms");
+            report("haversine", haversine);
+            report("dwithin+knn", knn);
+            System.out.printf("same nearest cab: %d / %d%n", same, QUERIES);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE " + TABLE);
+            }
+        }
+    }
+
+    private static void seed(Connection connection, int cabs) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("""
+                    CREATE TABLE %s (
+                        id          UUID PRIMARY KEY,
+                        status      VARCHAR(20)      NOT NULL,
+                        current_lat DOUBLE PRECISION NOT NULL,
+                        current_lng DOUBLE PRECISION NOT NULL,
+                        location    geography(Point, 4326) GENERATED ALWAYS AS
+                            (ST_SetSRID(ST_MakePoint(current_lng, current_lat), 4326)::geography) STORED
+                    )
+                    """.formatted(TABLE));
+        }
+
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + TABLE + " (id, status, current_lat, current_lng) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < cabs; i++) {
+                insert.setObject(1, UUID.randomUUID());
+                // Roughly the production mix: most cabs busy or offline
+                insert.setString(2, random.nextInt(4) == 0 ? "AVAILABLE" : "ASSIGNED");
+                insert.setDouble(3, 18.95 + random.nextDouble() * 0.35);
+                insert.setDouble(4, 72.80 + random.nextDouble() * 0.35);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i + 1 == cabs) {
+                    insert.executeBatch();
+                }
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX ON " + TABLE + " (status)");
+            statement.execute("CREATE INDEX ON " + TABLE + " USING GIST (location)");
+            statement.execute("ANALYZE " + TABLE);
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement query, double lat, double lng) throws SQLException;
+    }
+
+    /**
+     * Run every pickup through the query; returns the latencies (ns) after
+     * the warmup and records the nearest cab per pickup in {@code nearest}.
+     */
+    private static long[] run(Connection connection, String sql, double[][] pickups, UUID[] nearest,
+            Binder binder) throws SQLException {
+        long[] latencies = new long[QUERIES];
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            for (int i = 0; i < pickups.length; i++) {
+                binder.bind(query, pickups[i][0], pickups[i][1]);
+                long start = System.nanoTime();
+                try (ResultSet result = query.executeQuery()) {
+                    nearest[i] = result.next() ? result.getObject(1, UUID.class) : null;
+                }
+                if (i >= WARMUP) {
+                    latencies[i - WARMUP] = System.nanoTime() - start;
+                }
+            }
+        }
+        return latencies;
+    }
+
+    private static void report(String name, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1e6;
+        System.out.printf("%-12s %10.3f %10.3f %10.3f%n", name, mean,
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6);
+    }
+}
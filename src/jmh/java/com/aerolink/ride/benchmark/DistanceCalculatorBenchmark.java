@@ -0,0 +1,70 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.algorithm.DistanceCalculator;
+import com.aerolink.ride.entity.RideRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single pickup → drop distance call on airport-scale trips:
+ * exact haversine versus the equirectangular fast path (with and without
+ * caller-precomputed {@code cos(lat)}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceCalculatorBenchmark {
+
+    private static final int FIXTURE_SIZE = 1024;
+
+    private final double[] fromLat = new double[FIXTURE_SIZE];
+    private final double[] fromLng = new double[FIXTURE_SIZE];
+    private final double[] toLat = new double[FIXTURE_SIZE];
+    private final double[] toLng = new double[FIXTURE_SIZE];
+    private final double[] fromCos = new double[FIXTURE_SIZE];
+    private final double[] toCos = new double[FIXTURE_SIZE];
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkFixtures.random(42);
+        for (int i = 0; i < FIXTURE_SIZE; i++) {
+            RideRequest request = BenchmarkFixtures.request(random, i, 3.0);
+            fromLat[i] = request.getPickupLat();
+            fromLng[i] = request.getPickupLng();
+            toLat[i] = request.getDropLat();
+            toLng[i] = request.getDropLng();
+            fromCos[i] = DistanceCalculator.cosLat(fromLat[i]);
+            toCos[i] = DistanceCalculator.cosLat(toLat[i]);
+        }
+        DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, DistanceCalculator.MAX_FAST_PATH_KM);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.HAVERSINE, DistanceCalculator.MAX_FAST_PATH_KM);
+    }
+
+    @Benchmark
+    public double calculateKm() {
+        int i = cursor++ & (FIXTURE_SIZE - 1);
+        return DistanceCalculator.calculateKm(fromLat[i], fromLng[i], toLat[i], toLng[i]);
+    }
+
+    @Benchmark
+    public double routeKmEquirectangular() {
+        int i = cursor++ & (FIXTURE_SIZE - 1);
+        return DistanceCalculator.routeKm(fromLat[i], fromLng[i], toLat[i], toLng[i]);
+    }
+
+    @Benchmark
+    public double routeKmEquirectangularPrecomputedCos() {
+        int i = cursor++ & (FIXTURE_SIZE - 1);
+        return DistanceCalculator.routeKm(fromLat[i], fromLng[i], fromCos[i], toLat[i], toLng[i], toCos[i]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.algorithm.DistanceCalculator;
+import com.aerolink.ride.entity.RideRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All-pairs stop distances in exact haversine mode: one {@code calculateKm}
+ * call per ordered pair versus the batch {@code distanceMatrix} kernel,
+ * which hoists the per-point trig and fills both triangles at once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceMatrixBenchmark {
+
+    /** Stops in the matrix: 2 × riders for a pool (4 riders → 8 stops). */
+    @Param({ "8", "16", "64" })
+    private int stops;
+
+    private double[] lats;
+    private double[] lngs;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkFixtures.random(42);
+        lats = new double[stops];
+        lngs = new double[stops];
+        out = new double[stops * stops];
+        for (int i = 0; i < stops; i += 2) {
+            RideRequest request = BenchmarkFixtures.request(random, i, 3.0);
+            lats[i] = request.getPickupLat();
+            lngs[i] = request.getPickupLng();
+            lats[i + 1] = request.getDropLat();
+            lngs[i + 1] = request.getDropLng();
+        }
+    }
+
+    @Benchmark
+    public double[] pairwiseCalculateKm() {
+        for (int i = 0; i < stops; i++) {
+            for (int j = 0; j < stops; j++) {
+                out[i * stops + j] = DistanceCalculator.calculateKm(lats[i], lngs[i], lats[j], lngs[j]);
+            }
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] distanceMatrix() {
+        DistanceCalculator.distanceMatrix(lats, lngs, stops, out);
+        return out;
+    }
+}
@@ -0,0 +1,50 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.algorithm.DistanceCalculator;
+import com.aerolink.ride.algorithm.ExactRouteSolver;
+import com.aerolink.ride.entity.RideRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the exact pickup/drop route DP on a precomputed stop matrix, to
+ * size {@code aerolink.algorithm.exact-route-budget-micros}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExactRouteSolverBenchmark {
+
+    @Param({ "2", "4", "6", "8" })
+    public int riders;
+
+    private double[] matrix;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkFixtures.random(7);
+        List<RideRequest> all = BenchmarkFixtures.riders(random, riders, 0, 3.0);
+        int stops = 2 * riders;
+        double[] lats = new double[stops];
+        double[] lngs = new double[stops];
+        for (int i = 0; i < riders; i++) {
+            lats[i] = all.get(i).getPickupLat();
+            lngs[i] = all.get(i).getPickupLng();
+            lats[riders + i] = all.get(i).getDropLat();
+            lngs[riders + i] = all.get(i).getDropLng();
+        }
+        matrix = new double[stops * stops];
+        DistanceCalculator.distanceMatrix(lats, lngs, stops, matrix);
+    }
+
+    @Benchmark
+    public int[] solve() {
+        return ExactRouteSolver.solve(matrix, riders, Long.MAX_VALUE / 2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.algorithm.DistanceCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pickup against the whole fleet, as an in-process nearest-cab ranking
+ * would do: a plain {@code calculateKm} loop versus {@code distancesFrom}
+ * on the scalar batch path and on the SIMD kernel.
+ *
+ * <p>
+ * Needs {@code --add-modules jdk.incubator.vector} (the {@code jmh} profile
+ * passes it); without it the VECTOR rows silently measure the scalar path.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetDistanceBenchmark {
+
+    /** Mumbai airport T2, the origin for every ranking. */
+    private static final double PICKUP_LAT = 19.0896;
+    private static final double PICKUP_LNG = 72.8656;
+
+    /** Cabs spread over roughly ±25 km of the airport. */
+    private static final double FLEET_SPREAD_DEG = 0.25;
+
+    @Param({ "64", "1000", "10000" })
+    private int cabs;
+
+    @Param({ "SCALAR", "VECTOR" })
+    private String kernel;
+
+    @Param({ "HAVERSINE", "EQUIRECTANGULAR" })
+    private DistanceCalculator.Mode mode;
+
+    private double[] lats;
+    private double[] lngs;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkFixtures.random(42);
+        lats = new double[cabs];
+        lngs = new double[cabs];
+        out = new double[cabs];
+        for (int i = 0; i < cabs; i++) {
+            lats[i] = PICKUP_LAT + (random.nextDouble() * 2 - 1) * FLEET_SPREAD_DEG;
+            lngs[i] = PICKUP_LNG + (random.nextDouble() * 2 - 1) * FLEET_SPREAD_DEG;
+        }
+        DistanceCalculator.configure(mode, DistanceCalculator.MAX_FAST_PATH_KM);
+        DistanceCalculator.configureVectorKernel("VECTOR".equals(kernel));
+    }
+
+    @TearDown
+    public void tearDown() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.HAVERSINE, DistanceCalculator.MAX_FAST_PATH_KM);
+        DistanceCalculator.configureVectorKernel(true);
+    }
+
+    @Benchmark
+    public double[] calculateKmLoop() {
+        for (int i = 0; i < cabs; i++) {
+            out[i] = DistanceCalculator.calculateKm(PICKUP_LAT, PICKUP_LNG, lats[i], lngs[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] distancesFrom() {
+        DistanceCalculator.distancesFrom(PICKUP_LAT, PICKUP_LNG, lats, lngs, cabs, out);
+        return out;
+    }
+}
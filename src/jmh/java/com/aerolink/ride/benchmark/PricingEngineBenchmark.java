@@ -0,0 +1,34 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.algorithm.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fare calculation with the production pricing parameters from application.yml.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    @Param({ "1", "4" })
+    public int poolSize;
+
+    public double distanceKm = 12.4;
+    public long activeRequests = 40;
+    public long availableCabs = 25;
+
+    @Benchmark
+    public PricingEngine.PricingResult calculate() {
+        return PricingEngine.calculate(
+                distanceKm, 15.0, activeRequests, availableCabs,
+                poolSize, 0.10, 0.60,
+                0.7, 0.5, 1.5, 1.0,
+                7, 10, 17, 20);
+    }
+}
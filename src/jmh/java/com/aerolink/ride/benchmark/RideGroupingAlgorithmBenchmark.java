@@ -0,0 +1,56 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.algorithm.RideGroupingAlgorithm;
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.entity.RideRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end candidate evaluation for one new request against {@code pools}
+ * FORMING pools near the terminal (capacity filter, detour simulation and
+ * scoring).
+ *
+ * <p>
+ * {@code parallel=true} forces ForkJoin evaluation at every size (threshold
+ * 1) to locate the crossover with the sequential path.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RideGroupingAlgorithmBenchmark {
+
+    @Param({ "1", "10", "25", "50", "100", "500" })
+    public int pools;
+
+    @Param({ "false", "true" })
+    public boolean parallel;
+
+    private List<RidePool> candidates;
+    private RideRequest newRequest;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkFixtures.random(11);
+        candidates = BenchmarkFixtures.candidatePools(random, pools, 3.0);
+        newRequest = BenchmarkFixtures.request(random, 0, 3.0);
+        RideGroupingAlgorithm.configureParallelEvaluation(parallel, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RideGroupingAlgorithm.configureParallelEvaluation(false, 64);
+    }
+
+    @Benchmark
+    public RidePool findBestPool() {
+        return RideGroupingAlgorithm.findBestPool(candidates, newRequest, 4);
+    }
+}
@@ -0,0 +1,89 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.algorithm.RouteDeviationChecker;
+import com.aerolink.ride.algorithm.RoutePlan;
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.entity.RideRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detour simulation and route estimation for a pool of {@code riders} riders
+ * (existing members plus the new request), all leaving the airport towards
+ * the same destination zone.
+ *
+ * <p>
+ * {@code insertIntoPlan} measures the insertion-mode check against a route
+ * planned once in setup, i.e. the per-candidate cost when the pool's plan
+ * is already known. {@code exactFallback} is a fixed two-rider pool that the
+ * greedy route rejects and the exact route accepts.
+ * </p>
+ *
+ * <p>
+ * Every benchmark here must allocate nothing per call; {@link AllocationGuard}
+ * enforces that.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteDeviationCheckerBenchmark {
+
+    /** Total riders on the simulated route, including the new request. */
+    @Param({ "1", "2", "4", "8" })
+    public int riders;
+
+    private RidePool pool;
+    private List<RideRequest> existing;
+    private RideRequest newRequest;
+    private RoutePlan plan;
+    private List<RideRequest> interleavedExisting;
+    private RideRequest interleavedNew;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkFixtures.random(7);
+        // Generous tolerance so the check walks every rider instead of bailing out early
+        List<RideRequest> all = BenchmarkFixtures.riders(random, riders, 0, 25.0);
+        newRequest = all.remove(all.size() - 1);
+        existing = all;
+        pool = existing.isEmpty()
+                ? BenchmarkFixtures.formingPool(List.of(newRequest))
+                : BenchmarkFixtures.formingPool(existing);
+        plan = RouteDeviationChecker.planRoute(existing);
+
+        // Existing rider drops just short of where the new rider is picked up
+        interleavedExisting = List.of(RideRequest.builder()
+                .pickupLat(19.09).pickupLng(72.87).dropLat(19.09).dropLng(72.8795)
+                .passengerCount(1).maxDetourKm(0.1).build());
+        interleavedNew = RideRequest.builder()
+                .pickupLat(19.09).pickupLng(72.8805).dropLat(19.09).dropLng(72.89)
+                .passengerCount(1).maxDetourKm(0.1).build();
+    }
+
+    @Benchmark
+    public boolean isWithinDetourTolerance() {
+        return RouteDeviationChecker.isWithinDetourTolerance(pool, newRequest, existing);
+    }
+
+    @Benchmark
+    public boolean exactFallback() {
+        return RouteDeviationChecker.isWithinDetourTolerance(pool, interleavedNew, interleavedExisting);
+    }
+
+    @Benchmark
+    public boolean insertIntoPlan() {
+        return RouteDeviationChecker.isWithinDetourTolerance(plan, newRequest);
+    }
+
+    @Benchmark
+    public double estimateTotalRouteDistance() {
+        return RouteDeviationChecker.estimateTotalRouteDistance(existing, newRequest);
+    }
+}
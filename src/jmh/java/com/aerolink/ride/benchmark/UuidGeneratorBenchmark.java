@@ -0,0 +1,32 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.entity.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating one primary key: {@link UuidV7Generator#next()} versus
+ * {@link UUID#randomUUID()}. Both draw from a {@code SecureRandom}; v7 adds
+ * the clock read and the shared counter. The database side (insert rate and
+ * index size) is measured by {@link UuidInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidGeneratorBenchmark {
+
+    @Benchmark
+    public UUID randomV4() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrderedV7() {
+        return UuidV7Generator.next();
+    }
+}
@@ -0,0 +1,173 @@
+package com.aerolink.ride.benchmark;
+
+import com.aerolink.ride.entity.UuidV7Generator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput and index size of a ride_requests-shaped table keyed by
+ * random (v4) versus time-ordered (v7) UUIDs.
+ *
+ * <p>
+ * Not a JMH benchmark: it loads two real tables through batched JDBC inserts
+ * (the way Hibernate batching sends them) and reports rows/s overall and for
+ * the last 10% of rows, where v4 slows down once its index no longer fits in
+ * shared buffers. For the primary key and the {@code (created_at, id)}
+ * keyset index it reports {@code pg_relation_size}, and for the primary key
+ * the average leaf density from {@code pgstatindex} (v4 settles near 70%
+ * after random splits, v7 stays near the 90% fillfactor).
+ * </p>
+ *
+ * <p>
+ * Runs against a throwaway PostGIS container (needs Docker) unless
+ * {@code -Dbench.url} points at an existing database, e.g. the
+ * docker-compose one ({@code -Dbench.user}, {@code -Dbench.password}).
+ * Run with:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.main=com.aerolink.ride.benchmark.UuidInsertBenchmark -Djmh.args=10000000}
+ * (argument: rows per table, default 10M). The tables are dropped afterwards.
+ * </p>
+ */
+public final class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_EVERY = 100_000;
+
+    private UuidInsertBenchmark() {
+        // Utility class
+    }
+
+    public static void main(String[] args) throws SQLException {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        String url = System.getProperty("bench.url");
+        if (url != null) {
+            run(url, System.getProperty("bench.user", "aerolink"),
+                    System.getProperty("bench.password", "aerolink123"), rows);
+            return;
+        }
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+                DockerImageName.parse("postgis/postgis:15-3.4").asCompatibleSubstituteFor("postgres"))) {
+            postgres.start();
+            run(postgres.getJdbcUrl() + "&reWriteBatchedInserts=true", postgres.getUsername(),
+                    postgres.getPassword(), rows);
+        }
+    }
+
+    private static void run(String url, String user, String password, long rows) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            boolean pgstattuple = createPgstattuple(connection);
+            System.out.printf("%-4s %12s %12s %14s %10s %12s %12s %10s%n", "key", "seconds", "rows/s",
+                    "last 10% r/s", "table MB", "pkey MB", "created MB", "pkey fill");
+            run(connection, "v4", UUID::randomUUID, rows, pgstattuple);
+            run(connection, "v7", UuidV7Generator::next, rows, pgstattuple);
+        }
+    }
+
+    private static void run(Connection connection, String name, Supplier<UUID> ids, long rows,
+            boolean pgstattuple) throws SQLException {
+        String table = "bench_ride_requests_" + name;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("""
+                    CREATE TABLE %s (
+                        id           UUID PRIMARY KEY,
+                        passenger_id UUID             NOT NULL,
+                        pickup_lat   DOUBLE PRECISION NOT NULL,
+                        pickup_lng   DOUBLE PRECISION NOT NULL,
+                        drop_lat     DOUBLE PRECISION NOT NULL,
+                        drop_lng     DOUBLE PRECISION NOT NULL,
+                        status       VARCHAR(20)      NOT NULL,
+                        created_at   TIMESTAMP        NOT NULL
+                    )
+                    """.formatted(table));
+            statement.execute("CREATE INDEX %1$s_created_id ON %1$s (created_at, id)".formatted(table));
+        }
+
+        Random random = new Random(42);
+        UUID passengerId = UUID.randomUUID();
+        long tailStart = rows - rows / 10;
+        long tailStartNanos = 0;
+        long start = System.nanoTime();
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+                + " (id, passenger_id, pickup_lat, pickup_lng, drop_lat, drop_lng, status, created_at)"
+                + " VALUES (?, ?, ?, ?, ?, ?, 'PENDING', ?)")) {
+            for (long i = 0; i < rows; i++) {
+                if (i == tailStart) {
+                    tailStartNanos = System.nanoTime();
+                }
+                insert.setObject(1, ids.get());
+                insert.setObject(2, passengerId);
+                insert.setDouble(3, 19.0 + random.nextDouble() * 0.2);
+                insert.setDouble(4, 72.8 + random.nextDouble() * 0.2);
+                insert.setDouble(5, 19.0896);
+                insert.setDouble(6, 72.8656);
+                insert.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i + 1 == rows) {
+                    insert.executeBatch();
+                }
+                if ((i + 1) % COMMIT_EVERY == 0) {
+                    connection.commit();
+                }
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        long end = System.nanoTime();
+
+        double seconds = (end - start) / 1e9;
+        double tailSeconds = (end - tailStartNanos) / 1e9;
+        System.out.printf("%-4s %12.1f %12.0f %14.0f %10.1f %12.1f %12.1f %10s%n", name, seconds,
+                rows / seconds, (rows - tailStart) / tailSeconds, megabytes(connection, table),
+                megabytes(connection, table + "_pkey"), megabytes(connection, table + "_created_id"),
+                pgstattuple ? "%.1f%%".formatted(leafDensity(connection, table + "_pkey")) : "n/a");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+        }
+    }
+
+    private static double megabytes(Connection connection, String relation) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT pg_relation_size(?::regclass)")) {
+            query.setString(1, relation);
+            try (ResultSet result = query.executeQuery()) {
+                result.next();
+                return result.getLong(1) / (1024.0 * 1024.0);
+            }
+        }
+    }
+
+    /** {@code pgstatindex} is in contrib; without it the fill column is skipped. */
+    private static boolean createPgstattuple(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static double leafDensity(Connection connection, String index) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT avg_leaf_density FROM pgstatindex(?::regclass)")) {
+            query.setString(1, index);
+            try (ResultSet result = query.executeQuery()) {
+                result.next();
+                return result.getDouble(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.aerolink.ride.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost bipartite assignment (Hungarian algorithm).
+ *
+ * <p>
+ * Given a {@code rows × cols} cost matrix, picks at most one column per row
+ * and at most one row per column so that as many rows as possible are
+ * assigned and, among those assignments, the total cost is minimal.
+ * Forbidden pairs are marked with {@link #FORBIDDEN}.
+ * </p>
+ *
+ * <h3>Method:</h3>
+ * <p>
+ * Shortest augmenting paths with row/column potentials (the O(n²m) form of
+ * the Kuhn–Munkres algorithm). Rectangular inputs with more rows than
+ * columns are padded with zero-cost dummy columns; rows that end up on a
+ * dummy or forbidden column are reported as unassigned.
+ * </p>
+ *
+ * <h3>Complexity:</h3>
+ * <ul>
+ * <li>Time: O(r² × c) for r ≤ c — about 10⁶ steps for 50 × 400</li>
+ * <li>Space: O(r + c) beyond the cost matrix</li>
+ * </ul>
+ */
+public final class AssignmentSolver {
+
+    /** Cost of a pair that must not be assigned. */
+    public static final double FORBIDDEN = Double.POSITIVE_INFINITY;
+
+    /**
+     * Finite stand-in for {@link #FORBIDDEN} inside the solver, so potentials
+     * stay finite. Real costs must be far below it.
+     */
+    private static final double FORBIDDEN_COST = 1e9;
+
+    private AssignmentSolver() {
+        // Utility class
+    }
+
+    /**
+     * Solve the assignment problem.
+     *
+     * @param cost Cost matrix, {@code rows × cols}, row-major; entries of
+     *             {@link #FORBIDDEN} (or NaN) are never assigned
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return For each row, its assigned column, or {@code -1} if unassigned
+     */
+    public static int[] solve(double[] cost, int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Negative matrix size: " + rows + " × " + cols);
+        }
+        if (cost.length < rows * cols) {
+            throw new IllegalArgumentException("Cost matrix too small for " + rows + " × " + cols);
+        }
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        if (rows == 0 || cols == 0) {
+            return assignment;
+        }
+
+        // 1-based: row/column 0 is the virtual start of each augmenting path
+        int width = Math.max(rows, cols);
+        double[] u = new double[rows + 1];
+        double[] v = new double[width + 1];
+        int[] rowOf = new int[width + 1];
+        int[] way = new int[width + 1];
+        double[] minSlack = new double[width + 1];
+        boolean[] used = new boolean[width + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            rowOf[0] = row;
+            int col0 = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[col0] = true;
+                int row0 = rowOf[col0];
+                double delta = Double.POSITIVE_INFINITY;
+                int col1 = 0;
+                for (int col = 1; col <= width; col++) {
+                    if (used[col]) {
+                        continue;
+                    }
+                    double slack = cellCost(cost, cols, row0 - 1, col - 1) - u[row0] - v[col];
+                    if (slack < minSlack[col]) {
+                        minSlack[col] = slack;
+                        way[col] = col0;
+                    }
+                    if (minSlack[col] < delta) {
+                        delta = minSlack[col];
+                        col1 = col;
+                    }
+                }
+                for (int col = 0; col <= width; col++) {
+                    if (used[col]) {
+                        u[rowOf[col]] += delta;
+                        v[col] -= delta;
+                    } else {
+                        minSlack[col] -= delta;
+                    }
+                }
+                col0 = col1;
+            } while (rowOf[col0] != 0);
+
+            // Flip the augmenting path
+            do {
+                int col1 = way[col0];
+                rowOf[col0] = rowOf[col1];
+                col0 = col1;
+            } while (col0 != 0);
+        }
+
+        for (int col = 1; col <= cols; col++) {
+            int row = rowOf[col];
+            if (row != 0 && cellCost(cost, cols, row - 1, col - 1) < FORBIDDEN_COST) {
+                assignment[row - 1] = col - 1;
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * @return Total cost of an assignment returned by {@link #solve}, over
+     *         assigned rows only
+     */
+    public static double totalCost(double[] cost, int cols, int[] assignment) {
+        double total = 0.0;
+        for (int row = 0; row < assignment.length; row++) {
+            if (assignment[row] >= 0) {
+                total += cost[row * cols + assignment[row]];
+            }
+        }
+        return total;
+    }
+
+    private static double cellCost(double[] cost, int cols, int row, int col) {
+        if (col >= cols) {
+            return 0.0; // Dummy column padding a tall matrix
+        }
+        double c = cost[row * cols + col];
+        return c < FORBIDDEN_COST ? c : FORBIDDEN_COST; // Also maps NaN
+    }
+}
@@ -0,0 +1,91 @@
+package com.aerolink.ride.algorithm;
+
+import com.aerolink.ride.entity.Cab;
+import com.aerolink.ride.entity.RidePool;
+
+import java.util.List;
+
+/**
+ * Assigns available cabs to the pools being dispatched in one scheduler
+ * tick, minimising total pickup (deadhead) distance.
+ *
+ * <p>
+ * Dispatching pools one by one, each taking its nearest cab, lets an early
+ * pool take the only cab near a later one, which then has to wait or be
+ * served from far away. Solving all pools of a tick together as a
+ * min-cost assignment ({@link AssignmentSolver}) avoids that.
+ * </p>
+ *
+ * <h3>Cost:</h3>
+ * <p>
+ * Routing distance from the cab to the pool's anchor pickup. A pair is
+ * forbidden if that exceeds {@code maxPickupKm} or the cab cannot seat the
+ * pool's passengers and luggage. The assignment serves as many pools as
+ * possible, then minimises the total distance.
+ * </p>
+ *
+ * <h3>Complexity:</h3>
+ * <p>
+ * O(p × c) distances plus an O(min(p, c)² × max(p, c)) assignment, for p
+ * pools and c cabs.
+ * </p>
+ */
+public final class CabDispatchMatcher {
+
+    private CabDispatchMatcher() {
+        // Utility class
+    }
+
+    /**
+     * Assign cabs to pools.
+     *
+     * @param pools       Pools to dispatch
+     * @param cabs        Available cabs near any of them
+     * @param maxPickupKm Largest cab-to-pickup distance to assign
+     * @return For each pool (same index), its cab, or null if none could be
+     *         assigned
+     */
+    public static Cab[] assign(List<RidePool> pools, List<Cab> cabs, double maxPickupKm) {
+        int p = pools.size();
+        int c = cabs.size();
+        Cab[] assigned = new Cab[p];
+        if (p == 0 || c == 0) {
+            return assigned;
+        }
+
+        double[] poolLats = new double[p];
+        double[] poolLngs = new double[p];
+        for (int i = 0; i < p; i++) {
+            poolLats[i] = pools.get(i).getPickupLat();
+            poolLngs[i] = pools.get(i).getPickupLng();
+        }
+        double[] cabLats = new double[c];
+        double[] cabLngs = new double[c];
+        for (int j = 0; j < c; j++) {
+            cabLats[j] = cabs.get(j).getCurrentLat();
+            cabLngs[j] = cabs.get(j).getCurrentLng();
+        }
+
+        double[] cost = new double[p * c];
+        DistanceCalculator.distanceMatrix(poolLats, poolLngs, p, cabLats, cabLngs, c, cost);
+        for (int i = 0; i < p; i++) {
+            RidePool pool = pools.get(i);
+            for (int j = 0; j < c; j++) {
+                Cab cab = cabs.get(j);
+                if (cost[i * c + j] > maxPickupKm
+                        || cab.getTotalSeats() < pool.getTotalOccupiedSeats()
+                        || cab.getLuggageCapacity() < pool.getTotalLuggage()) {
+                    cost[i * c + j] = AssignmentSolver.FORBIDDEN;
+                }
+            }
+        }
+
+        int[] assignment = AssignmentSolver.solve(cost, p, c);
+        for (int i = 0; i < p; i++) {
+            if (assignment[i] >= 0) {
+                assigned[i] = cabs.get(assignment[i]);
+            }
+        }
+        return assigned;
+    }
+}
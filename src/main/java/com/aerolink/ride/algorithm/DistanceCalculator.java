@@ -1,24 +1,135 @@
 package com.aerolink.ride.algorithm;
 
+import com.aerolink.ride.entity.RideRequest;
+
 /**
  * Haversine distance calculator for computing great-circle distance
  * between two points on Earth given their latitude and longitude.
  *
  * <p>
- * Time Complexity: O(1) per calculation
+ * Besides the exact {@link #calculateKm} it offers a selectable routing
+ * distance ({@link #routeKm}) used on the matching hot path. In
+ * {@link Mode#EQUIRECTANGULAR} mode short legs use the flat-earth
+ * approximation {@code R × √((Δλ·cos φm)² + Δφ²)}, which needs no trig
+ * calls when {@code cos φ} is precomputed per point, and fall back to
+ * haversine for legs longer than {@code fastPathMaxKm} or at high latitude.
+ * </p>
+ *
+ * <h3>Error bound (fast path):</h3>
+ * <p>
+ * For legs up to 50 km with |latitude| ≤ {@value #FAST_PATH_MAX_ABS_LAT}°
+ * the relative error versus haversine stays below 1e-5 (≈ 0.5 m at 50 km).
+ * Outside that envelope the fast path is never taken.
  * </p>
+ *
+ * <h3>Batch API:</h3>
+ * <p>
+ * {@link #distanceMatrix} and {@link #distancesFrom} take structure-of-arrays
+ * inputs and fill a flat row-major {@code double[]}. Radians and half-angle
+ * sines/cosines are computed once per point, so each pair costs one
+ * {@code sqrt} and one {@code asin} (haversine) or just a {@code sqrt}
+ * (fast path) instead of five trig calls. Large one-to-many batches run on
+ * the Vector API kernel when the JVM has {@code jdk.incubator.vector}.
+ * </p>
+ *
  * <p>
- * Space Complexity: O(1)
+ * Time Complexity: O(1) per calculation, O(m × n) per matrix
+ * </p>
+ * <p>
+ * Space Complexity: O(1), O(m + n) scratch per matrix
  * </p>
  */
 public final class DistanceCalculator {
 
     private static final double EARTH_RADIUS_KM = 6371.0;
 
+    /** Smallest {@link #distancesFrom} batch routed to the SIMD kernel. */
+    public static final int VECTOR_MIN_POINTS = 64;
+
+    /** Longest leg the error bound above is guaranteed for. */
+    public static final double MAX_FAST_PATH_KM = 50.0;
+
+    /** Highest latitude (degrees) where the fast path is allowed. */
+    public static final double FAST_PATH_MAX_ABS_LAT = 60.0;
+
+    /** Strategy used by {@link #routeKm}. */
+    public enum Mode {
+        /** Always use the exact haversine formula. */
+        HAVERSINE,
+        /** Equirectangular approximation for short legs, haversine beyond the threshold. */
+        EQUIRECTANGULAR
+    }
+
+    /**
+     * Per-point precomputed values, interleaved: radLat, radLng, sin(φ/2),
+     * cos(φ/2), sin(λ/2), cos(λ/2), cos(φ).
+     */
+    private static final int RAD_LAT = 0;
+    private static final int RAD_LNG = 1;
+    private static final int SIN_HALF_LAT = 2;
+    private static final int COS_HALF_LAT = 3;
+    private static final int SIN_HALF_LNG = 4;
+    private static final int COS_HALF_LNG = 5;
+    private static final int COS_LAT = 6;
+    static final int STRIDE = 7;
+
+    private static final double FAST_PATH_MAX_ABS_LAT_RAD = Math.toRadians(FAST_PATH_MAX_ABS_LAT);
+
+    /** True when the JVM was started with {@code --add-modules jdk.incubator.vector}. */
+    private static final boolean VECTOR_API_PRESENT = ModuleLayer.boot()
+            .findModule("jdk.incubator.vector").isPresent();
+
+    private static volatile Mode mode = Mode.HAVERSINE;
+    private static volatile double fastPathMaxKm = MAX_FAST_PATH_KM;
+    private static volatile boolean vectorKernelEnabled = VECTOR_API_PRESENT;
+
     private DistanceCalculator() {
         // Utility class
     }
 
+    /**
+     * Select the routing distance strategy. Called once at startup from config.
+     *
+     * @param newMode          Strategy for {@link #routeKm}
+     * @param newFastPathMaxKm Legs longer than this use haversine (capped at
+     *                         {@link #MAX_FAST_PATH_KM})
+     */
+    public static void configure(Mode newMode, double newFastPathMaxKm) {
+        if (newMode == null) {
+            throw new IllegalArgumentException("Distance mode must not be null");
+        }
+        if (newFastPathMaxKm <= 0) {
+            throw new IllegalArgumentException("Fast-path threshold must be positive: " + newFastPathMaxKm);
+        }
+        mode = newMode;
+        fastPathMaxKm = Math.min(newFastPathMaxKm, MAX_FAST_PATH_KM);
+    }
+
+    /**
+     * @return The currently configured routing distance strategy
+     */
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Enable or disable the SIMD kernel behind {@link #distancesFrom}. Has no
+     * effect when the Vector API module is not available in this JVM.
+     *
+     * @return Whether the kernel is now active
+     */
+    public static boolean configureVectorKernel(boolean enabled) {
+        vectorKernelEnabled = enabled && VECTOR_API_PRESENT;
+        return vectorKernelEnabled;
+    }
+
+    /**
+     * @return Whether large {@link #distancesFrom} batches use the SIMD kernel
+     */
+    public static boolean isVectorKernelActive() {
+        return vectorKernelEnabled;
+    }
+
     /**
      * Calculate the Haversine distance between two geo-coordinates.
      *
@@ -40,4 +151,288 @@ public final class DistanceCalculator {
 
         return EARTH_RADIUS_KM * c;
     }
+
+    /**
+     * A rider's pickup → drop distance: the {@code direct_km} stored at
+     * booking, or the haversine distance for a request that has not been
+     * persisted yet.
+     *
+     * @return Distance in kilometers
+     */
+    public static double directKm(RideRequest request) {
+        Double stored = request.getDirectKm();
+        if (stored != null) {
+            return stored;
+        }
+        return calculateKm(request.getPickupLat(), request.getPickupLng(),
+                request.getDropLat(), request.getDropLng());
+    }
+
+    /**
+     * Initial great-circle bearing from point 1 towards point 2.
+     *
+     * @return Degrees clockwise from north, in {@code [0, 360)}
+     */
+    public static double bearingDegrees(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double y = Math.sin(dLng) * Math.cos(phi2);
+        double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(dLng);
+        double bearing = Math.toDegrees(Math.atan2(y, x));
+        return bearing < 0 ? bearing + 360.0 : bearing;
+    }
+
+    /**
+     * Equirectangular (flat-earth) approximation using the cosine of the mean
+     * latitude. Only accurate for short legs; see the class-level error bound.
+     *
+     * @return Approximate distance in kilometers
+     */
+    public static double equirectangularKm(double lat1, double lng1, double lat2, double lng2) {
+        return equirectangularKm(lat1, lng1, Math.cos(Math.toRadians((lat1 + lat2) / 2)), lat2, lng2);
+    }
+
+    /**
+     * Routing distance between two points according to the configured {@link Mode}.
+     *
+     * @return Distance in kilometers
+     */
+    public static double routeKm(double lat1, double lng1, double lat2, double lng2) {
+        if (mode == Mode.HAVERSINE) {
+            return calculateKm(lat1, lng1, lat2, lng2);
+        }
+        return routeKm(lat1, lng1, cosLat(lat1), lat2, lng2, cosLat(lat2));
+    }
+
+    /**
+     * Routing distance with per-point {@code cos(latitude)} precomputed by the
+     * caller (see {@link #cosLat}), so the fast path needs no trig calls.
+     *
+     * @return Distance in kilometers
+     */
+    public static double routeKm(double lat1, double lng1, double cosLat1,
+            double lat2, double lng2, double cosLat2) {
+        if (mode == Mode.HAVERSINE
+                || Math.abs(lat1) > FAST_PATH_MAX_ABS_LAT
+                || Math.abs(lat2) > FAST_PATH_MAX_ABS_LAT) {
+            return calculateKm(lat1, lng1, lat2, lng2);
+        }
+        // (cos φ1 + cos φ2) / 2 = cos φm × cos(Δφ/2): identical to cos φm within 1e-5 at 50 km
+        double km = equirectangularKm(lat1, lng1, (cosLat1 + cosLat2) * 0.5, lat2, lng2);
+        return km <= fastPathMaxKm ? km : calculateKm(lat1, lng1, lat2, lng2);
+    }
+
+    /**
+     * @return {@code cos(lat)} for a latitude in degrees, for use with
+     *         {@link #routeKm(double, double, double, double, double, double)}
+     */
+    public static double cosLat(double lat) {
+        return Math.cos(Math.toRadians(lat));
+    }
+
+    private static double equirectangularKm(double lat1, double lng1, double cosMeanLat,
+            double lat2, double lng2) {
+        double dLngDeg = lng2 - lng1;
+        // Take the short way round across the antimeridian
+        if (dLngDeg > 180) {
+            dLngDeg -= 360;
+        } else if (dLngDeg < -180) {
+            dLngDeg += 360;
+        }
+        double x = Math.toRadians(dLngDeg) * cosMeanLat;
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+    }
+
+    // ────────────────────────────────────────────────────────────────────
+    // Batch API
+    // ────────────────────────────────────────────────────────────────────
+
+    /**
+     * Fill an n×n routing distance matrix for a set of points:
+     * {@code out[i * n + j]} = distance from point i to point j.
+     *
+     * @param lats Latitudes (degrees), at least {@code n} entries
+     * @param lngs Longitudes (degrees), at least {@code n} entries
+     * @param n    Number of points to use
+     * @param out  Destination, at least {@code n × n} entries
+     */
+    public static void distanceMatrix(double[] lats, double[] lngs, int n, double[] out) {
+        distanceMatrix(lats, lngs, n, out, new double[n * STRIDE]);
+    }
+
+    /**
+     * {@link #distanceMatrix(double[], double[], int, double[])} with a
+     * caller-owned scratch block of at least {@code n × STRIDE} entries for
+     * the per-point precomputation, so repeated calls allocate nothing.
+     */
+    static void distanceMatrix(double[] lats, double[] lngs, int n, double[] out, double[] points) {
+        checkCapacity(out, n * n);
+        precomputeInto(lats, lngs, n, points);
+        Mode currentMode = mode;
+        double maxFastKm = fastPathMaxKm;
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            out[row + i] = 0.0;
+            for (int j = i + 1; j < n; j++) {
+                double km = pairKm(points, i, points, j, currentMode, maxFastKm);
+                out[row + j] = km;
+                out[j * n + i] = km;
+            }
+        }
+    }
+
+    /**
+     * Fill an m×n routing distance matrix between two point sets:
+     * {@code out[i * n + j]} = distance from origin i to destination j.
+     *
+     * @param fromLats Origin latitudes (degrees), at least {@code m} entries
+     * @param fromLngs Origin longitudes (degrees), at least {@code m} entries
+     * @param m        Number of origins
+     * @param toLats   Destination latitudes (degrees), at least {@code n} entries
+     * @param toLngs   Destination longitudes (degrees), at least {@code n} entries
+     * @param n        Number of destinations
+     * @param out      Destination, at least {@code m × n} entries
+     */
+    public static void distanceMatrix(double[] fromLats, double[] fromLngs, int m,
+            double[] toLats, double[] toLngs, int n, double[] out) {
+        checkCapacity(out, m * n);
+        double[] from = precompute(fromLats, fromLngs, m);
+        double[] to = precompute(toLats, toLngs, n);
+        Mode currentMode = mode;
+        double maxFastKm = fastPathMaxKm;
+        for (int i = 0; i < m; i++) {
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                out[row + j] = pairKm(from, i, to, j, currentMode, maxFastKm);
+            }
+        }
+    }
+
+    /**
+     * Distances from one origin to many destinations (a 1×n matrix).
+     *
+     * <p>
+     * Batches of at least {@value #VECTOR_MIN_POINTS} points (e.g. ranking the
+     * whole fleet against a pickup) run on the SIMD kernel when it is active;
+     * smaller ones and JVMs without the Vector API use the scalar path.
+     * </p>
+     *
+     * @param lat  Origin latitude (degrees)
+     * @param lng  Origin longitude (degrees)
+     * @param lats Destination latitudes (degrees), at least {@code n} entries
+     * @param lngs Destination longitudes (degrees), at least {@code n} entries
+     * @param n    Number of destinations
+     * @param out  Destination, at least {@code n} entries
+     */
+    public static void distancesFrom(double lat, double lng, double[] lats, double[] lngs, int n, double[] out) {
+        if (n >= VECTOR_MIN_POINTS && vectorKernelEnabled) {
+            checkCapacity(out, n);
+            if (lats.length < n || lngs.length < n) {
+                throw new IllegalArgumentException("Coordinate arrays shorter than point count " + n);
+            }
+            VectorDistanceKernel.distancesFrom(lat, lng, lats, lngs, n, out,
+                    mode == Mode.EQUIRECTANGULAR, fastPathMaxKm, FAST_PATH_MAX_ABS_LAT_RAD, EARTH_RADIUS_KM);
+            return;
+        }
+        distanceMatrix(new double[] { lat }, new double[] { lng }, 1, lats, lngs, n, out);
+    }
+
+    /**
+     * Distances from one origin to destinations already run through
+     * {@link #precompute}, for callers that query the same point set
+     * repeatedly (e.g. a route plan's stops). Always scalar.
+     *
+     * @param points Precomputed destinations from {@link #precompute}
+     * @param n      Number of destinations
+     * @param out    Destination, at least {@code n} entries
+     */
+    static void distancesFrom(double lat, double lng, double[] points, int n, double[] out) {
+        distancesFrom(lat, lng, points, n, out, new double[STRIDE]);
+    }
+
+    /**
+     * As above, with a caller-owned {@code STRIDE}-entry scratch block for the origin.
+     */
+    static void distancesFrom(double lat, double lng, double[] points, int n, double[] out, double[] origin) {
+        checkCapacity(out, n);
+        writePoint(origin, 0, lat, lng);
+        Mode currentMode = mode;
+        double maxFastKm = fastPathMaxKm;
+        for (int j = 0; j < n; j++) {
+            out[j] = pairKm(origin, 0, points, j, currentMode, maxFastKm);
+        }
+    }
+
+    /**
+     * Per-point radians and half-angle sines/cosines in the interleaved
+     * layout {@link #pairKm} reads.
+     */
+    static double[] precompute(double[] lats, double[] lngs, int n) {
+        double[] points = new double[n * STRIDE];
+        precomputeInto(lats, lngs, n, points);
+        return points;
+    }
+
+    private static void precomputeInto(double[] lats, double[] lngs, int n, double[] points) {
+        if (lats.length < n || lngs.length < n) {
+            throw new IllegalArgumentException("Coordinate arrays shorter than point count " + n);
+        }
+        checkCapacity(points, n * STRIDE);
+        for (int i = 0; i < n; i++) {
+            writePoint(points, i, lats[i], lngs[i]);
+        }
+    }
+
+    private static void writePoint(double[] points, int i, double lat, double lng) {
+        double radLat = Math.toRadians(lat);
+        double radLng = Math.toRadians(lng);
+        double sinHalfLat = Math.sin(radLat / 2);
+        double cosHalfLat = Math.cos(radLat / 2);
+        int base = i * STRIDE;
+        points[base + RAD_LAT] = radLat;
+        points[base + RAD_LNG] = radLng;
+        points[base + SIN_HALF_LAT] = sinHalfLat;
+        points[base + COS_HALF_LAT] = cosHalfLat;
+        points[base + SIN_HALF_LNG] = Math.sin(radLng / 2);
+        points[base + COS_HALF_LNG] = Math.cos(radLng / 2);
+        points[base + COS_LAT] = cosHalfLat * cosHalfLat - sinHalfLat * sinHalfLat;
+    }
+
+    /**
+     * Distance between two precomputed points, honouring the routing mode.
+     */
+    private static double pairKm(double[] a, int i, double[] b, int j, Mode currentMode, double maxFastKm) {
+        int p = i * STRIDE;
+        int q = j * STRIDE;
+        if (currentMode == Mode.EQUIRECTANGULAR
+                && Math.abs(a[p + RAD_LAT]) <= FAST_PATH_MAX_ABS_LAT_RAD
+                && Math.abs(b[q + RAD_LAT]) <= FAST_PATH_MAX_ABS_LAT_RAD) {
+            double dLng = b[q + RAD_LNG] - a[p + RAD_LNG];
+            if (dLng > Math.PI) {
+                dLng -= 2 * Math.PI;
+            } else if (dLng < -Math.PI) {
+                dLng += 2 * Math.PI;
+            }
+            double x = dLng * (a[p + COS_LAT] + b[q + COS_LAT]) * 0.5;
+            double y = b[q + RAD_LAT] - a[p + RAD_LAT];
+            double km = EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+            if (km <= maxFastKm) {
+                return km;
+            }
+        }
+        // sin((φ2 − φ1)/2) and sin((λ2 − λ1)/2) via angle-difference identities: no trig per pair
+        double sinHalfDLat = b[q + SIN_HALF_LAT] * a[p + COS_HALF_LAT] - b[q + COS_HALF_LAT] * a[p + SIN_HALF_LAT];
+        double sinHalfDLng = b[q + SIN_HALF_LNG] * a[p + COS_HALF_LNG] - b[q + COS_HALF_LNG] * a[p + SIN_HALF_LNG];
+        double h = sinHalfDLat * sinHalfDLat + a[p + COS_LAT] * b[q + COS_LAT] * sinHalfDLng * sinHalfDLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    private static void checkCapacity(double[] out, int required) {
+        if (out.length < required) {
+            throw new IllegalArgumentException(
+                    "Output array too small: " + out.length + " < " + required);
+        }
+    }
 }
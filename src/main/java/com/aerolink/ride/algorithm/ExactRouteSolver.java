@@ -0,0 +1,171 @@
+package com.aerolink.ride.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Exact shortest pickup/drop route for a small pool.
+ *
+ * <p>
+ * Finds the stop order with the minimum total distance such that every rider
+ * is picked up before being dropped. Pickups and drops may interleave and the
+ * route may start at any pickup (the cab position is not yet known while a
+ * pool is FORMING). This is the open-path "pickup and delivery" variant of TSP,
+ * solved exactly with a dynamic program over visited-set states.
+ * </p>
+ *
+ * <h3>State encoding:</h3>
+ * <p>
+ * Each rider is in one of three phases — waiting (0), on board (1) or
+ * dropped (2) — so a visited set is a base-3 number {@code Σ phaseᵢ × 3ⁱ}.
+ * Both legal moves for rider {@code i} (pickup 0→1, drop 1→2) add exactly
+ * {@code 3ⁱ}, so every transition goes to a larger code and states can be
+ * processed in plain ascending order. Precedence is enforced by construction,
+ * and the 3ⁿ encoding wastes none of the {@code 4ⁿ} pickup/drop bitmask
+ * pairs that would violate it.
+ * </p>
+ *
+ * <h3>Stop indexing:</h3>
+ * <p>
+ * Same as {@link RouteDeviationChecker}: stop {@code i} is rider {@code i}'s
+ * pickup and stop {@code n + i} is their drop, over a flat
+ * {@code 2n × 2n} distance matrix.
+ * </p>
+ *
+ * <h3>Complexity:</h3>
+ * <ul>
+ * <li>Time: O(3ⁿ × 2n × n) — about 840k relaxations for 8 riders</li>
+ * <li>Space: O(3ⁿ × 2n)</li>
+ * </ul>
+ */
+public final class ExactRouteSolver {
+
+    /** Largest pool the solver accepts (3⁸ × 16 states). */
+    public static final int MAX_RIDERS = 8;
+
+    /** How many states to process between deadline checks. */
+    private static final int DEADLINE_CHECK_MASK = 0xFF;
+
+    private static final int[] POW3 = new int[MAX_RIDERS + 1];
+
+    static {
+        POW3[0] = 1;
+        for (int i = 1; i <= MAX_RIDERS; i++) {
+            POW3[i] = POW3[i - 1] * 3;
+        }
+    }
+
+    private ExactRouteSolver() {
+        // Utility class
+    }
+
+    /**
+     * Compute the shortest precedence-respecting route.
+     *
+     * @param matrix      Stop distance matrix, {@code 2n × 2n}, row-major
+     * @param riders      Number of riders {@code n} (1..{@value #MAX_RIDERS})
+     * @param budgetNanos Give up once this much time has elapsed
+     * @return Stop indices in visiting order, or {@code null} if the budget
+     *         ran out (the caller should fall back to a heuristic)
+     */
+    public static int[] solve(double[] matrix, int riders, long budgetNanos) {
+        int stops = 2 * riders;
+        int[] route = new int[Math.max(stops, 0)];
+        return solveInto(matrix, riders, budgetNanos, route, RouteScratch.get()) ? route : null;
+    }
+
+    /**
+     * Allocation-free variant of {@link #solve}: DP tables come from the
+     * thread's {@link RouteScratch} and the order is written to {@code route}.
+     *
+     * @return false if the budget ran out ({@code route} is then undefined)
+     */
+    static boolean solveInto(double[] matrix, int riders, long budgetNanos, int[] route,
+            RouteScratch scratch) {
+        if (riders < 1 || riders > MAX_RIDERS) {
+            throw new IllegalArgumentException("Exact route solver supports 1.." + MAX_RIDERS
+                    + " riders, got " + riders);
+        }
+        int stops = 2 * riders;
+        if (matrix.length < stops * stops) {
+            throw new IllegalArgumentException("Distance matrix too small for " + riders + " riders");
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+
+        int states = POW3[riders];
+        int cells = states * stops;
+        scratch.ensureRiders(riders);
+        scratch.ensureDp(cells);
+        double[] cost = scratch.dpCost;
+        byte[] parent = scratch.dpParent;
+        int[] phase = scratch.dpPhase;
+        Arrays.fill(cost, 0, cells, Double.POSITIVE_INFINITY);
+
+        // Any pickup may start the route
+        for (int r = 0; r < riders; r++) {
+            cost[POW3[r] * stops + r] = 0.0;
+            parent[POW3[r] * stops + r] = -1;
+        }
+
+        for (int state = 1; state < states; state++) {
+            if ((state & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+                return false;
+            }
+            int code = state;
+            for (int r = 0; r < riders; r++) {
+                phase[r] = code % 3;
+                code /= 3;
+            }
+
+            int base = state * stops;
+            for (int last = 0; last < stops; last++) {
+                double soFar = cost[base + last];
+                if (soFar == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int row = last * stops;
+                for (int r = 0; r < riders; r++) {
+                    if (phase[r] == 2) {
+                        continue;
+                    }
+                    // Phase 0 → visit pickup r, phase 1 → visit drop r
+                    int next = phase[r] == 0 ? r : riders + r;
+                    int slot = (state + POW3[r]) * stops + next;
+                    double candidate = soFar + matrix[row + next];
+                    if (candidate < cost[slot]) {
+                        cost[slot] = candidate;
+                        parent[slot] = (byte) last;
+                    }
+                }
+            }
+        }
+
+        // Everyone dropped: the route ends at whichever drop is cheapest
+        int finalBase = (states - 1) * stops;
+        int last = riders;
+        for (int d = riders + 1; d < stops; d++) {
+            if (cost[finalBase + d] < cost[finalBase + last]) {
+                last = d;
+            }
+        }
+
+        int state = states - 1;
+        for (int pos = stops - 1; pos >= 0; pos--) {
+            route[pos] = last;
+            int prev = parent[state * stops + last];
+            state -= POW3[last % riders];
+            last = prev;
+        }
+        return true;
+    }
+
+    /**
+     * @return Total distance of the given stop order
+     */
+    public static double routeKm(double[] matrix, int stops, int[] route) {
+        double total = 0.0;
+        for (int i = 1; i < stops; i++) {
+            total += matrix[route[i - 1] * stops + route[i]];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,257 @@
+package com.aerolink.ride.algorithm;
+
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.entity.RideRequest;
+import com.aerolink.ride.enums.RideStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matches a batch of ride requests to pools collectively.
+ *
+ * <p>
+ * {@link RideGroupingAlgorithm} places each request on arrival, so whoever
+ * arrives first takes the best spot and a later request that fits only
+ * there opens a pool of its own. Buffering requests for a short window and
+ * placing them together avoids that and yields fewer, fuller pools.
+ * </p>
+ *
+ * <h3>Algorithm:</h3>
+ * <ol>
+ * <li>Columns are the candidate FORMING pools plus the pools opened so far
+ * in this batch; every still-unplaced request additionally gets a "new
+ * pool" column costing {@value #NEW_POOL_COST}.</li>
+ * <li>A join costs the {@link RideGroupingAlgorithm#scorePool pool score};
+ * it is {@link AssignmentSolver#FORBIDDEN} if the pool is out of search
+ * range, lacks seats or luggage space, or would push anyone past their
+ * detour tolerance ({@link RouteDeviationChecker}).</li>
+ * <li>Solve the min-cost assignment. Because opening a pool costs far more
+ * than any join, it places as many requests into pools as possible, then
+ * picks the best-scoring joins.</li>
+ * <li>Apply every join. If there was none, open a pool for the earliest
+ * unplaced request instead, so later rounds can join it.</li>
+ * <li>Repeat until every request is placed.</li>
+ * </ol>
+ *
+ * <p>
+ * Each column takes at most one request per round, so every join is checked
+ * against the pool's members as they will be.
+ * </p>
+ *
+ * <h3>Complexity:</h3>
+ * <p>
+ * At most k rounds for k requests, each an O(k² × (m + k)) assignment over
+ * m pools. Join costs are cached per pool and recomputed only after that
+ * pool changes, so there are O(k × (m + k)) detour checks in total.
+ * </p>
+ */
+@Slf4j
+public final class RideBatchMatcher {
+
+    /** Cost of opening a new pool: dominates any join score. */
+    static final double NEW_POOL_COST = 1e6;
+
+    private RideBatchMatcher() {
+        // Utility class
+    }
+
+    /**
+     * Where one request of the batch goes.
+     *
+     * @param request The request
+     * @param pool    Existing pool to join, or null for a pool opened by this
+     *                batch
+     * @param newPool Batch-local number of the new pool (0, 1, ...) when
+     *                {@code pool} is null, else -1. The first placement with
+     *                a given number opens it; later ones join it.
+     */
+    public record Placement(RideRequest request, RidePool pool, int newPool) {
+    }
+
+    /**
+     * Match a batch of requests.
+     *
+     * @param requests       Pending requests, earliest first
+     * @param candidates     FORMING pools near any of the requests
+     * @param maxPoolSize    Maximum number of ride requests per pool
+     * @param searchRadiusKm Largest distance from a request's pickup to a
+     *                       pool's anchor pickup
+     * @return One placement per request, in the order to apply them
+     */
+    public static List<Placement> match(List<RideRequest> requests, List<RidePool> candidates,
+            int maxPoolSize, double searchRadiusKm) {
+        List<Column> columns = new ArrayList<>(candidates.size() + requests.size());
+        for (RidePool pool : candidates) {
+            columns.add(new Column(pool, requests.size()));
+        }
+
+        List<Placement> placements = new ArrayList<>(requests.size());
+        List<Integer> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            pending.add(i);
+        }
+        int newPools = 0;
+        int rounds = 0;
+
+        while (!pending.isEmpty()) {
+            rounds++;
+            int rows = pending.size();
+            int poolCols = columns.size();
+            int cols = poolCols + rows;
+            double[] cost = new double[rows * cols];
+            for (int r = 0; r < rows; r++) {
+                int request = pending.get(r);
+                for (int c = 0; c < poolCols; c++) {
+                    cost[r * cols + c] = columns.get(c).joinCost(request, requests.get(request), maxPoolSize,
+                            searchRadiusKm);
+                }
+                Arrays.fill(cost, r * cols + poolCols, (r + 1) * cols, NEW_POOL_COST);
+            }
+
+            int[] assignment = AssignmentSolver.solve(cost, rows, cols);
+
+            List<Integer> placed = new ArrayList<>();
+            for (int r = 0; r < rows; r++) {
+                int c = assignment[r];
+                if (c >= 0 && c < poolCols) {
+                    int request = pending.get(r);
+                    Column column = columns.get(c);
+                    column.add(requests.get(request));
+                    placements.add(new Placement(requests.get(request), column.pool, column.newPool));
+                    placed.add(request);
+                }
+            }
+
+            if (placed.isEmpty()) {
+                // Nobody fits anywhere: open a pool for the earliest request
+                int request = pending.get(0);
+                Column column = new Column(requests.get(request), newPools++, requests.size());
+                columns.add(column);
+                placements.add(new Placement(requests.get(request), null, column.newPool));
+                placed.add(request);
+            }
+            pending.removeAll(placed);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Batch of {} requests matched in {} rounds: {} existing pools, {} new pools",
+                    requests.size(), rounds, candidates.size(), newPools);
+        }
+        return placements;
+    }
+
+    /**
+     * A pool being filled by the batch, with the capacity and members it
+     * will have once the placements so far are applied.
+     */
+    private static final class Column {
+        final RidePool pool;
+        final int newPool;
+        final double anchorLat;
+        final double anchorLng;
+        final boolean hasCab;
+        final double cabLat;
+        final double cabLng;
+        final List<RideRequest> members;
+        int seatsLeft;
+        int luggageLeft;
+        double[] dropLats;
+        double[] dropLngs;
+        int riders;
+
+        /** Join cost per request index; NaN until computed for the current members. */
+        final double[] costs;
+
+        Column(RidePool pool, int batchSize) {
+            this.pool = pool;
+            this.newPool = -1;
+            this.anchorLat = pool.getPickupLat();
+            this.anchorLng = pool.getPickupLng();
+            this.hasCab = pool.getCab() != null;
+            this.cabLat = hasCab ? pool.getCab().getCurrentLat() : 0.0;
+            this.cabLng = hasCab ? pool.getCab().getCurrentLng() : 0.0;
+            this.members = new ArrayList<>();
+            if (pool.getRideRequests() != null) {
+                for (RideRequest member : pool.getRideRequests()) {
+                    if (member.getStatus() != RideStatus.CANCELLED && member.getStatus() != RideStatus.COMPLETED) {
+                        members.add(member);
+                    }
+                }
+            }
+            this.seatsLeft = pool.getRemainingSeats();
+            this.luggageLeft = pool.getRemainingLuggage();
+            this.costs = new double[batchSize];
+            // Score over every loaded member, as RideGroupingAlgorithm does
+            List<RideRequest> scored = pool.getRideRequests() != null ? pool.getRideRequests() : List.of();
+            this.dropLats = new double[scored.size() + 1];
+            this.dropLngs = new double[scored.size() + 1];
+            for (RideRequest member : scored) {
+                addDrop(member);
+            }
+            Arrays.fill(costs, Double.NaN);
+        }
+
+        /** A pool opened by this batch, anchored at its founder like a new FORMING pool. */
+        Column(RideRequest founder, int newPool, int batchSize) {
+            this.pool = null;
+            this.newPool = newPool;
+            this.anchorLat = founder.getPickupLat();
+            this.anchorLng = founder.getPickupLng();
+            this.hasCab = false;
+            this.cabLat = 0.0;
+            this.cabLng = 0.0;
+            this.members = new ArrayList<>();
+            this.seatsLeft = RidePool.FIXED_CAPACITY_SEATS;
+            this.luggageLeft = RidePool.FIXED_CAPACITY_LUGGAGE;
+            this.costs = new double[batchSize];
+            this.dropLats = new double[4];
+            this.dropLngs = new double[4];
+            add(founder);
+        }
+
+        double joinCost(int index, RideRequest request, int maxPoolSize, double searchRadiusKm) {
+            double cost = costs[index];
+            if (Double.isNaN(cost)) {
+                cost = feasible(request, maxPoolSize, searchRadiusKm)
+                        ? RideGroupingAlgorithm.score(hasCab, cabLat, cabLng, dropLats, dropLngs, riders, request)
+                        : AssignmentSolver.FORBIDDEN;
+                costs[index] = cost;
+            }
+            return cost;
+        }
+
+        private boolean feasible(RideRequest request, int maxPoolSize, double searchRadiusKm) {
+            if (members.size() >= maxPoolSize
+                    || seatsLeft < request.getPassengerCount()
+                    || luggageLeft < request.getLuggageCount()) {
+                return false;
+            }
+            if (DistanceCalculator.calculateKm(anchorLat, anchorLng,
+                    request.getPickupLat(), request.getPickupLng()) > searchRadiusKm) {
+                return false;
+            }
+            return RouteDeviationChecker.isWithinDetourTolerance(pool, request, members);
+        }
+
+        void add(RideRequest request) {
+            members.add(request);
+            seatsLeft -= request.getPassengerCount();
+            luggageLeft -= request.getLuggageCount();
+            addDrop(request);
+            Arrays.fill(costs, Double.NaN);
+        }
+
+        private void addDrop(RideRequest request) {
+            if (riders == dropLats.length) {
+                dropLats = Arrays.copyOf(dropLats, riders * 2);
+                dropLngs = Arrays.copyOf(dropLngs, riders * 2);
+            }
+            dropLats[riders] = request.getDropLat();
+            dropLngs[riders] = request.getDropLng();
+            riders++;
+        }
+    }
+}
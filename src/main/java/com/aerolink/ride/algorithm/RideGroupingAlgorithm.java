@@ -5,8 +5,13 @@ import com.aerolink.ride.entity.RideRequest;
 import com.aerolink.ride.enums.RideStatus;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.function.Function;
 
 /**
  * Greedy spatial clustering algorithm for grouping ride requests into pools.
@@ -14,10 +19,11 @@ import java.util.List;
  * <h3>Algorithm:</h3>
  * <ol>
  * <li>Filter candidate pools by seat and luggage capacity — O(m)</li>
- * <li>Check detour tolerance for each candidate — O(m × k)</li>
- * <li>Score remaining candidates by route overlap and sharing benefit —
- * O(m)</li>
- * <li>Select the best-scoring pool — O(m)</li>
+ * <li>Score candidates by pickup proximity, drop proximity and sharing
+ * benefit — O(m × k)</li>
+ * <li>Check detour tolerance only for candidates that could still beat the
+ * best feasible score so far — O(m × k²) worst case</li>
+ * <li>Select the best-scoring feasible pool — O(m)</li>
  * </ol>
  *
  * <p>
@@ -27,14 +33,63 @@ import java.util.List;
  * <p>
  * In practice: m ≤ 10, k ≤ 4, so effectively O(1) per request
  * </p>
+ *
+ * <h3>Pruning:</h3>
+ * <p>
+ * Distances are non-negative, so {@code −2 × riders} is a lower bound on a
+ * pool's score. Candidates are visited in ascending lower-bound order
+ * (fullest pools first) and a candidate is skipped, without scoring, once
+ * its bound exceeds the best feasible score found; a scored candidate skips
+ * the detour simulation if its score does. Ties are never pruned and are
+ * broken by candidate order, so the result is the same as evaluating every
+ * pool.
+ * </p>
+ *
+ * <h3>Parallel evaluation:</h3>
+ * <p>
+ * With {@link #configureParallelEvaluation} enabled, candidate lists of at
+ * least {@code threshold} pools are evaluated in the common
+ * {@link ForkJoinPool}, sharing the best feasible score through a
+ * {@link DoubleAccumulator} so one worker's find prunes the others. Before
+ * any worker forks, the calling thread copies each pool's members, cab
+ * position and drop points into a snapshot and looks up every candidate's
+ * {@link RoutePlan}; workers read only that snapshot and the new request,
+ * never a {@link RidePool} or its lazy associations. The sequential path
+ * looks plans up as it goes, so pruned candidates are never planned.
+ * </p>
  */
 @Slf4j
 public final class RideGroupingAlgorithm {
 
+    /** Sharing benefit per existing rider; also the per-rider lower bound on the score. */
+    private static final double SHARING_BONUS_PER_RIDER = 2.0;
+
+    /** Candidates per ForkJoin leaf: enough detour work to outweigh a task split. */
+    private static final int LEAF_SIZE = 8;
+
+    private static volatile boolean parallelEnabled = false;
+    private static volatile int parallelThreshold = 64;
+
     private RideGroupingAlgorithm() {
         // Utility class
     }
 
+    /**
+     * Configure parallel candidate evaluation. Called once at startup from
+     * config.
+     *
+     * @param enabled   Whether large candidate lists are evaluated in parallel
+     * @param threshold Smallest candidate list (after the capacity filter)
+     *                  evaluated in parallel; smaller lists stay sequential
+     */
+    public static void configureParallelEvaluation(boolean enabled, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Parallel evaluation threshold must be positive: " + threshold);
+        }
+        parallelEnabled = enabled;
+        parallelThreshold = threshold;
+    }
+
     /**
      * Find the best pool for a ride request from a list of candidates.
      *
@@ -45,16 +100,184 @@ public final class RideGroupingAlgorithm {
      */
     public static RidePool findBestPool(List<RidePool> candidates, RideRequest newRequest,
             int maxPoolSize) {
+        return findBestPool(candidates, newRequest, maxPoolSize, null);
+    }
+
+    /**
+     * Find the best pool, checking detours against each pool's planned route
+     * where one is available.
+     *
+     * <p>
+     * If the new rider can be inserted into the pool's current route without
+     * breaking anyone's tolerance, that route is proof the pool is feasible
+     * and nothing is rebuilt. Otherwise the configured
+     * {@link RouteDeviationChecker.DetourCheckMode} decides, reusing the plan
+     * in insertion mode.
+     * </p>
+     *
+     * @param planLookup Current {@link RoutePlan} of a candidate pool, or null
+     *                   to check every pool from its member list. Only ever
+     *                   called on the calling thread.
+     */
+    public static RidePool findBestPool(List<RidePool> candidates, RideRequest newRequest,
+            int maxPoolSize, Function<RidePool, RoutePlan> planLookup) {
         if (candidates == null || candidates.isEmpty()) {
             return null;
         }
 
-        return candidates.stream()
-                .filter(pool -> hasCapacity(pool, newRequest, maxPoolSize))
-                .filter(pool -> RouteDeviationChecker.isWithinDetourTolerance(
-                        pool, newRequest, pool.getRideRequests()))
-                .min(Comparator.comparingDouble(pool -> scorePool(pool, newRequest)))
-                .orElse(null);
+        Candidate[] snapshot = snapshot(candidates, newRequest, maxPoolSize);
+        if (snapshot.length == 0) {
+            return null;
+        }
+
+        DoubleAccumulator bestScore = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        boolean parallel = parallelEnabled && snapshot.length >= parallelThreshold;
+        if (parallel && planLookup != null) {
+            // The lookup may load members or plan a route: keep it off the workers
+            for (Candidate candidate : snapshot) {
+                candidate.plan = planLookup.apply(candidate.pool);
+            }
+        }
+        EvaluateTask task = new EvaluateTask(snapshot, 0, snapshot.length, newRequest,
+                parallel ? null : planLookup, bestScore, parallel);
+        Candidate best = parallel ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+        return best == null ? null : best.pool;
+    }
+
+    /**
+     * Everything the evaluation needs from one candidate, read on the calling
+     * thread so lazy associations are resolved before any worker runs.
+     */
+    private static final class Candidate {
+        final RidePool pool;
+        final int order;
+        final double lowerBound;
+        final boolean hasCab;
+        final double cabLat;
+        final double cabLng;
+        final double[] dropLats;
+        final double[] dropLngs;
+        final List<RideRequest> members;
+        /** The pool's route, when looked up before a parallel evaluation. */
+        RoutePlan plan;
+        double score;
+
+        Candidate(RidePool pool, int order) {
+            this.pool = pool;
+            this.order = order;
+            this.members = pool.getRideRequests() != null ? List.copyOf(pool.getRideRequests()) : List.of();
+            int n = members.size();
+            this.lowerBound = -n * SHARING_BONUS_PER_RIDER;
+            this.hasCab = pool.getCab() != null;
+            this.cabLat = hasCab ? pool.getCab().getCurrentLat() : 0.0;
+            this.cabLng = hasCab ? pool.getCab().getCurrentLng() : 0.0;
+            this.dropLats = new double[n];
+            this.dropLngs = new double[n];
+            for (int i = 0; i < n; i++) {
+                dropLats[i] = members.get(i).getDropLat();
+                dropLngs[i] = members.get(i).getDropLng();
+            }
+        }
+
+        /** Lower score wins; equal scores go to the earlier candidate. */
+        boolean beats(Candidate other) {
+            return other == null || score < other.score || (score == other.score && order < other.order);
+        }
+    }
+
+    /**
+     * Capacity-filter the candidates and snapshot the survivors, sorted by
+     * ascending lower bound (stable, so candidate order breaks ties).
+     */
+    private static Candidate[] snapshot(List<RidePool> candidates, RideRequest newRequest, int maxPoolSize) {
+        Candidate[] snapshot = new Candidate[candidates.size()];
+        int count = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            RidePool pool = candidates.get(i);
+            if (hasCapacity(pool, newRequest, maxPoolSize)) {
+                snapshot[count++] = new Candidate(pool, i);
+            }
+        }
+        Candidate[] sorted = Arrays.copyOf(snapshot, count);
+        Arrays.sort(sorted, Comparator.comparingDouble((Candidate c) -> c.lowerBound));
+        return sorted;
+    }
+
+    /**
+     * Evaluate {@code candidates[from, to)}: returns the best feasible one, or
+     * null. With {@code fork} set, splits in half down to {@value #LEAF_SIZE}
+     * candidates per leaf.
+     */
+    private static final class EvaluateTask extends RecursiveTask<Candidate> {
+        private final Candidate[] candidates;
+        private final int from;
+        private final int to;
+        private final RideRequest newRequest;
+        private final Function<RidePool, RoutePlan> planLookup;
+        private final DoubleAccumulator bestScore;
+        private final boolean fork;
+
+        EvaluateTask(Candidate[] candidates, int from, int to, RideRequest newRequest,
+                Function<RidePool, RoutePlan> planLookup, DoubleAccumulator bestScore, boolean fork) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.newRequest = newRequest;
+            this.planLookup = planLookup;
+            this.bestScore = bestScore;
+            this.fork = fork;
+        }
+
+        @Override
+        protected Candidate compute() {
+            if (fork && to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                EvaluateTask right = new EvaluateTask(candidates, mid, to, newRequest, planLookup, bestScore, true);
+                right.fork();
+                Candidate left = new EvaluateTask(candidates, from, mid, newRequest, planLookup, bestScore, true)
+                        .compute();
+                Candidate other = right.join();
+                return other != null && other.beats(left) ? other : left;
+            }
+
+            Candidate best = null;
+            for (int i = from; i < to; i++) {
+                Candidate candidate = candidates[i];
+                // Sorted by lower bound: nothing further in this range can win
+                if (candidate.lowerBound > bestScore.get()) {
+                    break;
+                }
+                candidate.score = score(candidate, newRequest);
+                if (candidate.score > bestScore.get() || !candidate.beats(best)) {
+                    continue;
+                }
+                if (fitsDetourTolerance(candidate, newRequest, planLookup)) {
+                    best = candidate;
+                    bestScore.accumulate(candidate.score);
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * @param planLookup Looks up the plan when the snapshot has none; null on
+     *                   ForkJoin workers, which see only pre-fetched plans
+     */
+    private static boolean fitsDetourTolerance(Candidate candidate, RideRequest newRequest,
+            Function<RidePool, RoutePlan> planLookup) {
+        RoutePlan plan = candidate.plan;
+        if (plan == null && planLookup != null) {
+            plan = planLookup.apply(candidate.pool);
+        }
+        if (plan == null) {
+            return RouteDeviationChecker.isWithinDetourTolerance(candidate.pool, newRequest, candidate.members);
+        }
+        if (plan.canInsert(newRequest)) {
+            return true;
+        }
+        return RouteDeviationChecker.getDetourCheckMode() == RouteDeviationChecker.DetourCheckMode.REBUILD
+                && RouteDeviationChecker.isWithinDetourTolerance(candidate.pool, newRequest, candidate.members);
     }
 
     /**
@@ -99,27 +322,47 @@ public final class RideGroupingAlgorithm {
      * @return A score where lower is better
      */
     static double scorePool(RidePool pool, RideRequest newRequest) {
+        return score(new Candidate(pool, 0), newRequest);
+    }
+
+    private static double score(Candidate candidate, RideRequest newRequest) {
+        return score(candidate.hasCab, candidate.cabLat, candidate.cabLng, candidate.dropLats, candidate.dropLngs,
+                candidate.dropLats.length, newRequest);
+    }
+
+    /**
+     * {@link #scorePool} over plain values, for callers that track pool
+     * members themselves (see {@link RideBatchMatcher}).
+     *
+     * @param dropLats Existing riders' drop latitudes, first {@code riders}
+     *                 entries used
+     * @param dropLngs Existing riders' drop longitudes
+     * @param riders   Number of existing riders
+     */
+    static double score(boolean hasCab, double cabLat, double cabLng, double[] dropLats, double[] dropLngs,
+            int riders, RideRequest newRequest) {
         double pickupDistance = 0.0;
-        if (pool.getCab() != null) {
-            pickupDistance = DistanceCalculator.calculateKm(
-                    pool.getCab().getCurrentLat(), pool.getCab().getCurrentLng(),
+        if (hasCab) {
+            pickupDistance = DistanceCalculator.routeKm(cabLat, cabLng,
                     newRequest.getPickupLat(), newRequest.getPickupLng());
         }
 
         // Calculate average drop distance to existing riders' drops
         double avgDropProximity = 0.0;
-        if (pool.getRideRequests() != null && !pool.getRideRequests().isEmpty()) {
-            avgDropProximity = pool.getRideRequests().stream()
-                    .mapToDouble(r -> DistanceCalculator.calculateKm(
-                            r.getDropLat(), r.getDropLng(),
-                            newRequest.getDropLat(), newRequest.getDropLng()))
-                    .average()
-                    .orElse(0.0);
+        int n = riders;
+        if (n > 0) {
+            double[] dropKm = new double[n];
+            DistanceCalculator.distancesFrom(newRequest.getDropLat(), newRequest.getDropLng(),
+                    dropLats, dropLngs, n, dropKm);
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) {
+                sum += dropKm[i];
+            }
+            avgDropProximity = sum / n;
         }
 
         // Sharing benefit: more riders = better (negative weight)
-        int currentRiders = pool.getRideRequests() != null ? pool.getRideRequests().size() : 0;
-        double sharingBonus = -currentRiders * 2.0;
+        double sharingBonus = -n * SHARING_BONUS_PER_RIDER;
 
         return pickupDistance * 0.4 + avgDropProximity * 0.4 + sharingBonus;
     }
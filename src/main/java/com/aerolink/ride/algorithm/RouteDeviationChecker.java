@@ -5,9 +5,7 @@ import com.aerolink.ride.entity.RideRequest;
 import com.aerolink.ride.enums.RideStatus;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Route-aware detour checker for ride pooling.
@@ -19,42 +17,99 @@ import java.util.stream.Collectors;
  * real detour as {@code (poolRideDistance - directDistance)}.
  * </p>
  *
+ * <h3>Stop indexing:</h3>
+ * <p>
+ * For {@code n} riders there are {@code 2n} stops: stop {@code i} is rider
+ * {@code i}'s pickup and stop {@code n + i} is their drop. All pairwise
+ * distances are computed once into a flat {@code 2n × 2n} matrix
+ * ({@link DistanceCalculator#distanceMatrix}); route building and detour
+ * evaluation then work purely on stop indices.
+ * </p>
+ *
+ * <h3>Exact fallback:</h3>
+ * <p>
+ * The greedy order is cheap but not optimal, and can overstate detours.
+ * When it rejects a pool of at most {@code exactMaxRiders} riders, the
+ * shortest precedence-respecting route from {@link ExactRouteSolver} is
+ * tried as well, within a per-call latency budget. If the budget runs out
+ * the greedy verdict stands.
+ * </p>
+ *
+ * <h3>Insertion mode:</h3>
+ * <p>
+ * With {@link DetourCheckMode#INSERTION} the existing riders' route is kept
+ * as a {@link RoutePlan} and the new pickup and drop are tried in every
+ * O(n²) pair of positions, each checked in O(1) against precomputed slack,
+ * instead of rebuilding the whole route per candidate.
+ * </p>
+ *
+ * <h3>Allocation:</h3>
+ * <p>
+ * The rebuild check, {@link #estimateTotalRouteDistance} and the
+ * plan-based insertion check work in per-thread {@link RouteScratch}
+ * buffers over primitive arrays and produce no garbage once warmed up
+ * (guarded by {@code AllocationGuard} in the JMH source set). Debug
+ * logging is only formatted when enabled.
+ * </p>
+ *
  * <h3>Complexity:</h3>
  * <ul>
  * <li>Time: O(n²) where n = total stops (≤ 8 in practice → effectively
  * O(1))</li>
- * <li>Space: O(n)</li>
+ * <li>Space: O(n²) for the distance matrix, reused per thread</li>
  * </ul>
  */
 @Slf4j
 public final class RouteDeviationChecker {
 
+    /** How a candidate pool is checked against a new request. */
+    public enum DetourCheckMode {
+        /** Rebuild the full route (greedy, then exact) with the new rider. */
+        REBUILD,
+        /** Keep the pool's current route and insert the new rider's stops. */
+        INSERTION
+    }
+
+    private static volatile DetourCheckMode detourCheckMode = DetourCheckMode.REBUILD;
+    private static volatile int exactMaxRiders = 6;
+    private static volatile long exactBudgetNanos = 1_000_000L;
+
     private RouteDeviationChecker() {
         // Utility class
     }
 
-    // ────────────────────────────────────────────────────────────────────
-    // Internal type: a geo-stop carrying its rider index and phase
-    // ────────────────────────────────────────────────────────────────────
-
-    /** Whether a stop is a pickup or a drop-off. */
-    private enum StopType {
-        PICKUP, DROP
+    /**
+     * Configure the exact route solver. Called once at startup from config.
+     *
+     * @param maxRiders    Largest pool solved exactly (0 disables, capped at
+     *                     {@link ExactRouteSolver#MAX_RIDERS})
+     * @param budgetMicros Per-call latency budget for the solver
+     */
+    public static void configureExactSolver(int maxRiders, long budgetMicros) {
+        if (maxRiders < 0 || budgetMicros <= 0) {
+            throw new IllegalArgumentException("Invalid exact solver settings: maxRiders=" + maxRiders
+                    + ", budgetMicros=" + budgetMicros);
+        }
+        exactMaxRiders = Math.min(maxRiders, ExactRouteSolver.MAX_RIDERS);
+        exactBudgetNanos = budgetMicros * 1_000L;
     }
 
-    /** A stop on the cab route, tagged with its rider index and type. */
-    private static final class RouteStop {
-        final int riderIndex;
-        final StopType type;
-        final double lat;
-        final double lng;
-
-        RouteStop(int riderIndex, StopType type, double lat, double lng) {
-            this.riderIndex = riderIndex;
-            this.type = type;
-            this.lat = lat;
-            this.lng = lng;
+    /**
+     * Select how {@link #isWithinDetourTolerance} evaluates a pool. Called
+     * once at startup from config.
+     */
+    public static void configureDetourCheckMode(DetourCheckMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Detour check mode must not be null");
         }
+        detourCheckMode = mode;
+    }
+
+    /**
+     * @return The currently configured detour check mode
+     */
+    public static DetourCheckMode getDetourCheckMode() {
+        return detourCheckMode;
     }
 
     // ────────────────────────────────────────────────────────────────────
@@ -74,9 +129,16 @@ public final class RouteDeviationChecker {
      * {@code poolRideKm} = distance from their pickup position
      * to their drop position <em>along the route</em>.</li>
      * <li>Compare {@code poolRideKm - directKm} against
-     * {@code rider.maxDetourKm}. If any rider exceeds, reject.</li>
+     * {@code rider.maxDetourKm}.</li>
+     * <li>If any rider exceeds it, repeat the check on the exact shortest
+     * route (small pools only) before rejecting.</li>
      * </ol>
      *
+     * <p>
+     * In {@link DetourCheckMode#INSERTION} mode the existing riders' route is
+     * planned once and the new rider is inserted into it instead.
+     * </p>
+     *
      * @param pool             The candidate ride pool (used for logging)
      * @param newRequest       The new ride request to add
      * @param existingRequests The current members of the pool
@@ -88,89 +150,109 @@ public final class RouteDeviationChecker {
             return true;
         }
 
-        // Only consider active riders
-        List<RideRequest> activeRequests = existingRequests.stream()
-                .filter(r -> r.getStatus() != RideStatus.CANCELLED
-                        && r.getStatus() != RideStatus.COMPLETED)
-                .collect(Collectors.toList());
-
-        if (activeRequests.isEmpty()) {
-            return true;
-        }
+        RouteScratch scratch = RouteScratch.get();
 
-        // ── 1. Combine all riders (existing + new) ──────────────────
-        List<RideRequest> allRiders = new ArrayList<>(activeRequests);
-        allRiders.add(newRequest);
+        // ── 1. Combine all active riders (existing + new) ───────────
+        int riders = collectActive(existingRequests, newRequest, scratch);
+        try {
+            // Only the new rider is active: nobody to detour
+            if (riders == 1) {
+                return true;
+            }
 
-        // ── 2. Build the optimal route ──────────────────────────────
-        List<RouteStop> orderedRoute = buildOptimalRoute(allRiders);
+            if (detourCheckMode == DetourCheckMode.INSERTION) {
+                RoutePlan plan = planRoute(scratch.riders, riders - 1, scratch);
+                return isWithinDetourTolerance(plan, newRequest);
+            }
 
-        // ── 3. Pre-compute cumulative distance along the route ──────
-        // cumulativeKm[i] = total distance from orderedRoute[0] to orderedRoute[i]
-        double[] cumulativeKm = new double[orderedRoute.size()];
-        cumulativeKm[0] = 0.0;
-        for (int i = 1; i < orderedRoute.size(); i++) {
-            RouteStop prev = orderedRoute.get(i - 1);
-            RouteStop curr = orderedRoute.get(i);
-            cumulativeKm[i] = cumulativeKm[i - 1]
-                    + DistanceCalculator.calculateKm(prev.lat, prev.lng, curr.lat, curr.lng);
-        }
+            // ── 2. All pairwise stop distances, computed once ───────
+            buildStopMatrix(scratch.riders, riders, scratch);
 
-        // ── 4. For each rider, find pickup & drop positions, compute detour ─
-        for (int riderIdx = 0; riderIdx < allRiders.size(); riderIdx++) {
-            RideRequest rider = allRiders.get(riderIdx);
-
-            // Find this rider's pickup and drop positions in the ordered route
-            int pickupPos = -1;
-            int dropPos = -1;
-            for (int i = 0; i < orderedRoute.size(); i++) {
-                RouteStop stop = orderedRoute.get(i);
-                if (stop.riderIndex == riderIdx && stop.type == StopType.PICKUP) {
-                    pickupPos = i;
-                }
-                if (stop.riderIndex == riderIdx && stop.type == StopType.DROP) {
-                    dropPos = i;
+            // ── 3. Greedy route first: cheap, and usually good enough
+            buildOptimalRoute(scratch.matrix, riders, scratch.route, scratch.visited);
+            if (allWithinTolerance(scratch.riders, riders, scratch.matrix, scratch.route, scratch)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("All {} riders within detour tolerance — pooling approved", riders);
                 }
+                return true;
             }
 
-            if (pickupPos == -1 || dropPos == -1) {
-                continue; // safety guard
+            // ── 4. Greedy rejected: try the exact shortest route ────
+            if (riders <= exactMaxRiders) {
+                if (!ExactRouteSolver.solveInto(scratch.matrix, riders, exactBudgetNanos,
+                        scratch.exactRoute, scratch)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Exact route solver exceeded its budget for {} riders — keeping greedy verdict",
+                                riders);
+                    }
+                } else if (allWithinTolerance(scratch.riders, riders, scratch.matrix, scratch.exactRoute,
+                        scratch)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("All {} riders within detour tolerance on the exact route — pooling approved",
+                                riders);
+                    }
+                    return true;
+                }
             }
+            return false;
+        } finally {
+            scratch.release(riders);
+        }
+    }
 
-            // Pool ride = distance along the route from pickup to drop
-            double poolRideKm = cumulativeKm[dropPos] - cumulativeKm[pickupPos];
-
-            // Direct ride = straight haversine distance
-            double directKm = DistanceCalculator.calculateKm(
-                    rider.getPickupLat(), rider.getPickupLng(),
-                    rider.getDropLat(), rider.getDropLng());
-
-            double detourKm = Math.max(0, poolRideKm - directKm);
-
-            if (detourKm > rider.getMaxDetourKm()) {
-                log.debug("Route-aware detour of {} km exceeds tolerance of {} km for rider {} "
-                        + "(poolRide={} km, direct={} km)",
-                        String.format("%.2f", detourKm),
-                        String.format("%.2f", rider.getMaxDetourKm()),
-                        rider.getId(),
-                        String.format("%.2f", poolRideKm),
-                        String.format("%.2f", directKm));
-                return false;
+    /**
+     * Insertion-mode check against an already planned route: true if the new
+     * rider's pickup and drop fit somewhere in it without pushing anyone,
+     * including the new rider, past their detour tolerance.
+     *
+     * @param plan       The pool's current route
+     * @param newRequest The new ride request to add
+     * @return true if a feasible insertion exists
+     */
+    public static boolean isWithinDetourTolerance(RoutePlan plan, RideRequest newRequest) {
+        if (!plan.canInsert(newRequest)) {
+            if (log.isDebugEnabled()) {
+                log.debug("No feasible insertion for request {} into a {}-stop route",
+                        newRequest.getId(), plan.getStopCount());
             }
+            return false;
         }
-
-        log.debug("All {} riders within detour tolerance — pooling approved", allRiders.size());
         return true;
     }
 
+    /**
+     * Plan the route for a pool's current riders: the greedy route, or the
+     * exact one if only that keeps everyone within tolerance.
+     *
+     * @param riders Active riders, in the order they should be indexed
+     * @return The planned route ({@link RoutePlan#empty()} for no riders)
+     */
+    public static RoutePlan planRoute(List<RideRequest> riders) {
+        if (riders == null || riders.isEmpty()) {
+            return RoutePlan.empty();
+        }
+        RouteScratch scratch = RouteScratch.get();
+        int count = riders.size();
+        scratch.ensureRiders(count);
+        for (int i = 0; i < count; i++) {
+            scratch.riders[i] = riders.get(i);
+        }
+        try {
+            return planRoute(scratch.riders, count, scratch);
+        } finally {
+            scratch.release(count);
+        }
+    }
+
     /**
      * Calculate the estimated total route distance for a shared cab serving all
      * riders in the pool, including a new request.
      *
      * <p>
-     * Computes the actual cab driving path by sequencing all pickup stops
-     * (nearest-neighbor order) then all drop stops (nearest-neighbor order).
-     * Identical or co-located stops naturally collapse to ~0 km between them.
+     * Uses the exact shortest route for small pools, otherwise the greedy
+     * path: all pickup stops (nearest-neighbor order) then all drop stops
+     * (nearest-neighbor order). Identical or co-located stops naturally
+     * collapse to ~0 km between them.
      * </p>
      *
      * @param existingRequests Current pool members
@@ -179,83 +261,184 @@ public final class RouteDeviationChecker {
      */
     public static double estimateTotalRouteDistance(List<RideRequest> existingRequests,
             RideRequest newRequest) {
+        RouteScratch scratch = RouteScratch.get();
+        int riders = collectActive(existingRequests, newRequest, scratch);
+        try {
+            buildStopMatrix(scratch.riders, riders, scratch);
+            int[] route = scratch.exactRoute;
+            if (riders > exactMaxRiders
+                    || !ExactRouteSolver.solveInto(scratch.matrix, riders, exactBudgetNanos, route, scratch)) {
+                route = scratch.route;
+                buildOptimalRoute(scratch.matrix, riders, route, scratch.visited);
+            }
 
-        List<RideRequest> allRequests = new ArrayList<>();
-        if (existingRequests != null) {
-            existingRequests.stream()
-                    .filter(r -> r.getStatus() != RideStatus.CANCELLED
-                            && r.getStatus() != RideStatus.COMPLETED)
-                    .forEach(allRequests::add);
+            return roundKm(ExactRouteSolver.routeKm(scratch.matrix, 2 * riders, route));
+        } finally {
+            scratch.release(riders);
         }
-        allRequests.add(newRequest);
+    }
 
-        List<RouteStop> route = buildOptimalRoute(allRequests);
+    /**
+     * @return {@code km} rounded to 2 decimal places, as stored on the pool
+     */
+    public static double roundKm(double km) {
+        return Math.round(km * 100.0) / 100.0;
+    }
 
-        double total = 0.0;
-        for (int i = 1; i < route.size(); i++) {
-            RouteStop prev = route.get(i - 1);
-            RouteStop curr = route.get(i);
-            total += DistanceCalculator.calculateKm(prev.lat, prev.lng, curr.lat, curr.lng);
+    // ────────────────────────────────────────────────────────────────────
+    // Route building (shared by the public methods)
+    // ────────────────────────────────────────────────────────────────────
+
+    /**
+     * Copy the active (not cancelled or completed) existing riders, then the
+     * new request, into {@code scratch.riders}.
+     *
+     * @return Number of riders copied, including the new request
+     */
+    private static int collectActive(List<RideRequest> existingRequests, RideRequest newRequest,
+            RouteScratch scratch) {
+        int existing = existingRequests == null ? 0 : existingRequests.size();
+        scratch.ensureRiders(existing + 1);
+        int count = 0;
+        for (int i = 0; i < existing; i++) {
+            RideRequest r = existingRequests.get(i);
+            if (r.getStatus() != RideStatus.CANCELLED && r.getStatus() != RideStatus.COMPLETED) {
+                scratch.riders[count++] = r;
+            }
         }
+        scratch.riders[count++] = newRequest;
+        return count;
+    }
 
-        return Math.round(total * 100.0) / 100.0;
+    private static RoutePlan planRoute(RideRequest[] riders, int count, RouteScratch scratch) {
+        if (count == 0) {
+            return RoutePlan.empty();
+        }
+        buildStopMatrix(riders, count, scratch);
+        int[] route = scratch.route;
+        buildOptimalRoute(scratch.matrix, count, route, scratch.visited);
+        if (!allWithinTolerance(riders, count, scratch.matrix, route, scratch) && count <= exactMaxRiders
+                && ExactRouteSolver.solveInto(scratch.matrix, count, exactBudgetNanos, scratch.exactRoute, scratch)
+                && allWithinTolerance(riders, count, scratch.matrix, scratch.exactRoute, scratch)) {
+            route = scratch.exactRoute;
+        }
+        return RoutePlan.of(riders, count, scratch.matrix, route);
     }
 
-    // ────────────────────────────────────────────────────────────────────
-    // Route building (shared by both public methods)
-    // ────────────────────────────────────────────────────────────────────
+    /**
+     * Walk a stop order and check every rider's detour against their tolerance.
+     */
+    private static boolean allWithinTolerance(RideRequest[] allRiders, int riders, double[] matrix,
+            int[] orderedRoute, RouteScratch scratch) {
+        int stops = 2 * riders;
+
+        // cumulativeKm[i] = total distance from orderedRoute[0] to orderedRoute[i]
+        // positionOf[stop] = index of that stop within orderedRoute
+        double[] cumulativeKm = scratch.cumulativeKm;
+        int[] positionOf = scratch.positionOf;
+        cumulativeKm[0] = 0.0;
+        positionOf[orderedRoute[0]] = 0;
+        for (int i = 1; i < stops; i++) {
+            cumulativeKm[i] = cumulativeKm[i - 1] + matrix[orderedRoute[i - 1] * stops + orderedRoute[i]];
+            positionOf[orderedRoute[i]] = i;
+        }
+
+        // For each rider, compare route ride vs direct ride
+        for (int riderIdx = 0; riderIdx < riders; riderIdx++) {
+            RideRequest rider = allRiders[riderIdx];
+            int pickupStop = riderIdx;
+            int dropStop = riders + riderIdx;
+
+            // Pool ride = distance along the route from pickup to drop
+            double poolRideKm = cumulativeKm[positionOf[dropStop]] - cumulativeKm[positionOf[pickupStop]];
+
+            // Direct ride = stored at booking (haversine)
+            double directKm = DistanceCalculator.directKm(rider);
+
+            double detourKm = Math.max(0, poolRideKm - directKm);
+
+            if (detourKm > rider.getMaxDetourKm()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Route-aware detour of {} km exceeds tolerance of {} km for rider {} "
+                            + "(poolRide={} km, direct={} km)",
+                            String.format("%.2f", detourKm),
+                            String.format("%.2f", rider.getMaxDetourKm()),
+                            rider.getId(),
+                            String.format("%.2f", poolRideKm),
+                            String.format("%.2f", directKm));
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute the {@code 2n × 2n} stop distance matrix into
+     * {@code scratch.matrix}: stops {@code 0..n-1} are pickups, stops
+     * {@code n..2n-1} are the matching drops.
+     */
+    private static void buildStopMatrix(RideRequest[] allRiders, int riders, RouteScratch scratch) {
+        int stops = 2 * riders;
+        double[] lats = scratch.lats;
+        double[] lngs = scratch.lngs;
+        for (int i = 0; i < riders; i++) {
+            RideRequest r = allRiders[i];
+            lats[i] = r.getPickupLat();
+            lngs[i] = r.getPickupLng();
+            lats[riders + i] = r.getDropLat();
+            lngs[riders + i] = r.getDropLng();
+        }
+        DistanceCalculator.distanceMatrix(lats, lngs, stops, scratch.matrix, scratch.points);
+    }
 
     /**
      * Build an optimal cab route: visit all pickups in nearest-neighbor
      * order, then all drops in nearest-neighbor order.
      *
-     * @param allRiders All ride requests (existing + new)
-     * @return Ordered list of stops the cab should visit
+     * @param matrix       Stop distance matrix from {@link #buildStopMatrix}
+     * @param riders       Number of riders (stops = 2 × riders)
+     * @param orderedRoute Receives the stop indices in visiting order
+     * @param visited      Scratch flags, at least {@code 2 × riders} entries
      */
-    private static List<RouteStop> buildOptimalRoute(List<RideRequest> allRiders) {
-        // Build pickup and drop stop lists
-        List<RouteStop> pickupStops = new ArrayList<>();
-        List<RouteStop> dropStops = new ArrayList<>();
-        for (int i = 0; i < allRiders.size(); i++) {
-            RideRequest r = allRiders.get(i);
-            pickupStops.add(new RouteStop(i, StopType.PICKUP, r.getPickupLat(), r.getPickupLng()));
-            dropStops.add(new RouteStop(i, StopType.DROP, r.getDropLat(), r.getDropLng()));
+    private static void buildOptimalRoute(double[] matrix, int riders, int[] orderedRoute, boolean[] visited) {
+        int stops = 2 * riders;
+        for (int i = 0; i < stops; i++) {
+            visited[i] = false;
         }
 
-        List<RouteStop> orderedRoute = new ArrayList<>();
-
         // Phase 1: Order pickups by nearest-neighbor from the first pickup
-        List<RouteStop> remaining = new ArrayList<>(pickupStops);
-        RouteStop current = remaining.remove(0);
-        orderedRoute.add(current);
-
-        while (!remaining.isEmpty()) {
-            int nearestIdx = findNearestStop(current, remaining);
-            current = remaining.remove(nearestIdx);
-            orderedRoute.add(current);
+        int current = 0;
+        visited[current] = true;
+        orderedRoute[0] = current;
+        for (int pos = 1; pos < riders; pos++) {
+            current = findNearestStop(matrix, stops, current, 0, riders, visited);
+            visited[current] = true;
+            orderedRoute[pos] = current;
         }
 
         // Phase 2: Order drops by nearest-neighbor from the last pickup
-        remaining = new ArrayList<>(dropStops);
-        while (!remaining.isEmpty()) {
-            int nearestIdx = findNearestStop(current, remaining);
-            current = remaining.remove(nearestIdx);
-            orderedRoute.add(current);
+        for (int pos = riders; pos < stops; pos++) {
+            current = findNearestStop(matrix, stops, current, riders, stops, visited);
+            visited[current] = true;
+            orderedRoute[pos] = current;
         }
-
-        return orderedRoute;
     }
 
     /**
-     * Find the index of the nearest stop in the list to the given stop.
+     * Find the nearest unvisited stop in {@code [fromStop, toStop)} to the given stop.
      */
-    private static int findNearestStop(RouteStop from, List<RouteStop> stops) {
-        int bestIdx = 0;
+    private static int findNearestStop(double[] matrix, int stops, int from,
+            int fromStop, int toStop, boolean[] visited) {
+        int bestIdx = -1;
         double bestDist = Double.MAX_VALUE;
-        for (int i = 0; i < stops.size(); i++) {
-            double d = DistanceCalculator.calculateKm(
-                    from.lat, from.lng, stops.get(i).lat, stops.get(i).lng);
-            if (d < bestDist) {
+        int row = from * stops;
+        for (int i = fromStop; i < toStop; i++) {
+            if (visited[i]) {
+                continue;
+            }
+            double d = matrix[row + i];
+            if (bestIdx == -1 || d < bestDist) {
                 bestDist = d;
                 bestIdx = i;
             }
@@ -0,0 +1,490 @@
+package com.aerolink.ride.algorithm;
+
+import com.aerolink.ride.entity.RideRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An ordered pickup/drop route for a pool's riders, with the per-stop and
+ * per-rider bookkeeping needed to test insertions of a new rider cheaply.
+ *
+ * <p>
+ * Positions {@code 0..m-1} are the stops in visiting order. A <em>gap</em>
+ * {@code g} in {@code 0..m} is an insertion point before position {@code g}
+ * (gap 0 prepends, gap {@code m} appends). A rider with pickup at position
+ * {@code a} and drop at {@code b} <em>spans</em> gap {@code g} when
+ * {@code a < g ≤ b}: anything inserted there lengthens their ride.
+ * </p>
+ *
+ * <h3>Slack:</h3>
+ * <p>
+ * {@code slackKm[r] = maxDetourKm[r] − (rideKm[r] − directKm[r])} is how much
+ * extra distance rider {@code r} can still absorb. Two tables are
+ * precomputed so every candidate insertion is checked in O(1):
+ * </p>
+ * <ul>
+ * <li>{@code gapMinSlack[g]} — least slack among riders spanning gap g</li>
+ * <li>{@code spanMinSlack[i][j]} — least slack among riders spanning both
+ * gaps {@code i ≤ j} (they absorb both the pickup and the drop detour)</li>
+ * </ul>
+ *
+ * <p>
+ * Instances are immutable; {@link #withInsertion} and {@link #withoutRider}
+ * return a new plan. A plan keeps only each rider's id, detour tolerance and
+ * stop coordinates, never the {@link RideRequest} itself, so a cached plan
+ * does not pin entities or their persistence context.
+ * </p>
+ */
+public final class RoutePlan {
+
+    private static final RoutePlan EMPTY = new RoutePlan(List.of(), new double[0], new int[0], new boolean[0],
+            new double[0], new double[0], new double[0], new double[0]);
+
+    private final List<UUID> riderIds;
+    private final double[] maxDetourKm;
+    private final int[] stopRider;
+    private final boolean[] stopIsPickup;
+    private final double[] stopLats;
+    private final double[] stopLngs;
+    private final double[] stopPoints;
+    private final double[] cumulativeKm;
+    private final double[] directKm;
+
+    private final int[] pickupPos;
+    private final int[] dropPos;
+    private final double[] slackKm;
+    private final double minSlackKm;
+    private final double[] gapMinSlack;
+    private final double[] spanMinSlack;
+
+    /**
+     * The best feasible way to insert a new rider: pickup goes into gap
+     * {@code pickupGap}, drop into gap {@code dropGap} of the current plan
+     * ({@code pickupGap ≤ dropGap}; equal means back-to-back).
+     */
+    public static final class Insertion {
+        private final int pickupGap;
+        private final int dropGap;
+        private final double addedKm;
+        private final double directKm;
+        private final double[] pickupToStopKm;
+        private final double[] dropToStopKm;
+
+        private Insertion(int pickupGap, int dropGap, double addedKm, double directKm,
+                double[] pickupToStopKm, double[] dropToStopKm) {
+            this.pickupGap = pickupGap;
+            this.dropGap = dropGap;
+            this.addedKm = addedKm;
+            this.directKm = directKm;
+            this.pickupToStopKm = pickupToStopKm;
+            this.dropToStopKm = dropToStopKm;
+        }
+
+        public int getPickupGap() {
+            return pickupGap;
+        }
+
+        public int getDropGap() {
+            return dropGap;
+        }
+
+        /** Extra route distance the insertion adds to the plan. */
+        public double getAddedKm() {
+            return addedKm;
+        }
+    }
+
+    private RoutePlan(List<UUID> riderIds, double[] maxDetourKm, int[] stopRider, boolean[] stopIsPickup,
+            double[] stopLats, double[] stopLngs, double[] cumulativeKm, double[] directKm) {
+        this.riderIds = riderIds;
+        this.maxDetourKm = maxDetourKm;
+        this.stopRider = stopRider;
+        this.stopIsPickup = stopIsPickup;
+        this.stopLats = stopLats;
+        this.stopLngs = stopLngs;
+        this.stopPoints = DistanceCalculator.precompute(stopLats, stopLngs, stopLats.length);
+        this.cumulativeKm = cumulativeKm;
+        this.directKm = directKm;
+
+        int n = riderIds.size();
+        int m = stopRider.length;
+        this.pickupPos = new int[n];
+        this.dropPos = new int[n];
+        for (int pos = 0; pos < m; pos++) {
+            if (stopIsPickup[pos]) {
+                pickupPos[stopRider[pos]] = pos;
+            } else {
+                dropPos[stopRider[pos]] = pos;
+            }
+        }
+
+        this.slackKm = new double[n];
+        this.gapMinSlack = new double[m + 1];
+        this.spanMinSlack = new double[(m + 1) * (m + 1)];
+        Arrays.fill(gapMinSlack, Double.POSITIVE_INFINITY);
+        Arrays.fill(spanMinSlack, Double.POSITIVE_INFINITY);
+        double minSlack = Double.POSITIVE_INFINITY;
+        for (int r = 0; r < n; r++) {
+            int a = pickupPos[r];
+            int b = dropPos[r];
+            double rideKm = cumulativeKm[b] - cumulativeKm[a];
+            double slack = maxDetourKm[r] - (rideKm - directKm[r]);
+            slackKm[r] = slack;
+            minSlack = Math.min(minSlack, slack);
+            for (int i = a + 1; i <= b; i++) {
+                gapMinSlack[i] = Math.min(gapMinSlack[i], slack);
+                int row = i * (m + 1);
+                for (int j = i; j <= b; j++) {
+                    spanMinSlack[row + j] = Math.min(spanMinSlack[row + j], slack);
+                }
+            }
+        }
+        this.minSlackKm = minSlack;
+    }
+
+    /**
+     * @return A plan with no riders, into which any request can be inserted
+     */
+    public static RoutePlan empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a plan from a stop order in {@link RouteDeviationChecker}'s stop
+     * indexing (stop {@code r} = pickup of rider {@code r}, stop {@code n + r}
+     * = their drop) over a {@code 2n × 2n} distance matrix.
+     */
+    static RoutePlan of(RideRequest[] riders, int n, double[] matrix, int[] order) {
+        if (n == 0) {
+            return EMPTY;
+        }
+        int m = 2 * n;
+        int[] stopRider = new int[m];
+        boolean[] stopIsPickup = new boolean[m];
+        double[] stopLats = new double[m];
+        double[] stopLngs = new double[m];
+        double[] cumulativeKm = new double[m];
+        for (int pos = 0; pos < m; pos++) {
+            int stop = order[pos];
+            boolean pickup = stop < n;
+            RideRequest rider = riders[pickup ? stop : stop - n];
+            stopRider[pos] = pickup ? stop : stop - n;
+            stopIsPickup[pos] = pickup;
+            stopLats[pos] = pickup ? rider.getPickupLat() : rider.getDropLat();
+            stopLngs[pos] = pickup ? rider.getPickupLng() : rider.getDropLng();
+            if (pos > 0) {
+                cumulativeKm[pos] = cumulativeKm[pos - 1] + matrix[order[pos - 1] * m + stop];
+            }
+        }
+        UUID[] riderIds = new UUID[n];
+        double[] maxDetourKm = new double[n];
+        double[] directKm = new double[n];
+        for (int r = 0; r < n; r++) {
+            riderIds[r] = riders[r].getId();
+            maxDetourKm[r] = riders[r].getMaxDetourKm();
+            directKm[r] = DistanceCalculator.directKm(riders[r]);
+        }
+        return new RoutePlan(Collections.unmodifiableList(Arrays.asList(riderIds)), maxDetourKm, stopRider,
+                stopIsPickup, stopLats, stopLngs, cumulativeKm, directKm);
+    }
+
+    /**
+     * Scan all O(m²) pickup/drop gap pairs and return the feasible one that
+     * adds the least route distance, or {@code null} if every placement would
+     * push some rider (existing or new) past their detour tolerance. A plan
+     * in which someone is already over tolerance accepts nothing, matching
+     * what a full rebuild would conclude.
+     */
+    public Insertion findBestInsertion(RideRequest newRequest) {
+        if (minSlackKm < 0) {
+            return null;
+        }
+        int m = stopRider.length;
+        double[] toPickup = new double[m];
+        double[] toDrop = new double[m];
+        int[] gaps = new int[2];
+        double direct = DistanceCalculator.directKm(newRequest);
+        double added = scan(newRequest, direct, toPickup, toDrop, new double[DistanceCalculator.STRIDE], gaps,
+                false);
+        if (added == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        return new Insertion(gaps[0], gaps[1], added, direct, toPickup, toDrop);
+    }
+
+    /**
+     * Whether any feasible insertion exists. Stops at the first one found and
+     * works in the thread's {@link RouteScratch}, so it allocates nothing.
+     */
+    public boolean canInsert(RideRequest newRequest) {
+        if (minSlackKm < 0) {
+            return false;
+        }
+        RouteScratch scratch = RouteScratch.get();
+        scratch.ensureRiders(riderIds.size() + 1);
+        return scan(newRequest, DistanceCalculator.directKm(newRequest), scratch.toPickup, scratch.toDrop, scratch.origin,
+                scratch.gaps, true) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * The O(m²) gap-pair scan behind {@link #findBestInsertion} and
+     * {@link #canInsert}.
+     *
+     * @param gaps     Receives the chosen pickup and drop gaps
+     * @param firstFit Return the first feasible pair instead of the cheapest
+     * @return Added km of the chosen pair, or +∞ if none is feasible
+     */
+    private double scan(RideRequest newRequest, double direct, double[] toPickup, double[] toDrop,
+            double[] origin, int[] gaps, boolean firstFit) {
+        int m = stopRider.length;
+        DistanceCalculator.distancesFrom(newRequest.getPickupLat(), newRequest.getPickupLng(),
+                stopPoints, m, toPickup, origin);
+        DistanceCalculator.distancesFrom(newRequest.getDropLat(), newRequest.getDropLng(),
+                stopPoints, m, toDrop, origin);
+        double maxDetour = newRequest.getMaxDetourKm();
+
+        double bestAdded = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i <= m; i++) {
+            double deltaP = gapDelta(i, toPickup);
+            // Back-to-back insertion costs at least deltaP (triangle inequality), so nothing fits here
+            if (gapMinSlack[i] < deltaP) {
+                continue;
+            }
+
+            // Pickup and drop back-to-back in gap i: new rider rides direct
+            double combined = (i > 0 ? toPickup[i - 1] : 0.0) + direct + (i < m ? toDrop[i] : 0.0)
+                    - legKm(i);
+            if (combined < bestAdded && gapMinSlack[i] >= combined) {
+                bestAdded = combined;
+                gaps[0] = i;
+                gaps[1] = i;
+                if (firstFit) {
+                    return bestAdded;
+                }
+            }
+
+            int row = i * (m + 1);
+            for (int j = i + 1; j <= m; j++) {
+                double deltaD = gapDelta(j, toDrop);
+                double added = deltaP + deltaD;
+                if (added >= bestAdded
+                        || gapMinSlack[j] < deltaD
+                        || spanMinSlack[row + j] < added) {
+                    continue;
+                }
+                double newRideKm = toPickup[i] + (cumulativeKm[j - 1] - cumulativeKm[i]) + toDrop[j - 1];
+                if (newRideKm - direct > maxDetour) {
+                    continue;
+                }
+                bestAdded = added;
+                gaps[0] = i;
+                gaps[1] = j;
+                if (firstFit) {
+                    return bestAdded;
+                }
+            }
+        }
+        return bestAdded;
+    }
+
+    /**
+     * @return A new plan with {@code newRequest} inserted as described by
+     *         {@code insertion} (which must come from this plan)
+     */
+    public RoutePlan withInsertion(RideRequest newRequest, Insertion insertion) {
+        int m = stopRider.length;
+        int n = riderIds.size();
+        int i = insertion.pickupGap;
+        int j = insertion.dropGap;
+
+        List<UUID> newRiderIds = new ArrayList<>(n + 1);
+        newRiderIds.addAll(riderIds);
+        newRiderIds.add(newRequest.getId());
+        double[] newMaxDetour = Arrays.copyOf(maxDetourKm, n + 1);
+        newMaxDetour[n] = newRequest.getMaxDetourKm();
+
+        int[] newStopRider = new int[m + 2];
+        boolean[] newIsPickup = new boolean[m + 2];
+        double[] newLats = new double[m + 2];
+        double[] newLngs = new double[m + 2];
+        double[] newCumulative = new double[m + 2];
+
+        int out = 0;
+        for (int pos = 0; pos <= m; pos++) {
+            if (pos == i) {
+                newStopRider[out] = n;
+                newIsPickup[out] = true;
+                newLats[out] = newRequest.getPickupLat();
+                newLngs[out] = newRequest.getPickupLng();
+                newCumulative[out] = out == 0 ? 0.0
+                        : newCumulative[out - 1] + insertion.pickupToStopKm[pos - 1];
+                out++;
+            }
+            if (pos == j) {
+                newStopRider[out] = n;
+                newIsPickup[out] = false;
+                newLats[out] = newRequest.getDropLat();
+                newLngs[out] = newRequest.getDropLng();
+                newCumulative[out] = newCumulative[out - 1]
+                        + (i == j ? insertion.directKm : insertion.dropToStopKm[pos - 1]);
+                out++;
+            }
+            if (pos == m) {
+                break;
+            }
+            newStopRider[out] = stopRider[pos];
+            newIsPickup[out] = stopIsPickup[pos];
+            newLats[out] = stopLats[pos];
+            newLngs[out] = stopLngs[pos];
+            if (out > 0) {
+                double leg;
+                if (pos == j) {
+                    leg = insertion.dropToStopKm[pos];
+                } else if (pos == i) {
+                    leg = insertion.pickupToStopKm[pos];
+                } else {
+                    leg = legKm(pos);
+                }
+                newCumulative[out] = newCumulative[out - 1] + leg;
+            }
+            out++;
+        }
+
+        double[] newDirect = Arrays.copyOf(directKm, n + 1);
+        newDirect[n] = insertion.directKm;
+        return new RoutePlan(Collections.unmodifiableList(newRiderIds), newMaxDetour, newStopRider, newIsPickup,
+                newLats, newLngs, newCumulative, newDirect);
+    }
+
+    /**
+     * @return A new plan with the given rider's pickup and drop removed and
+     *         the remaining stops kept in order, or this plan if the rider
+     *         is not in it. Riders after the removed one shift down one index.
+     */
+    public RoutePlan withoutRider(UUID rideRequestId) {
+        int n = riderIds.size();
+        int removed = -1;
+        for (int r = 0; r < n; r++) {
+            if (rideRequestId.equals(riderIds.get(r))) {
+                removed = r;
+                break;
+            }
+        }
+        if (removed < 0) {
+            return this;
+        }
+        if (n == 1) {
+            return EMPTY;
+        }
+
+        int m = stopRider.length;
+        List<UUID> newRiderIds = new ArrayList<>(riderIds);
+        newRiderIds.remove(removed);
+
+        int[] newStopRider = new int[m - 2];
+        boolean[] newIsPickup = new boolean[m - 2];
+        double[] newLats = new double[m - 2];
+        double[] newLngs = new double[m - 2];
+        double[] newCumulative = new double[m - 2];
+
+        int out = 0;
+        int prev = -1;
+        for (int pos = 0; pos < m; pos++) {
+            int rider = stopRider[pos];
+            if (rider == removed) {
+                continue;
+            }
+            newStopRider[out] = rider > removed ? rider - 1 : rider;
+            newIsPickup[out] = stopIsPickup[pos];
+            newLats[out] = stopLats[pos];
+            newLngs[out] = stopLngs[pos];
+            if (out > 0) {
+                // Adjacent stops keep their leg; one that closes a gap is measured afresh
+                double leg = prev == pos - 1 ? legKm(pos)
+                        : DistanceCalculator.routeKm(stopLats[prev], stopLngs[prev], stopLats[pos], stopLngs[pos]);
+                newCumulative[out] = newCumulative[out - 1] + leg;
+            }
+            prev = pos;
+            out++;
+        }
+
+        double[] newDirect = new double[n - 1];
+        System.arraycopy(directKm, 0, newDirect, 0, removed);
+        System.arraycopy(directKm, removed + 1, newDirect, removed, n - 1 - removed);
+        double[] newMaxDetour = new double[n - 1];
+        System.arraycopy(maxDetourKm, 0, newMaxDetour, 0, removed);
+        System.arraycopy(maxDetourKm, removed + 1, newMaxDetour, removed, n - 1 - removed);
+        return new RoutePlan(Collections.unmodifiableList(newRiderIds), newMaxDetour, newStopRider, newIsPickup,
+                newLats, newLngs, newCumulative, newDirect);
+    }
+
+    /**
+     * Extra distance from visiting a point inside gap {@code g}, given the
+     * point's distance to every stop.
+     */
+    private double gapDelta(int g, double[] toPoint) {
+        int m = stopRider.length;
+        if (m == 0) {
+            return 0.0;
+        }
+        double before = g > 0 ? toPoint[g - 1] : 0.0;
+        double after = g < m ? toPoint[g] : 0.0;
+        return before + after - legKm(g);
+    }
+
+    /**
+     * Length of the existing leg that gap {@code g} splits (0 at either end).
+     */
+    private double legKm(int g) {
+        return g > 0 && g < stopRider.length ? cumulativeKm[g] - cumulativeKm[g - 1] : 0.0;
+    }
+
+    // ────────────────────────────────────────────────────────────────────
+    // Accessors
+    // ────────────────────────────────────────────────────────────────────
+
+    /** Ride request ids in rider-index order (the order they joined the plan). */
+    public List<UUID> getRiderIds() {
+        return riderIds;
+    }
+
+    public int getStopCount() {
+        return stopRider.length;
+    }
+
+    /** Rider index of the stop at {@code position}. */
+    public int getRiderAt(int position) {
+        return stopRider[position];
+    }
+
+    public boolean isPickupAt(int position) {
+        return stopIsPickup[position];
+    }
+
+    public double getLatAt(int position) {
+        return stopLats[position];
+    }
+
+    public double getLngAt(int position) {
+        return stopLngs[position];
+    }
+
+    /** Distance along the route from the first stop to {@code position}. */
+    public double getCumulativeKm(int position) {
+        return cumulativeKm[position];
+    }
+
+    public double getTotalKm() {
+        return cumulativeKm.length == 0 ? 0.0 : cumulativeKm[cumulativeKm.length - 1];
+    }
+
+    /** Remaining detour budget of rider {@code riderIndex}; negative if already exceeded. */
+    public double getSlackKm(int riderIndex) {
+        return slackKm[riderIndex];
+    }
+}
@@ -0,0 +1,97 @@
+package com.aerolink.ride.algorithm;
+
+import com.aerolink.ride.entity.RideRequest;
+
+/**
+ * Per-thread reusable working buffers for the detour checks, so a check on
+ * the booking path allocates nothing once the thread has warmed up.
+ *
+ * <p>
+ * Buffers start sized for {@value #INITIAL_RIDERS} riders and grow (doubling)
+ * only if a larger pool shows up. The exact solver's DP tables are allocated
+ * on first use, since most threads never need them. Callers must not hold a
+ * buffer across a call that may itself use the scratch for the same purpose,
+ * and must {@link #release} the rider slots so entities are not pinned to
+ * pooled threads.
+ * </p>
+ */
+final class RouteScratch {
+
+    private static final int INITIAL_RIDERS = 8;
+
+    private static final ThreadLocal<RouteScratch> CURRENT = ThreadLocal.withInitial(RouteScratch::new);
+
+    RideRequest[] riders = new RideRequest[0];
+
+    // Stop-indexed (2 × riders)
+    double[] lats = new double[0];
+    double[] lngs = new double[0];
+    double[] points = new double[0];
+    double[] matrix = new double[0];
+    double[] cumulativeKm = new double[0];
+    double[] toPickup = new double[0];
+    double[] toDrop = new double[0];
+    int[] route = new int[0];
+    int[] exactRoute = new int[0];
+    int[] positionOf = new int[0];
+    boolean[] visited = new boolean[0];
+
+    final double[] origin = new double[DistanceCalculator.STRIDE];
+    final int[] gaps = new int[2];
+
+    // Exact solver DP tables (3^riders × stops)
+    double[] dpCost = new double[0];
+    byte[] dpParent = new byte[0];
+    int[] dpPhase = new int[0];
+
+    private RouteScratch() {
+        ensureRiders(INITIAL_RIDERS);
+    }
+
+    static RouteScratch get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Make sure every rider- and stop-indexed buffer fits {@code count} riders.
+     */
+    void ensureRiders(int count) {
+        if (riders.length >= count) {
+            return;
+        }
+        int capacity = Math.max(count, riders.length * 2);
+        int stops = 2 * capacity;
+        riders = new RideRequest[capacity];
+        lats = new double[stops];
+        lngs = new double[stops];
+        points = new double[stops * DistanceCalculator.STRIDE];
+        matrix = new double[stops * stops];
+        cumulativeKm = new double[stops];
+        toPickup = new double[stops];
+        toDrop = new double[stops];
+        route = new int[stops];
+        exactRoute = new int[stops];
+        positionOf = new int[stops];
+        visited = new boolean[stops];
+        dpPhase = new int[capacity];
+    }
+
+    /**
+     * Make sure the DP tables hold {@code cells} entries.
+     */
+    void ensureDp(int cells) {
+        if (dpCost.length < cells) {
+            dpCost = new double[cells];
+            dpParent = new byte[cells];
+        }
+    }
+
+    /**
+     * Drop the references to the first {@code count} riders.
+     */
+    void release(int count) {
+        for (int i = 0; i < count; i++) {
+            riders[i] = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.aerolink.ride.algorithm;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD one-to-many distance kernel built on the incubating JDK Vector API.
+ *
+ * <p>
+ * Processes {@code SPECIES_PREFERRED.length()} destinations per iteration
+ * (4 lanes on AVX2, 8 on AVX-512) with the same formulas as the scalar batch
+ * path: haversine via {@code asin}, plus the equirectangular fast path when
+ * enabled, blended per lane so legs outside the fast-path envelope still get
+ * the exact distance. The remaining {@code n % lanes} points run scalar.
+ * </p>
+ *
+ * <p>
+ * Only ever reached through {@link DistanceCalculator#distancesFrom} after it
+ * has confirmed {@code jdk.incubator.vector} is in the boot layer, so this
+ * class is never loaded on a JVM started without
+ * {@code --add-modules jdk.incubator.vector}.
+ * </p>
+ */
+final class VectorDistanceKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DEG_TO_RAD = Math.PI / 180.0;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private VectorDistanceKernel() {
+        // Utility class
+    }
+
+    /**
+     * @return Lanes per vector on this CPU
+     */
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Distances in km from one origin to {@code n} destinations.
+     *
+     * @param fastPath      Whether the equirectangular fast path may be used
+     * @param maxFastKm     Legs longer than this use haversine
+     * @param maxAbsLatRad  Fast path is only used when both ends are within this latitude
+     * @param earthRadiusKm Mean Earth radius
+     */
+    static void distancesFrom(double lat, double lng, double[] lats, double[] lngs, int n, double[] out,
+            boolean fastPath, double maxFastKm, double maxAbsLatRad, double earthRadiusKm) {
+        double radLat1 = lat * DEG_TO_RAD;
+        double radLng1 = lng * DEG_TO_RAD;
+        double cosLat1 = Math.cos(radLat1);
+        boolean tryFast = fastPath && Math.abs(radLat1) <= maxAbsLatRad;
+
+        int i = 0;
+        int bound = SPECIES.loopBound(n);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector lat2 = DoubleVector.fromArray(SPECIES, lats, i).mul(DEG_TO_RAD);
+            DoubleVector lng2 = DoubleVector.fromArray(SPECIES, lngs, i).mul(DEG_TO_RAD);
+            DoubleVector dLat = lat2.sub(radLat1);
+            DoubleVector dLng = lng2.sub(radLng1);
+            DoubleVector cosLat2 = lat2.lanewise(VectorOperators.COS);
+
+            if (tryFast) {
+                // Take the short way round across the antimeridian
+                DoubleVector wrapped = dLng
+                        .sub(TWO_PI, dLng.compare(VectorOperators.GT, Math.PI))
+                        .add(TWO_PI, dLng.compare(VectorOperators.LT, -Math.PI));
+                DoubleVector x = wrapped.mul(cosLat2.add(cosLat1)).mul(0.5);
+                DoubleVector km = x.fma(x, dLat.mul(dLat)).sqrt().mul(earthRadiusKm);
+                VectorMask<Double> fast = km.compare(VectorOperators.LE, maxFastKm)
+                        .and(lat2.abs().compare(VectorOperators.LE, maxAbsLatRad));
+                if (fast.allTrue()) {
+                    km.intoArray(out, i);
+                    continue;
+                }
+                haversine(dLat, dLng, cosLat1, cosLat2, earthRadiusKm).blend(km, fast).intoArray(out, i);
+            } else {
+                haversine(dLat, dLng, cosLat1, cosLat2, earthRadiusKm).intoArray(out, i);
+            }
+        }
+
+        for (; i < n; i++) {
+            out[i] = scalarKm(radLat1, radLng1, cosLat1, lats[i] * DEG_TO_RAD, lngs[i] * DEG_TO_RAD,
+                    tryFast, maxFastKm, maxAbsLatRad, earthRadiusKm);
+        }
+    }
+
+    private static DoubleVector haversine(DoubleVector dLat, DoubleVector dLng, double cosLat1,
+            DoubleVector cosLat2, double earthRadiusKm) {
+        DoubleVector sinHalfDLat = dLat.mul(0.5).lanewise(VectorOperators.SIN);
+        DoubleVector sinHalfDLng = dLng.mul(0.5).lanewise(VectorOperators.SIN);
+        DoubleVector h = sinHalfDLat.mul(sinHalfDLat)
+                .add(cosLat2.mul(cosLat1).mul(sinHalfDLng).mul(sinHalfDLng));
+        return h.sqrt().min(1.0).lanewise(VectorOperators.ASIN).mul(2 * earthRadiusKm);
+    }
+
+    private static double scalarKm(double radLat1, double radLng1, double cosLat1, double radLat2,
+            double radLng2, boolean tryFast, double maxFastKm, double maxAbsLatRad, double earthRadiusKm) {
+        double dLat = radLat2 - radLat1;
+        double dLng = radLng2 - radLng1;
+        double cosLat2 = Math.cos(radLat2);
+        if (tryFast && Math.abs(radLat2) <= maxAbsLatRad) {
+            double wrapped = dLng > Math.PI ? dLng - TWO_PI : dLng < -Math.PI ? dLng + TWO_PI : dLng;
+            double x = wrapped * (cosLat1 + cosLat2) * 0.5;
+            double km = earthRadiusKm * Math.sqrt(x * x + dLat * dLat);
+            if (km <= maxFastKm) {
+                return km;
+            }
+        }
+        double sinHalfDLat = Math.sin(dLat / 2);
+        double sinHalfDLng = Math.sin(dLng / 2);
+        double h = sinHalfDLat * sinHalfDLat + cosLat1 * cosLat2 * sinHalfDLng * sinHalfDLng;
+        return 2 * earthRadiusKm * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+}
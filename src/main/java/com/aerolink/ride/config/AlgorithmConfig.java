@@ -0,0 +1,64 @@
+package com.aerolink.ride.config;
+
+import com.aerolink.ride.algorithm.DistanceCalculator;
+import com.aerolink.ride.algorithm.ExactRouteSolver;
+import com.aerolink.ride.algorithm.RideGroupingAlgorithm;
+import com.aerolink.ride.algorithm.RouteDeviationChecker;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies the {@code aerolink.algorithm.*} settings to the static algorithm
+ * utilities once at startup, so they stay plain Java and cheap to call.
+ */
+@Slf4j
+@Configuration
+public class AlgorithmConfig {
+
+    @Value("${aerolink.algorithm.distance-mode}")
+    private DistanceCalculator.Mode distanceMode;
+
+    @Value("${aerolink.algorithm.fast-path-max-km}")
+    private double fastPathMaxKm;
+
+    @Value("${aerolink.algorithm.vector-kernel-enabled}")
+    private boolean vectorKernelEnabled;
+
+    @Value("${aerolink.algorithm.detour-check-mode}")
+    private RouteDeviationChecker.DetourCheckMode detourCheckMode;
+
+    @Value("${aerolink.algorithm.exact-route-max-riders}")
+    private int exactRouteMaxRiders;
+
+    @Value("${aerolink.algorithm.exact-route-budget-micros}")
+    private long exactRouteBudgetMicros;
+
+    @Value("${aerolink.algorithm.parallel-pool-evaluation-enabled}")
+    private boolean parallelPoolEvaluationEnabled;
+
+    @Value("${aerolink.algorithm.parallel-pool-threshold}")
+    private int parallelPoolThreshold;
+
+    @PostConstruct
+    public void applyAlgorithmSettings() {
+        DistanceCalculator.configure(distanceMode, fastPathMaxKm);
+        log.info("Routing distance mode: {} (fast path up to {} km)", distanceMode,
+                Math.min(fastPathMaxKm, DistanceCalculator.MAX_FAST_PATH_KM));
+        boolean vectorActive = DistanceCalculator.configureVectorKernel(vectorKernelEnabled);
+        if (vectorKernelEnabled && !vectorActive) {
+            log.info("SIMD distance kernel unavailable (start the JVM with --add-modules jdk.incubator.vector)"
+                    + " — using scalar batch distances");
+        } else {
+            log.info("SIMD distance kernel: {}", vectorActive ? "enabled" : "disabled");
+        }
+        RouteDeviationChecker.configureDetourCheckMode(detourCheckMode);
+        RouteDeviationChecker.configureExactSolver(exactRouteMaxRiders, exactRouteBudgetMicros);
+        log.info("Detour check: {}, exact route solver up to {} riders ({} µs budget)", detourCheckMode,
+                Math.min(exactRouteMaxRiders, ExactRouteSolver.MAX_RIDERS), exactRouteBudgetMicros);
+        RideGroupingAlgorithm.configureParallelEvaluation(parallelPoolEvaluationEnabled, parallelPoolThreshold);
+        log.info("Parallel candidate pool evaluation: {}", parallelPoolEvaluationEnabled
+                ? "from " + parallelPoolThreshold + " pools" : "disabled");
+    }
+}
@@ -2,13 +2,17 @@ package com.aerolink.ride.controller;
 
 import com.aerolink.ride.dto.request.CabLocationUpdateDTO;
 import com.aerolink.ride.dto.response.CabResponseDTO;
+import com.aerolink.ride.dto.response.CursorPage;
 import com.aerolink.ride.service.CabService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,11 +24,26 @@ import java.util.UUID;
 public class CabController {
 
     private final CabService cabService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "List all cabs", description = "Retrieve all cabs with status and pool info.")
-    public ResponseEntity<List<CabResponseDTO>> getAllCabs() {
-        return ResponseEntity.ok(cabService.getAllCabs());
+    @Operation(summary = "List all cabs", description = "Cabs with status and pool info, one page at a time. "
+            + "When more follow, the X-Next-Cursor header holds the cursor of the next page.")
+    public ResponseEntity<List<CabResponseDTO>> getAllCabs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        CursorPage<CabResponseDTO> page = cabService.getCabs(cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(RideController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all cabs", description = "Every cab with status and pool info, as NDJSON.")
+    public ResponseEntity<StreamingResponseBody> streamAllCabs() {
+        return NdjsonResponses.stream(objectMapper, cabService::streamCabs);
     }
 
     @GetMapping("/{id}")
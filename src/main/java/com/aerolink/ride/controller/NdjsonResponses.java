@@ -0,0 +1,38 @@
+package com.aerolink.ride.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Newline-delimited JSON responses written while the rows are read, so the
+ * response never holds more than one row.
+ */
+final class NdjsonResponses {
+
+    private NdjsonResponses() {
+        // Utility class
+    }
+
+    /**
+     * @param producer Hands each row to the consumer it is given; runs on the
+     *                 async request thread, so it opens its own transaction
+     */
+    static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper,
+            Consumer<Consumer<T>> producer) {
+        StreamingResponseBody body = out -> producer.accept(row -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
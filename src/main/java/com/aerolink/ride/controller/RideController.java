@@ -2,17 +2,21 @@ package com.aerolink.ride.controller;
 
 import com.aerolink.ride.dto.request.CancellationRequestDTO;
 import com.aerolink.ride.dto.request.RideRequestDTO;
+import com.aerolink.ride.dto.response.CursorPage;
 import com.aerolink.ride.dto.response.PoolResponseDTO;
 import com.aerolink.ride.dto.response.RideResponseDTO;
 import com.aerolink.ride.service.CancellationService;
 import com.aerolink.ride.service.RidePoolingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,13 +27,30 @@ import java.util.UUID;
 @Tag(name = "Rides", description = "Ride request and pooling management")
 public class RideController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final RidePoolingService ridePoolingService;
     private final CancellationService cancellationService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "List all rides", description = "Retrieve all ride requests.")
-    public ResponseEntity<List<RideResponseDTO>> getAllRides() {
-        return ResponseEntity.ok(ridePoolingService.getAllRides());
+    @Operation(summary = "List all rides", description = "Ride requests, newest first, one page at a time. "
+            + "When more follow, the X-Next-Cursor header holds the cursor of the next page.")
+    public ResponseEntity<List<RideResponseDTO>> getAllRides(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        CursorPage<RideResponseDTO> page = ridePoolingService.getRides(cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all rides", description = "Every ride request, newest first, as NDJSON.")
+    public ResponseEntity<StreamingResponseBody> streamAllRides() {
+        return NdjsonResponses.stream(objectMapper, ridePoolingService::streamRides);
     }
 
     @PostMapping
@@ -61,10 +82,31 @@ public class RideController {
     }
 
     @GetMapping("/passenger/{passengerId}/dashboard")
-    @Operation(summary = "Passenger dashboard", description = "Active ride, pool info, and ride history.")
+    @Operation(summary = "Passenger dashboard", description = "Active ride, pool info, and ride history. "
+            + "With includeArchived=true the history continues into the newest archivedLimit archived rides; "
+            + "archivedNextCursor then points to the next page of /passenger/{id}/archived.")
     public ResponseEntity<RidePoolingService.PassengerDashboardData> getPassengerDashboard(
-            @PathVariable UUID passengerId) {
-        return ResponseEntity.ok(ridePoolingService.getPassengerDashboard(passengerId));
+            @PathVariable UUID passengerId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(defaultValue = "100") int archivedLimit) {
+        return ResponseEntity.ok(ridePoolingService.getPassengerDashboard(passengerId, includeArchived,
+                archivedLimit));
+    }
+
+    @GetMapping("/passenger/{passengerId}/archived")
+    @Operation(summary = "Archived rides of a passenger", description = "Rides moved to the archive, "
+            + "newest first, one page at a time. When more follow, the X-Next-Cursor header holds the cursor "
+            + "of the next page.")
+    public ResponseEntity<List<RideResponseDTO>> getArchivedRides(
+            @PathVariable UUID passengerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        CursorPage<RideResponseDTO> page = ridePoolingService.getArchivedRides(passengerId, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     @GetMapping("/driver/{cabId}/dashboard")
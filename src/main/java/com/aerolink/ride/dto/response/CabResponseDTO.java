@@ -2,6 +2,7 @@ package com.aerolink.ride.dto.response;
 
 import com.aerolink.ride.enums.CabStatus;
 import lombok.*;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Getter
@@ -23,4 +24,6 @@ public class CabResponseDTO {
     private Integer remainingSeats;
     private Integer remainingLuggage;
     private UUID poolId;
+
+    private LocalDateTime createdAt;
 }
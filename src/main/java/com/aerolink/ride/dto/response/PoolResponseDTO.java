@@ -23,5 +23,17 @@ public class PoolResponseDTO {
     private double totalRouteDistanceKm;
     private LocalDateTime windowExpiresAt;
     private List<RideResponseDTO> riders;
+    private List<RouteStopDTO> route;
     private LocalDateTime createdAt;
+
+    /**
+     * Pool without riders or route, for the JPQL constructor expression of
+     * {@code RidePoolRepository.findResponseById}.
+     */
+    public PoolResponseDTO(UUID id, UUID cabId, String cabLicensePlate, String driverName, PoolStatus status,
+            int totalOccupiedSeats, int totalLuggage, int remainingSeats, double totalRouteDistanceKm,
+            LocalDateTime windowExpiresAt, LocalDateTime createdAt) {
+        this(id, cabId, cabLicensePlate, driverName, status, totalOccupiedSeats, totalLuggage, remainingSeats,
+                totalRouteDistanceKm, windowExpiresAt, null, null, createdAt);
+    }
 }
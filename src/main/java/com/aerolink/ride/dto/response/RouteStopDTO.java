@@ -0,0 +1,17 @@
+package com.aerolink.ride.dto.response;
+
+import lombok.*;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteStopDTO {
+    private UUID rideRequestId;
+    private boolean pickup;
+    private double lat;
+    private double lng;
+    private double cumulativeKm;
+}
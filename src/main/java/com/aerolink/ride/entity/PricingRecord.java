@@ -15,7 +15,7 @@ import java.util.UUID;
 public class PricingRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @OneToOne(fetch = FetchType.LAZY)
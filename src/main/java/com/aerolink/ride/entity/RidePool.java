@@ -17,11 +17,11 @@ import java.util.UUID;
 @Builder
 public class RidePool {
 
-    private static final int FIXED_CAPACITY_SEATS = 4;
-    private static final int FIXED_CAPACITY_LUGGAGE = 4;
+    public static final int FIXED_CAPACITY_SEATS = 4;
+    public static final int FIXED_CAPACITY_LUGGAGE = 4;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
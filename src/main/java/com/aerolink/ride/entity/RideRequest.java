@@ -16,7 +16,7 @@ import java.util.UUID;
 public class RideRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -44,6 +44,14 @@ public class RideRequest {
     @Column(name = "max_detour_km", nullable = false)
     private double maxDetourKm;
 
+    /** Haversine pickup → drop distance, computed once at booking. */
+    @Column(name = "direct_km", nullable = false)
+    private Double directKm;
+
+    /** Initial pickup → drop bearing (degrees clockwise from north), computed once at booking. */
+    @Column(name = "trip_bearing", nullable = false)
+    private Double tripBearing;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private RideStatus status;
@@ -1,39 +1,70 @@
 package com.aerolink.ride.repository;
 
+import com.aerolink.ride.dto.response.CabResponseDTO;
 import com.aerolink.ride.entity.Cab;
 import com.aerolink.ride.enums.CabStatus;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface CabRepository extends JpaRepository<Cab, UUID> {
 
     /**
-     * Find available cabs near a location using Haversine distance in SQL.
-     * Orders by distance ascending. Uses the idx_cabs_status index.
+     * Head of the {@link CabResponseDTO} projection queries: each cab with the
+     * remaining capacity of its active pool, in one row. The lateral subquery
+     * picks an ASSIGNED or ON_TRIP cab's newest CONFIRMED or IN_PROGRESS pool
+     * (the one {@link RidePoolRepository#findActivePoolsByCabId} returns first)
+     * from idx_ride_pools_active_cab, so listing the fleet is one statement
+     * however many cabs are busy. Other cabs report their full capacity.
      */
-    @Query("""
-                SELECT c FROM Cab c
-                WHERE c.status = :status
-                AND (6371.0 * acos(
-                    cos(radians(:lat)) * cos(radians(c.currentLat))
-                    * cos(radians(c.currentLng) - radians(:lng))
-                    + sin(radians(:lat)) * sin(radians(c.currentLat))
-                )) <= :radiusKm
-                ORDER BY (6371.0 * acos(
-                    cos(radians(:lat)) * cos(radians(c.currentLat))
-                    * cos(radians(c.currentLng) - radians(:lng))
-                    + sin(radians(:lat)) * sin(radians(c.currentLat))
-                )) ASC
-            """)
+    String RESPONSE_SELECT = """
+                SELECT new com.aerolink.ride.dto.response.CabResponseDTO(
+                    c.id, c.licensePlate, c.driverName, c.totalSeats, c.luggageCapacity,
+                    c.currentLat, c.currentLng, c.status,
+                    CASE WHEN c.status IN ('ASSIGNED', 'ON_TRIP') THEN c.totalSeats - ap.seats
+                        ELSE c.totalSeats END,
+                    CASE WHEN c.status IN ('ASSIGNED', 'ON_TRIP') THEN c.luggageCapacity - ap.luggage
+                        ELSE c.luggageCapacity END,
+                    ap.id, c.createdAt)
+                FROM Cab c
+                LEFT JOIN LATERAL (
+                    SELECT p.id AS id, p.totalOccupiedSeats AS seats, p.totalLuggage AS luggage
+                    FROM RidePool p
+                    WHERE p.cab = c
+                    AND p.status IN ('CONFIRMED', 'IN_PROGRESS')
+                    AND c.status IN ('ASSIGNED', 'ON_TRIP')
+                    ORDER BY p.createdAt DESC
+                    LIMIT 1
+                ) ap
+            """;
+
+    /**
+     * Find cabs in the given status near a location, nearest first.
+     * ST_DWithin on the {@code location} geography column is served by the
+     * idx_cabs_location GiST index, and {@code <->} orders by the same index.
+     */
+    @Query(value = """
+                SELECT * FROM cabs
+                WHERE status = :#{#status.name()}
+                AND ST_DWithin(location, ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography,
+                    :radiusKm * 1000, false)
+                ORDER BY location <-> ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography
+            """, nativeQuery = true)
     List<Cab> findAvailableCabsNear(
             @Param("lat") double lat,
             @Param("lng") double lng,
@@ -47,6 +78,125 @@ public interface CabRepository extends JpaRepository<Cab, UUID> {
     @Query("SELECT c FROM Cab c WHERE c.id = :id")
     Optional<Cab> findByIdWithLock(@Param("id") UUID id);
 
+    /**
+     * Claim the nearest AVAILABLE cab that can seat the pool, in one
+     * statement: the candidate is picked and locked with
+     * {@code FOR UPDATE SKIP LOCKED}, so concurrent dispatches skip each
+     * other's cab instead of waiting on it, and marked ASSIGNED.
+     * <p>
+     * The old search in rings (base radius, then wider) needs no second call:
+     * any cab in the inner ring is nearer than every cab outside it, so the
+     * nearest cab within {@code maxRadiusKm} is the one the rings would find.
+     * {@code version} is bumped so stale copies of the cab fail their
+     * optimistic check.
+     * <p>
+     * Not {@code @Modifying}: Spring Data runs modifying queries through
+     * {@code executeUpdate}, which rejects the row {@code RETURNING} sends
+     * back. Run as a query, it still flushes pending changes first (a native
+     * query flushes the whole session), but Hibernate does not know it wrote
+     * the cab: a copy already in the persistence context keeps saying
+     * AVAILABLE. So only the id is returned, and the caller reloads the cab
+     * with {@code EntityManager.refresh}.
+     *
+     * @return ID of the claimed cab, or empty if none is free within range
+     */
+    @Query(value = """
+                UPDATE cabs SET status = 'ASSIGNED', version = version + 1
+                WHERE id = (
+                    SELECT id FROM cabs
+                    WHERE status = 'AVAILABLE'
+                    AND total_seats >= :seats
+                    AND luggage_capacity >= :luggage
+                    AND ST_DWithin(location, ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography,
+                        :maxRadiusKm * 1000, false)
+                    ORDER BY location <-> ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography
+                    LIMIT 1
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id
+            """, nativeQuery = true)
+    Optional<UUID> claimNearestAvailable(
+            @Param("lat") double lat,
+            @Param("lng") double lng,
+            @Param("maxRadiusKm") double maxRadiusKm,
+            @Param("seats") int seats,
+            @Param("luggage") int luggage);
+
+    /**
+     * Claim a specific cab if it is still AVAILABLE, in one statement. Not
+     * {@code @Modifying} and returns the id only, for the reasons given on
+     * {@link #claimNearestAvailable}.
+     *
+     * @return ID of the claimed cab, or empty if it was taken (or is locked
+     *         by a concurrent claim)
+     */
+    @Query(value = """
+                UPDATE cabs SET status = 'ASSIGNED', version = version + 1
+                WHERE id = (
+                    SELECT id FROM cabs
+                    WHERE id = :id
+                    AND status = 'AVAILABLE'
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id
+            """, nativeQuery = true)
+    Optional<UUID> claimIfAvailable(@Param("id") UUID id);
+
+    /**
+     * Release the cabs held by FORMING or DISPATCHING pools in one statement
+     * (stale cleanup; run before the pools are dissolved).
+     *
+     * @return Number of cabs released
+     */
+    @Modifying
+    @Query("""
+                UPDATE Cab c
+                SET c.status = com.aerolink.ride.enums.CabStatus.AVAILABLE, c.version = c.version + 1
+                WHERE c.status <> 'AVAILABLE'
+                AND c.id IN (
+                    SELECT p.cab.id FROM RidePool p WHERE p.status IN ('FORMING', 'DISPATCHING')
+                )
+            """)
+    int releaseCabsOfStalePools();
+
+    /**
+     * Release the cabs held by active pools created before {@code cutoff}
+     * in one statement (expiry sweep; run before the pools are dissolved).
+     *
+     * @return Number of cabs released
+     */
+    @Modifying
+    @Query("""
+                UPDATE Cab c
+                SET c.status = com.aerolink.ride.enums.CabStatus.AVAILABLE, c.version = c.version + 1
+                WHERE c.status <> 'AVAILABLE'
+                AND c.id IN (
+                    SELECT p.cab.id FROM RidePool p
+                    WHERE p.status IN ('FORMING', 'DISPATCHING', 'CONFIRMED', 'IN_PROGRESS')
+                    AND p.createdAt < :cutoff
+                )
+            """)
+    int releaseCabsOfActivePoolsCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Release ASSIGNED cabs that have no CONFIRMED or IN_PROGRESS pool, in
+     * one statement.
+     *
+     * @return Number of cabs released
+     */
+    @Modifying
+    @Query("""
+                UPDATE Cab c
+                SET c.status = com.aerolink.ride.enums.CabStatus.AVAILABLE, c.version = c.version + 1
+                WHERE c.status = 'ASSIGNED'
+                AND NOT EXISTS (
+                    SELECT 1 FROM RidePool p
+                    WHERE p.cab.id = c.id
+                    AND p.status IN ('CONFIRMED', 'IN_PROGRESS')
+                )
+            """)
+    int releaseOrphanedAssignedCabs();
+
     List<Cab> findByStatus(CabStatus status);
 
     Optional<Cab> findByLicensePlate(String licensePlate);
@@ -54,30 +204,56 @@ public interface CabRepository extends JpaRepository<Cab, UUID> {
     /**
      * Find ASSIGNED cabs near a location whose active pool still has
      * remaining seat and luggage capacity for the requesting passenger.
-     * Only considers pools in FORMING or CONFIRMED status.
+     * Only considers pools in FORMING or CONFIRMED status. Nearest first,
+     * through the idx_cabs_location GiST index.
      */
-    @Query("""
-                SELECT c FROM Cab c
-                JOIN RidePool p ON p.cab = c
+    @Query(value = """
+                SELECT c.* FROM cabs c
+                JOIN ride_pools p ON p.cab_id = c.id
                 WHERE c.status = 'ASSIGNED'
                 AND p.status IN ('FORMING', 'CONFIRMED')
-                AND (c.totalSeats - p.totalOccupiedSeats) >= :passengerCount
-                AND (c.luggageCapacity - p.totalLuggage) >= :luggageCount
-                AND (6371.0 * acos(
-                    cos(radians(:lat)) * cos(radians(c.currentLat))
-                    * cos(radians(c.currentLng) - radians(:lng))
-                    + sin(radians(:lat)) * sin(radians(c.currentLat))
-                )) <= :radiusKm
-                ORDER BY (6371.0 * acos(
-                    cos(radians(:lat)) * cos(radians(c.currentLat))
-                    * cos(radians(c.currentLng) - radians(:lng))
-                    + sin(radians(:lat)) * sin(radians(c.currentLat))
-                )) ASC
-            """)
+                AND (c.total_seats - p.total_occupied_seats) >= :passengerCount
+                AND (c.luggage_capacity - p.total_luggage) >= :luggageCount
+                AND ST_DWithin(c.location, ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography,
+                    :radiusKm * 1000, false)
+                ORDER BY c.location <-> ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography
+            """, nativeQuery = true)
     List<Cab> findAssignedCabsWithCapacityNear(
             @Param("lat") double lat,
             @Param("lng") double lng,
             @Param("radiusKm") double radiusKm,
             @Param("passengerCount") int passengerCount,
             @Param("luggageCount") int luggageCount);
+
+    /**
+     * First page of all cabs as responses in (created_at, id) order. Later
+     * pages come from {@link #findPageAfter}.
+     */
+    @Query(RESPONSE_SELECT + """
+                ORDER BY c.createdAt, c.id
+            """)
+    List<CabResponseDTO> findFirstPage(Pageable page);
+
+    /**
+     * The page of cabs after the one ending at {@code (createdAt, id)}.
+     */
+    @Query(RESPONSE_SELECT + """
+                WHERE (c.createdAt, c.id) > (:createdAt, :id)
+                ORDER BY c.createdAt, c.id
+            """)
+    List<CabResponseDTO> findPageAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Pageable page);
+
+    /**
+     * Every cab as a response in (created_at, id) order, read through a
+     * database cursor {@value RideRequestRepository#STREAM_FETCH_SIZE} rows at
+     * a time. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + RideRequestRepository.STREAM_FETCH_SIZE))
+    @Query(RESPONSE_SELECT + """
+                ORDER BY c.createdAt, c.id
+            """)
+    Stream<CabResponseDTO> streamAllInOrder();
 }
@@ -1,16 +1,23 @@
 package com.aerolink.ride.repository;
 
+import com.aerolink.ride.dto.response.PoolResponseDTO;
 import com.aerolink.ride.entity.RidePool;
 import com.aerolink.ride.enums.PoolStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,40 +28,151 @@ public interface RidePoolRepository extends JpaRepository<RidePool, UUID> {
 
     /**
      * Find FORMING pools near a pickup location using the pool's anchor pickup
-     * point.
-     * Uses Haversine formula for distance calculation.
+     * point, with their ride requests loaded.
+     * <p>
+     * Two steps: the ids come from a native ST_DWithin query served by the
+     * partial GiST index idx_ride_pools_forming_pickup, then the pools are
+     * fetched with their requests by id (a fetch join cannot be combined with
+     * a native query). The result keeps the nearest-first order of the ids.
      */
-    @Query("""
-                SELECT DISTINCT p FROM RidePool p
-                LEFT JOIN FETCH p.rideRequests r
-                WHERE p.status = 'FORMING'
-                AND (6371.0 * acos(
-                    cos(radians(:lat)) * cos(radians(p.pickupLat))
-                    * cos(radians(p.pickupLng) - radians(:lng))
-                    + sin(radians(:lat)) * sin(radians(p.pickupLat))
-                )) <= :radiusKm
-            """)
-    List<RidePool> findFormingPoolsNear(
+    default List<RidePool> findFormingPoolsNear(double lat, double lng, double radiusKm) {
+        List<UUID> ids = findFormingPoolIdsNear(lat, lng, radiusKm);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        List<RidePool> pools = new ArrayList<>(findWithRideRequestsByIdIn(ids));
+        pools.sort(Comparator.comparing(pool -> rank.get(pool.getId())));
+        return pools;
+    }
+
+    /**
+     * IDs of FORMING pools whose anchor pickup is within {@code radiusKm},
+     * nearest first.
+     */
+    @Query(value = """
+                SELECT id FROM ride_pools
+                WHERE status = 'FORMING'
+                AND ST_DWithin(pickup_location, ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography,
+                    :radiusKm * 1000, false)
+                ORDER BY pickup_location <-> ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography
+            """, nativeQuery = true)
+    List<UUID> findFormingPoolIdsNear(
             @Param("lat") double lat,
             @Param("lng") double lng,
             @Param("radiusKm") double radiusKm);
 
-    /**
-     * Find pools ready for dispatch: FORMING and either full or window expired.
-     */
     @Query("""
                 SELECT DISTINCT p FROM RidePool p
                 LEFT JOIN FETCH p.rideRequests
-                WHERE p.status = 'FORMING'
-                AND (p.totalOccupiedSeats >= 4 OR p.windowExpiresAt <= :now)
+                WHERE p.id IN :ids
+            """)
+    List<RidePool> findWithRideRequestsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Claim up to {@code limit} pools ready for dispatch (FORMING and either
+     * full or window expired) for this instance, oldest window first.
+     *
+     * <p>
+     * Rows locked by a concurrent claim are skipped rather than waited for,
+     * and claimed rows get a {@code claimed_at} lease so other instances pass
+     * them over until {@code leaseCutoff} has moved beyond it. Concurrent
+     * callers therefore always get disjoint batches. Must run in a
+     * read-write transaction.
+     * </p>
+     *
+     * <p>
+     * Not {@code @Modifying}: Spring Data runs modifying queries through
+     * {@code executeUpdate}, which rejects the rows {@code RETURNING} sends
+     * back. Only ids come back, so no managed pool can be handed out with
+     * its pre-claim state; {@code claimed_at} is not mapped on the entity
+     * either, so a later flush cannot overwrite it. Callers run it in a
+     * transaction of its own and load the pools afterwards.
+     * </p>
+     *
+     * @return IDs of the claimed pools
+     */
+    @Query(value = """
+                UPDATE ride_pools SET claimed_at = :now
+                WHERE id IN (
+                    SELECT id FROM ride_pools
+                    WHERE status = 'FORMING'
+                    AND (total_occupied_seats >= 4 OR window_expires_at <= :now)
+                    AND (claimed_at IS NULL OR claimed_at <= :leaseCutoff)
+                    ORDER BY window_expires_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id
+            """, nativeQuery = true)
+    List<UUID> claimReadyPools(
+            @Param("now") LocalDateTime now,
+            @Param("leaseCutoff") LocalDateTime leaseCutoff,
+            @Param("limit") int limit);
+
+    /**
+     * Claim specific FORMING pools, as {@link #claimReadyPools} does, without
+     * checking readiness (the dispatch re-checks it). Not {@code @Modifying}
+     * for the same reason.
+     *
+     * @return IDs of the pools claimed
+     */
+    @Query(value = """
+                UPDATE ride_pools SET claimed_at = :now
+                WHERE id IN (
+                    SELECT id FROM ride_pools
+                    WHERE id IN (:ids)
+                    AND status = 'FORMING'
+                    AND (claimed_at IS NULL OR claimed_at <= :leaseCutoff)
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id
+            """, nativeQuery = true)
+    List<UUID> claimPools(
+            @Param("ids") Collection<UUID> ids,
+            @Param("now") LocalDateTime now,
+            @Param("leaseCutoff") LocalDateTime leaseCutoff);
+
+    /**
+     * Give up a claim on a pool that stays FORMING, so the next sweep or
+     * timer firing can take it without waiting for the lease to run out.
+     */
+    @Modifying
+    @Query(value = "UPDATE ride_pools SET claimed_at = NULL WHERE id = :id", nativeQuery = true)
+    int releaseClaim(@Param("id") UUID id);
+
+    /**
+     * Dissolve every FORMING or DISPATCHING pool in one statement (stale
+     * cleanup). Bumps {@code version} like an entity update would.
+     *
+     * @return Number of pools dissolved
+     */
+    @Modifying
+    @Query("""
+                UPDATE RidePool p
+                SET p.status = com.aerolink.ride.enums.PoolStatus.DISSOLVED, p.version = p.version + 1
+                WHERE p.status IN ('FORMING', 'DISPATCHING')
             """)
-    List<RidePool> findPoolsReadyForDispatch(@Param("now") LocalDateTime now);
+    int dissolveStaleFormingOrDispatchingPools();
 
     /**
-     * Find FORMING or DISPATCHING pools (stale cleanup).
+     * Dissolve every active pool created before {@code cutoff} in one
+     * statement (expiry sweep). Bumps {@code version} like an entity update
+     * would.
+     *
+     * @return Number of pools dissolved
      */
-    @Query("SELECT p FROM RidePool p WHERE p.status IN ('FORMING', 'DISPATCHING')")
-    List<RidePool> findStaleFormingOrDispatchingPools();
+    @Modifying
+    @Query("""
+                UPDATE RidePool p
+                SET p.status = com.aerolink.ride.enums.PoolStatus.DISSOLVED, p.version = p.version + 1
+                WHERE p.status IN ('FORMING', 'DISPATCHING', 'CONFIRMED', 'IN_PROGRESS')
+                AND p.createdAt < :cutoff
+            """)
+    int dissolveActivePoolsCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
 
     /**
      * Pessimistic lock for dispatch operations.
@@ -85,4 +203,19 @@ public interface RidePoolRepository extends JpaRepository<RidePool, UUID> {
                 ORDER BY p.createdAt DESC
             """)
     List<RidePool> findActivePoolsByCabId(@Param("cabId") UUID cabId);
+
+    /**
+     * A pool with its cab as a response, in one query. Riders and route are
+     * left null for the caller to fill in.
+     */
+    @Query("""
+                SELECT new com.aerolink.ride.dto.response.PoolResponseDTO(
+                    p.id, c.id, c.licensePlate, c.driverName, p.status, p.totalOccupiedSeats, p.totalLuggage,
+                    COALESCE(c.totalSeats, com.aerolink.ride.entity.RidePool.FIXED_CAPACITY_SEATS) - p.totalOccupiedSeats,
+                    p.totalRouteDistanceKm, p.windowExpiresAt, p.createdAt)
+                FROM RidePool p
+                LEFT JOIN p.cab c
+                WHERE p.id = :poolId
+            """)
+    Optional<PoolResponseDTO> findResponseById(@Param("poolId") UUID poolId);
 }
@@ -1,20 +1,82 @@
 package com.aerolink.ride.repository;
 
+import com.aerolink.ride.dto.response.RideResponseDTO;
 import com.aerolink.ride.entity.RideRequest;
 import com.aerolink.ride.enums.RideStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface RideRequestRepository extends JpaRepository<RideRequest, UUID> {
 
+    /**
+     * How far back the passenger active-ride lookups look: pools dispatch
+     * within minutes and trips end within hours. They bound
+     * {@code created_at} by it, so Postgres only scans the newest monthly
+     * partitions of ride_requests instead of the whole history.
+     *
+     * <p>
+     * A ride is not trusted to end by itself within the horizon: the
+     * scheduler's daily expiry sweep ({@link #cancelActiveRequestsCreatedBefore})
+     * cancels any ride still active a day before it would pass the horizon,
+     * so no active ride is ever older than the lookups can see.
+     * </p>
+     */
+    Duration ACTIVE_HORIZON = Duration.ofDays(7);
+
+    /**
+     * How long before its pool a member request can have been created. A
+     * rider joins a pool when booking, or founds it after at most one
+     * batch-matching window, so a day is a wide margin.
+     */
+    Duration POOL_MEMBER_SLACK = Duration.ofDays(1);
+
+    /**
+     * Tail of the pool member queries: bounds {@code created_at} by the
+     * {@code created_at} of pool {@code :poolId} minus
+     * {@link #POOL_MEMBER_SLACK} (spelled out, HQL takes no parameter
+     * there). An uncorrelated subquery, so Postgres evaluates it once and
+     * prunes ride_requests to the pool's partitions at run time.
+     */
+    String POOL_MEMBERS_SINCE = """
+                AND r.createdAt >= (SELECT pool.createdAt - 1 day FROM RidePool pool WHERE pool.id = :poolId)
+            """;
+
+    /** Rows per round trip when streaming. */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Head of the {@link RideResponseDTO} projection queries: the response
+     * fields in one row per request, passenger joined in. Reading responses
+     * this way takes one statement however many rows, where mapping entities
+     * loads each lazy passenger separately.
+     */
+    String RESPONSE_SELECT = """
+                SELECT new com.aerolink.ride.dto.response.RideResponseDTO(
+                    r.id, p.id, p.name, r.pickupLat, r.pickupLng, r.dropLat, r.dropLng,
+                    r.passengerCount, r.luggageCount, r.status, r.ridePool.id, r.estimatedPrice, r.createdAt)
+                FROM RideRequest r
+                JOIN r.passenger p
+            """;
+
+    private static LocalDateTime activeSince() {
+        return LocalDateTime.now().minus(ACTIVE_HORIZON);
+    }
+
     Optional<RideRequest> findByIdempotencyKey(String idempotencyKey);
 
     List<RideRequest> findByRidePoolId(UUID ridePoolId);
@@ -40,41 +102,167 @@ public interface RideRequestRepository extends JpaRepository<RideRequest, UUID>
                 SELECT r FROM RideRequest r
                 WHERE r.ridePool.id = :poolId
                 AND r.status <> 'CANCELLED'
-            """)
+            """ + POOL_MEMBERS_SINCE)
     List<RideRequest> findActiveRequestsByPoolId(@Param("poolId") UUID poolId);
 
     /**
-     * Check if a passenger has any active ride (one-ride-per-user enforcement).
+     * Move every non-cancelled request of a pool to {@code status} in one
+     * statement (the set {@link #findActiveRequestsByPoolId} returns).
+     *
+     * @return Number of requests updated
      */
+    @Modifying
+    @Query("""
+                UPDATE RideRequest r SET r.status = :status
+                WHERE r.ridePool.id = :poolId
+                AND r.status <> 'CANCELLED'
+            """ + POOL_MEMBERS_SINCE)
+    int updateActiveRequestStatusByPoolId(
+            @Param("poolId") UUID poolId,
+            @Param("status") RideStatus status);
+
+    /**
+     * Cancel the non-cancelled requests of all FORMING or DISPATCHING pools
+     * in one statement (stale cleanup; run before the pools are dissolved).
+     * Bounded like {@link #POOL_MEMBERS_SINCE}, by the oldest such pool.
+     *
+     * @return Number of requests cancelled
+     */
+    @Modifying
+    @Query("""
+                UPDATE RideRequest r SET r.status = com.aerolink.ride.enums.RideStatus.CANCELLED
+                WHERE r.status <> 'CANCELLED'
+                AND r.createdAt >= (
+                    SELECT MIN(p.createdAt) - 1 day FROM RidePool p WHERE p.status IN ('FORMING', 'DISPATCHING')
+                )
+                AND r.ridePool.id IN (
+                    SELECT p.id FROM RidePool p WHERE p.status IN ('FORMING', 'DISPATCHING')
+                )
+            """)
+    int cancelActiveRequestsInStalePools();
+
+    /**
+     * Cancel every ride still active that was created before
+     * {@code cutoff}, in one statement (the expiry sweep that keeps
+     * {@link #ACTIVE_HORIZON} true).
+     *
+     * @return Number of requests cancelled
+     */
+    @Modifying
+    @Query("""
+                UPDATE RideRequest r SET r.status = com.aerolink.ride.enums.RideStatus.CANCELLED
+                WHERE r.status IN ('PENDING', 'POOLED', 'CONFIRMED', 'IN_PROGRESS')
+                AND r.createdAt < :cutoff
+            """)
+    int cancelActiveRequestsCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * IDs of PENDING requests not yet placed in a pool (batch matching),
+     * oldest first.
+     */
+    @Query("""
+                SELECT r.id FROM RideRequest r
+                WHERE r.status = 'PENDING'
+                AND r.ridePool IS NULL
+                ORDER BY r.createdAt
+            """)
+    List<UUID> findUnpooledPendingIds();
+
+    /**
+     * Check if a passenger has any active ride (one-ride-per-user
+     * enforcement), within {@link #ACTIVE_HORIZON}.
+     */
+    default boolean hasActiveRide(UUID passengerId) {
+        return hasActiveRideSince(passengerId, activeSince());
+    }
+
     @Query("""
                 SELECT COUNT(r) > 0 FROM RideRequest r
                 WHERE r.passenger.id = :passengerId
                 AND r.status IN ('PENDING', 'POOLED', 'CONFIRMED', 'IN_PROGRESS')
+                AND r.createdAt >= :since
             """)
-    boolean hasActiveRide(@Param("passengerId") UUID passengerId);
+    boolean hasActiveRideSince(
+            @Param("passengerId") UUID passengerId,
+            @Param("since") LocalDateTime since);
 
     /**
-     * Find all rides for a passenger, ordered by creation time (newest first).
+     * A ride request as a response, passenger name included, in one query.
      */
-    @Query("""
-                SELECT r FROM RideRequest r
-                LEFT JOIN FETCH r.ridePool
-                WHERE r.passenger.id = :passengerId
+    @Query(RESPONSE_SELECT + """
+                WHERE r.id = :id
+            """)
+    Optional<RideResponseDTO> findResponseById(@Param("id") UUID id);
+
+    /**
+     * The requests of {@link #findActiveRequestsByPoolId} as responses
+     * (same predicate).
+     */
+    @Query(RESPONSE_SELECT + """
+                WHERE r.ridePool.id = :poolId
+                AND r.status <> 'CANCELLED'
+            """ + POOL_MEMBERS_SINCE)
+    List<RideResponseDTO> findActiveResponsesByPoolId(@Param("poolId") UUID poolId);
+
+    /**
+     * All rides of a passenger as responses, newest first.
+     */
+    @Query(RESPONSE_SELECT + """
+                WHERE p.id = :passengerId
                 ORDER BY r.createdAt DESC
             """)
-    List<RideRequest> findByPassengerIdOrderByCreatedAtDesc(@Param("passengerId") UUID passengerId);
+    List<RideResponseDTO> findResponsesByPassengerId(@Param("passengerId") UUID passengerId);
 
     /**
-     * Find all active rides for a passenger (for dashboard).
-     * Returns as List to safely handle edge cases with multiple active rides.
+     * Active rides of a passenger as responses, newest first (for the
+     * dashboard), within {@link #ACTIVE_HORIZON}. A list, to safely handle
+     * edge cases with multiple active rides.
      */
-    @Query("""
-                SELECT r FROM RideRequest r
-                LEFT JOIN FETCH r.ridePool p
-                LEFT JOIN FETCH p.cab
-                WHERE r.passenger.id = :passengerId
+    default List<RideResponseDTO> findActiveResponsesByPassengerId(UUID passengerId) {
+        return findActiveResponsesByPassengerIdSince(passengerId, activeSince());
+    }
+
+    @Query(RESPONSE_SELECT + """
+                WHERE p.id = :passengerId
                 AND r.status IN ('PENDING', 'POOLED', 'CONFIRMED', 'IN_PROGRESS')
+                AND r.createdAt >= :since
                 ORDER BY r.createdAt DESC
             """)
-    List<RideRequest> findActiveRidesByPassengerId(@Param("passengerId") UUID passengerId);
+    List<RideResponseDTO> findActiveResponsesByPassengerIdSince(
+            @Param("passengerId") UUID passengerId,
+            @Param("since") LocalDateTime since);
+
+    /**
+     * First page of all rides as responses, newest first. Later pages come
+     * from {@link #findPageAfter}; both walk the (created_at, id) index.
+     */
+    @Query(RESPONSE_SELECT + """
+                ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<RideResponseDTO> findFirstPage(Pageable page);
+
+    /**
+     * The page of rides after the one ending at {@code (createdAt, id)},
+     * newest first.
+     */
+    @Query(RESPONSE_SELECT + """
+                WHERE (r.createdAt, r.id) < (:createdAt, :id)
+                ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<RideResponseDTO> findPageAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Pageable page);
+
+    /**
+     * Every ride as a response, newest first, read through a database cursor
+     * {@value #STREAM_FETCH_SIZE} rows at a time. Must be consumed and closed
+     * inside a transaction. The rows are not entities, so nothing piles up
+     * in the persistence context.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(RESPONSE_SELECT + """
+                ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    Stream<RideResponseDTO> streamAllNewestFirst();
 }
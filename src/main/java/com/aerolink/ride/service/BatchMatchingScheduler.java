@@ -0,0 +1,64 @@
+package com.aerolink.ride.service;
+
+import com.aerolink.ride.repository.RideRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs a batch-matching round every {@code aerolink.pooling.batch-window-ms}
+ * over the requests buffered since the last one.
+ *
+ * <p>
+ * The buffer is only filled when
+ * {@code aerolink.pooling.batch-matching-enabled} is set; otherwise every
+ * round is a no-op and requests are pooled as they arrive.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchMatchingScheduler {
+
+    private final RideRequestBatch rideRequestBatch;
+    private final RidePoolingService ridePoolingService;
+    private final RideRequestRepository rideRequestRepository;
+
+    /**
+     * Requests still PENDING without a pool were buffered by a previous run
+     * that stopped before matching them: queue them again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeueUnmatchedRequests() {
+        try {
+            List<UUID> unmatched = rideRequestRepository.findUnpooledPendingIds();
+            if (!unmatched.isEmpty()) {
+                log.warn("Startup: re-queueing {} unmatched PENDING ride requests for batch matching",
+                        unmatched.size());
+                unmatched.forEach(rideRequestBatch::add);
+            }
+        } catch (Exception e) {
+            log.error("Startup re-queue of unmatched ride requests failed (non-fatal): {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${aerolink.pooling.batch-window-ms}")
+    public void matchBufferedRequests() {
+        List<UUID> batch = rideRequestBatch.drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            ridePoolingService.matchBatch(batch);
+        } catch (Exception e) {
+            log.error("Batch matching of {} requests failed, re-queueing: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(rideRequestBatch::add);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.aerolink.ride.service;
 
 import com.aerolink.ride.dto.request.CabLocationUpdateDTO;
 import com.aerolink.ride.dto.response.CabResponseDTO;
+import com.aerolink.ride.dto.response.CursorPage;
 import com.aerolink.ride.entity.Cab;
 import com.aerolink.ride.entity.RidePool;
 import com.aerolink.ride.entity.RideRequest;
@@ -15,11 +16,14 @@ import com.aerolink.ride.repository.RidePoolRepository;
 import com.aerolink.ride.repository.RideRequestRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -30,6 +34,7 @@ public class CabService {
     private final RidePoolRepository ridePoolRepository;
     private final RideRequestRepository rideRequestRepository;
     private final SseService sseService;
+    private final RoutePlanCache routePlanCache;
 
     @Transactional
     public CabResponseDTO updateLocation(UUID cabId, CabLocationUpdateDTO dto) {
@@ -50,11 +55,32 @@ public class CabService {
         return buildCabResponse(cab);
     }
 
+    /**
+     * One page of all cabs in registration order.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the
+     *               first page
+     */
     @Transactional(readOnly = true)
-    public List<CabResponseDTO> getAllCabs() {
-        return cabRepository.findAll().stream()
-                .map(this::buildCabResponse)
-                .collect(Collectors.toList());
+    public CursorPage<CabResponseDTO> getCabs(String cursor, int limit) {
+        Pageable page = KeysetCursor.pageOf(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<CabResponseDTO> cabs = after == null
+                ? cabRepository.findFirstPage(page)
+                : cabRepository.findPageAfter(after.createdAt(), after.id(), page);
+        return KeysetCursor.toPage(cabs, limit, cab -> new KeysetCursor(cab.getCreatedAt(), cab.getId()),
+                Function.identity());
+    }
+
+    /**
+     * Hand every cab to {@code sink} while reading them through a database
+     * cursor, so memory stays flat however large the fleet.
+     */
+    @Transactional(readOnly = true)
+    public void streamCabs(Consumer<CabResponseDTO> sink) {
+        try (Stream<CabResponseDTO> cabs = cabRepository.streamAllInOrder()) {
+            cabs.forEach(sink);
+        }
     }
 
     /**
@@ -84,14 +110,13 @@ public class CabService {
         }
 
         // Update statuses
+        routePlanCache.retain(pool);
         pool.setStatus(PoolStatus.IN_PROGRESS);
         ridePoolRepository.save(pool);
 
+        // Read for the notifications, then move them all in one statement
         List<RideRequest> activeRiders = rideRequestRepository.findActiveRequestsByPoolId(pool.getId());
-        for (RideRequest rider : activeRiders) {
-            rider.setStatus(RideStatus.IN_PROGRESS);
-            rideRequestRepository.save(rider);
-        }
+        rideRequestRepository.updateActiveRequestStatusByPoolId(pool.getId(), RideStatus.IN_PROGRESS);
 
         cab.setStatus(CabStatus.ON_TRIP);
         cab = cabRepository.save(cab);
@@ -136,9 +161,9 @@ public class CabService {
         double lastDropLat = cab.getCurrentLat();
         double lastDropLng = cab.getCurrentLng();
 
+        rideRequestRepository.updateActiveRequestStatusByPoolId(pool.getId(), RideStatus.COMPLETED);
+
         for (RideRequest request : activeRequests) {
-            request.setStatus(RideStatus.COMPLETED);
-            rideRequestRepository.save(request);
             lastDropLat = request.getDropLat();
             lastDropLng = request.getDropLng();
 
@@ -160,6 +185,7 @@ public class CabService {
 
         // Cleanup SSE tracking
         sseService.cleanupPool(pool.getId());
+        routePlanCache.evict(pool.getId());
 
         log.info("Completed ride for cab {}: {} rides completed", cabId, activeRequests.size());
 
@@ -179,6 +205,7 @@ public class CabService {
                 .currentLat(cab.getCurrentLat())
                 .currentLng(cab.getCurrentLng())
                 .status(cab.getStatus())
+                .createdAt(cab.getCreatedAt())
                 .build();
 
         if (cab.getStatus() == CabStatus.ASSIGNED || cab.getStatus() == CabStatus.ON_TRIP) {
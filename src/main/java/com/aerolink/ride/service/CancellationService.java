@@ -1,6 +1,7 @@
 package com.aerolink.ride.service;
 
 import com.aerolink.ride.algorithm.RouteDeviationChecker;
+import com.aerolink.ride.algorithm.RoutePlan;
 import com.aerolink.ride.dto.event.RideEvent;
 import com.aerolink.ride.entity.Cab;
 import com.aerolink.ride.entity.RidePool;
@@ -37,6 +38,8 @@ public class CancellationService {
     private final RideEventPublisher eventPublisher;
     private final RedisLockRegistry redisLockRegistry;
     private final SseService sseService;
+    private final RoutePlanCache routePlanCache;
+    private final PoolDispatchTimer poolDispatchTimer;
 
     /**
      * Cancel a ride request.
@@ -95,6 +98,9 @@ public class CancellationService {
                 RidePool pool = ridePoolRepository.findById(poolId)
                         .orElseThrow(() -> new ResourceNotFoundException("Pool not found: " + poolId));
 
+                // Look up before modifying the pool: the cached plan is keyed by its current version
+                RoutePlan cachedPlan = routePlanCache.getIfCurrent(pool);
+
                 // Update pool counts
                 pool.setTotalOccupiedSeats(
                         Math.max(0, pool.getTotalOccupiedSeats() - cancelledRequest.getPassengerCount()));
@@ -108,20 +114,14 @@ public class CancellationService {
                     // Dissolve pool and release cab
                     dissolvePool(pool);
                 } else {
-                    // Recalculate route distance with remaining riders
-                    if (activeRiders.size() == 1) {
-                        RideRequest sole = activeRiders.get(0);
-                        pool.setTotalRouteDistanceKm(
-                                RouteDeviationChecker.estimateTotalRouteDistance(List.of(), sole));
-                    } else {
-                        // Use first rider as "new" and rest as "existing" for the algorithm
-                        RideRequest first = activeRiders.get(0);
-                        List<RideRequest> rest = activeRiders.subList(1, activeRiders.size());
-                        pool.setTotalRouteDistanceKm(
-                                RouteDeviationChecker.estimateTotalRouteDistance(rest, first));
-                    }
+                    // Drop the rider's stops from the planned route; re-plan only on a cache miss
+                    RoutePlan plan = cachedPlan != null
+                            ? cachedPlan.withoutRider(cancelledRequest.getId())
+                            : RouteDeviationChecker.planRoute(activeRiders);
+                    pool.setTotalRouteDistanceKm(RouteDeviationChecker.roundKm(plan.getTotalKm()));
 
                     ridePoolRepository.save(pool);
+                    routePlanCache.put(pool, plan);
 
                     // Only recalculate prices if pool was already dispatched (has prices)
                     if (pool.getStatus() == PoolStatus.CONFIRMED || pool.getStatus() == PoolStatus.IN_PROGRESS) {
@@ -173,6 +173,8 @@ public class CancellationService {
         }
 
         sseService.cleanupPool(pool.getId());
+        routePlanCache.evict(pool.getId());
+        poolDispatchTimer.cancel(pool.getId());
         eventPublisher.publishNotification(RideEvent.poolDissolved(pool.getId()));
         log.info("Pool {} dissolved", pool.getId());
     }
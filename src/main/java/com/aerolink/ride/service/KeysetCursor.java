@@ -0,0 +1,82 @@
+package com.aerolink.ride.service;
+
+import com.aerolink.ride.dto.response.CursorPage;
+import com.aerolink.ride.exception.InvalidOperationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Position in a list ordered by {@code (created_at, id)}: the key of the
+ * last row of a page. The next page is the rows past it, which an index on
+ * {@code (created_at, id)} finds directly, however deep the page.
+ * <p>
+ * Clients get it as an opaque URL-safe token ({@link #encode}).
+ */
+public record KeysetCursor(LocalDateTime createdAt, UUID id) {
+
+    /** Largest page a client may ask for. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The cursor, or null for a null or blank token (first page)
+     * @throws InvalidOperationException if the token is not one {@link #encode}
+     *                                   produced
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidOperationException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidOperationException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Query limit for a page of {@code limit} rows: one extra row tells
+     * whether another page follows.
+     *
+     * @throws InvalidOperationException if {@code limit} is outside
+     *                                   1..{@value #MAX_PAGE_SIZE}
+     */
+    public static Pageable pageOf(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidOperationException("Page limit must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /**
+     * Map the rows fetched with {@link #pageOf} to a page, with the cursor of
+     * its last row if another page follows.
+     */
+    public static <E, T> CursorPage<T> toPage(List<E> rows, int limit, Function<E, KeysetCursor> key,
+            Function<E, T> mapper) {
+        boolean more = rows.size() > limit;
+        List<E> page = more ? rows.subList(0, limit) : rows;
+        String next = more ? key.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), next);
+    }
+}
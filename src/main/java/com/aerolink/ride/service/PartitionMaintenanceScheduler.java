@@ -0,0 +1,64 @@
+package com.aerolink.ride.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of ride_requests and pricing_records created
+ * ahead of time (see V6__partition_ride_requests.sql).
+ *
+ * <p>
+ * Runs at startup and then daily. Creating a partition is idempotent, so
+ * several instances running it at once is harmless (a lost race surfaces
+ * as a logged error and the next run is a no-op). Rows whose month has no
+ * partition land in the DEFAULT partition, which must stay empty for the
+ * month's partition to be created later, so the job creates
+ * {@code aerolink.partitioning.months-ahead} months in advance.
+ * </p>
+ *
+ * <p>
+ * Old months are removed by detaching their partitions
+ * ({@code ALTER TABLE ride_requests DETACH PARTITION ride_requests_p2026_01}),
+ * which is a catalog change, not a row-by-row DELETE.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceScheduler {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("ride_requests", "pricing_records");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${aerolink.partitioning.months-ahead}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        createFuturePartitions();
+    }
+
+    @Scheduled(cron = "${aerolink.partitioning.maintenance-cron}")
+    public void createFuturePartitions() {
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                Integer created = jdbcTemplate.queryForObject(
+                        "SELECT create_monthly_partitions(?, CURRENT_DATE, ?)", Integer.class, table, monthsAhead);
+                if (created != null && created > 0) {
+                    log.info("Created {} monthly partitions of {}", created, table);
+                }
+            } catch (Exception e) {
+                log.error("Partition maintenance of {} failed: {}", table, e.getMessage());
+            }
+        }
+    }
+}
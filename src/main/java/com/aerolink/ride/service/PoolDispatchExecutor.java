@@ -0,0 +1,242 @@
+package com.aerolink.ride.service;
+
+import com.aerolink.ride.entity.RidePool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the dispatch of a tick's ready pools concurrently, partitioned by
+ * pickup geo-cell.
+ *
+ * <h3>Partitioning:</h3>
+ * <p>
+ * Pools are bucketed into square cells of {@code aerolink.pooling.dispatch-cell-km}
+ * by their anchor pickup. Cells are dispatched in parallel; pools in the same
+ * cell stay sequential and in the given order, so neighbours compete for the
+ * same nearby cabs one after another instead of contending for the same rows.
+ * Pools in different cells may still reach for the same cab near a cell
+ * border; the single-statement cab claim skips a cab that is being claimed.
+ * </p>
+ * <p>
+ * The dispatch timer and the sweep call {@link #dispatchAll} independently,
+ * so their calls can overlap. A cell is dispatched under a per-cell lock, so
+ * overlapping calls never dispatch pools of the same cell at once. The locks
+ * are striped ({@value #CELL_LOCK_STRIPES} of them): two cells may share a
+ * stripe and then take turns, which costs parallelism but not correctness.
+ * </p>
+ *
+ * <h3>Connection budget:</h3>
+ * <p>
+ * Dispatch holds at most {@code aerolink.pooling.dispatch-connections}
+ * pooled connections at once: every dispatch-path transaction (claims, cab
+ * planning, each pool's dispatch) runs through {@link #withConnection} or
+ * {@link #runWithConnection}, which take a permit of that budget first. The
+ * budget must stay below Hikari's {@code maximum-pool-size}, so the rest of
+ * the pool is reserved for request handling however many timer firings,
+ * sweeps and workers overlap. The workers
+ * ({@code aerolink.pooling.dispatch-parallelism}) draw from the same budget,
+ * so there can be no more of them than permits. The permits are taken in
+ * front of the shared Hikari pool rather than from a second one, since
+ * dispatch runs through the same JPA repositories and transaction manager
+ * as everything else.
+ * </p>
+ *
+ * <p>
+ * Metrics: {@code aerolink.dispatch.tick.duration} (time to dispatch one
+ * tick's pools) and {@code aerolink.dispatch.backlog} (pools handed over but
+ * not yet dispatched).
+ * </p>
+ */
+@Slf4j
+@Component
+public class PoolDispatchExecutor {
+
+    /** Approximate length of one degree of latitude. */
+    private static final double KM_PER_DEGREE = 111.32;
+
+    /** Number of locks the cells are serialized on. */
+    private static final int CELL_LOCK_STRIPES = 64;
+
+    private final double cellDegrees;
+    private final ExecutorService workers;
+    private final Semaphore connectionBudget;
+    private final Lock[] cellLocks = new Lock[CELL_LOCK_STRIPES];
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Timer tickTimer;
+
+    public PoolDispatchExecutor(
+            @Value("${aerolink.pooling.dispatch-parallelism}") int parallelism,
+            @Value("${aerolink.pooling.dispatch-connections}") int connections,
+            @Value("${aerolink.pooling.dispatch-cell-km}") double cellKm,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize,
+            MeterRegistry meterRegistry) {
+        if (connections < 1 || connections >= maxPoolSize) {
+            throw new IllegalArgumentException("Dispatch connections must be between 1 and "
+                    + (maxPoolSize - 1) + " (Hikari maximum-pool-size " + maxPoolSize + "): " + connections);
+        }
+        if (parallelism < 1 || parallelism > connections) {
+            throw new IllegalArgumentException("Dispatch parallelism must be between 1 and "
+                    + connections + " (dispatch connections): " + parallelism);
+        }
+        this.connectionBudget = new Semaphore(connections, true);
+        if (cellKm <= 0) {
+            throw new IllegalArgumentException("Dispatch cell size must be positive: " + cellKm);
+        }
+        this.cellDegrees = cellKm / KM_PER_DEGREE;
+        for (int i = 0; i < CELL_LOCK_STRIPES; i++) {
+            cellLocks[i] = new ReentrantLock();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "pool-dispatch-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tickTimer = Timer.builder("aerolink.dispatch.tick.duration")
+                .description("Time to dispatch the pools ready in one tick")
+                .register(meterRegistry);
+        Gauge.builder("aerolink.dispatch.backlog", backlog, AtomicInteger::get)
+                .description("Ready pools waiting to be dispatched")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Dispatch the pools, one geo-cell per worker, and wait until all are
+     * done. A cell that an overlapping call is still dispatching is waited
+     * for. {@code dispatcher} handles its own failures; an exception it lets
+     * through is logged and does not stop the rest of the cell.
+     */
+    public void dispatchAll(List<RidePool> pools, Consumer<RidePool> dispatcher) {
+        if (pools.isEmpty()) {
+            return;
+        }
+        backlog.addAndGet(pools.size());
+        tickTimer.record(() -> {
+            Map<Long, List<RidePool>> cells = partition(pools);
+            List<Callable<Void>> tasks = new ArrayList<>(cells.size());
+            for (Map.Entry<Long, List<RidePool>> cell : cells.entrySet()) {
+                tasks.add(() -> {
+                    runCell(cell.getKey(), cell.getValue(), dispatcher);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> done : workers.invokeAll(tasks)) {
+                    done.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while dispatching {} pools", pools.size());
+            } catch (ExecutionException e) {
+                log.error("Dispatch worker failed: {}", e.getCause().getMessage(), e.getCause());
+            }
+            log.debug("Dispatched {} pools in {} cells", pools.size(), cells.size());
+        });
+    }
+
+    /**
+     * Run one dispatch-path transaction within the connection budget,
+     * waiting for a permit if the budget is in use. Must not be nested: the
+     * work may not itself take a permit.
+     *
+     * @return What {@code work} returned
+     */
+    public <T> T withConnection(Supplier<T> work) {
+        try {
+            connectionBudget.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a dispatch connection", e);
+        }
+        try {
+            return work.get();
+        } finally {
+            connectionBudget.release();
+        }
+    }
+
+    /**
+     * {@link #withConnection} for work without a result.
+     */
+    public void runWithConnection(Runnable work) {
+        withConnection(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Group pools by pickup cell, keeping their order within each cell.
+     */
+    Map<Long, List<RidePool>> partition(List<RidePool> pools) {
+        Map<Long, List<RidePool>> cells = new LinkedHashMap<>();
+        for (RidePool pool : pools) {
+            cells.computeIfAbsent(cellOf(pool.getPickupLat(), pool.getPickupLng()), k -> new ArrayList<>())
+                    .add(pool);
+        }
+        return cells;
+    }
+
+    /**
+     * Cell key: row and column of the cell containing the point, packed into
+     * one long. Columns use the latitude spacing too, so cells narrow towards
+     * the poles; at city scale that is irrelevant.
+     */
+    long cellOf(double lat, double lng) {
+        long row = (long) Math.floor(lat / cellDegrees);
+        long col = (long) Math.floor(lng / cellDegrees);
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    private void runCell(long cellKey, List<RidePool> cell, Consumer<RidePool> dispatcher) {
+        Lock lock = cellLocks[Math.floorMod(Long.hashCode(cellKey), CELL_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            for (RidePool pool : cell) {
+                try {
+                    dispatcher.accept(pool);
+                } catch (Exception e) {
+                    log.error("Failed to dispatch pool {}: {}", pool.getId(), e.getMessage(), e);
+                } finally {
+                    backlog.decrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getBacklog() {
+        return backlog.get();
+    }
+
+    int getAvailableConnections() {
+        return connectionBudget.availablePermits();
+    }
+}
@@ -1,5 +1,6 @@
 package com.aerolink.ride.service;
 
+import com.aerolink.ride.algorithm.CabDispatchMatcher;
 import com.aerolink.ride.entity.Cab;
 import com.aerolink.ride.entity.RidePool;
 import com.aerolink.ride.entity.RideRequest;
@@ -16,18 +17,38 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.transaction.support.TransactionTemplate;
 
 /**
- * Scheduler that runs every 5 seconds to dispatch pools that are ready.
+ * Dispatches pools that are ready.
  * A pool is ready when: it's full (4 riders) or its 60s window has expired.
  *
+ * Pools are dispatched by the {@link PoolDispatchTimer} the moment their
+ * window expires (or they fill up). The database poll every
+ * {@code dispatch-interval-ms} is only a safety sweep for pools the timer
+ * missed, e.g. created by another instance or before a restart.
+ *
+ * Both paths first claim their pools ({@code FOR UPDATE SKIP LOCKED} plus a
+ * {@code claimed_at} lease), so several instances dispatch disjoint sets of
+ * pools instead of queueing on the same row locks. Within an instance the
+ * claimed pools are dispatched in parallel, one geo-cell per worker
+ * ({@link PoolDispatchExecutor}).
+ *
  * Dispatch process:
- * 1. Find nearest AVAILABLE cab
+ * 1. Plan cabs for all ready pools together (minimum total pickup distance),
+ *    falling back to the nearest AVAILABLE cab if the planned one is gone
  * 2. Assign cab to pool
  * 3. Calculate final fares for all riders based on actual pool size
  * 4. Update statuses to CONFIRMED
@@ -44,61 +65,98 @@ public class PoolDispatchScheduler {
     private final PricingService pricingService;
     private final SseService sseService;
     private final TransactionTemplate transactionTemplate;
+    private final RoutePlanCache routePlanCache;
+    private final PoolDispatchTimer poolDispatchTimer;
+    private final PoolDispatchExecutor poolDispatchExecutor;
+    private final EntityManager entityManager;
+
+    /** Cabs up to this many search radii away are tried when none is closer. */
+    private static final int FALLBACK_RADIUS_FACTOR = 3;
 
     @Value("${aerolink.pooling.search-radius-km}")
     private double searchRadiusKm;
 
+    @Value("${aerolink.pooling.dispatch-claim-batch-size}")
+    private int claimBatchSize;
+
+    @Value("${aerolink.pooling.dispatch-claim-lease-seconds}")
+    private long claimLeaseSeconds;
+
     private volatile boolean cleanupDone = false;
 
+    @PostConstruct
+    public void registerWithTimer() {
+        poolDispatchTimer.setExpiryHandler(this::dispatchPools);
+    }
+
     /**
      * On startup, clean up any stale FORMING/DISPATCHING pools left over
      * from previous crashed sessions. This prevents the scheduler from
      * repeatedly failing on broken data.
+     *
+     * Each transition is one set-based UPDATE, so the cost doesn't grow with
+     * a statement per stale pool, rider and cab after a crash.
      */
     @EventListener(ApplicationReadyEvent.class)
     public void cleanupStalePools() {
         try {
             transactionTemplate.executeWithoutResult(status -> {
-                List<RidePool> stalePools = ridePoolRepository.findStaleFormingOrDispatchingPools();
-                if (stalePools.isEmpty()) {
+                // Riders and cabs are found through the stale pools, so they go first
+                int cancelledRiders = rideRequestRepository.cancelActiveRequestsInStalePools();
+                int releasedCabs = cabRepository.releaseCabsOfStalePools();
+                int stalePools = ridePoolRepository.dissolveStaleFormingOrDispatchingPools();
+                if (stalePools == 0) {
                     log.info("Startup cleanup: no stale pools found");
-                    return;
+                } else {
+                    log.warn("Startup cleanup: dissolved {} stale FORMING/DISPATCHING pools "
+                            + "({} riders cancelled, {} cabs released)", stalePools, cancelledRiders, releasedCabs);
                 }
 
-                log.warn("Startup cleanup: found {} stale FORMING/DISPATCHING pools, dissolving...", stalePools.size());
-                for (RidePool pool : stalePools) {
-                    List<RideRequest> riders = rideRequestRepository.findActiveRequestsByPoolId(pool.getId());
-                    for (RideRequest rider : riders) {
-                        rider.setStatus(RideStatus.CANCELLED);
-                        rideRequestRepository.save(rider);
-                    }
-
-                    if (pool.getCab() != null) {
-                        pool.getCab().setStatus(CabStatus.AVAILABLE);
-                        cabRepository.save(pool.getCab());
-                    }
-
-                    pool.setStatus(PoolStatus.DISSOLVED);
-                    ridePoolRepository.save(pool);
-                    log.info("Dissolved stale pool {} ({} riders cancelled)", pool.getId(), riders.size());
-                }
-
-                List<Cab> assignedCabs = cabRepository.findByStatus(CabStatus.ASSIGNED);
-                for (Cab cab : assignedCabs) {
-                    List<RidePool> activePools = ridePoolRepository.findActivePoolsByCabId(cab.getId());
-                    if (activePools.isEmpty()) {
-                        cab.setStatus(CabStatus.AVAILABLE);
-                        cabRepository.save(cab);
-                        log.info("Released orphaned ASSIGNED cab: {} ({})", cab.getDriverName(), cab.getLicensePlate());
-                    }
+                int orphanedCabs = cabRepository.releaseOrphanedAssignedCabs();
+                if (orphanedCabs > 0) {
+                    log.info("Released {} orphaned ASSIGNED cabs", orphanedCabs);
                 }
             });
+            // The bulk updates don't say which pools they dissolved
+            routePlanCache.evictAll();
         } catch (Exception e) {
             log.error("Startup cleanup failed (non-fatal): {}", e.getMessage());
         } finally {
             cleanupDone = true;
             log.info("Startup cleanup complete — scheduler now active");
         }
+        // The daily run may have been missed while no instance was up
+        expireRidesPastHorizon();
+    }
+
+    /**
+     * Cancel rides still active a day before they would pass
+     * {@link RideRequestRepository#ACTIVE_HORIZON}, and dissolve their pools.
+     * Active-ride lookups only look that far back, so a ride stuck active
+     * (e.g. a trip never completed by its driver) must end before it falls
+     * out of sight.
+     */
+    @Scheduled(cron = "${aerolink.pooling.ride-expiry-cron}")
+    public void expireRidesPastHorizon() {
+        LocalDateTime cutoff = LocalDateTime.now()
+                .minus(RideRequestRepository.ACTIVE_HORIZON)
+                .plusDays(1);
+        // Members are created at most POOL_MEMBER_SLACK before their pool, so these pools have none left
+        LocalDateTime poolCutoff = cutoff.minus(RideRequestRepository.POOL_MEMBER_SLACK);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int expiredRides = rideRequestRepository.cancelActiveRequestsCreatedBefore(cutoff);
+                int releasedCabs = cabRepository.releaseCabsOfActivePoolsCreatedBefore(poolCutoff);
+                int expiredPools = ridePoolRepository.dissolveActivePoolsCreatedBefore(poolCutoff);
+                if (expiredRides > 0 || expiredPools > 0) {
+                    log.warn("Ride expiry: cancelled {} rides created before {}, dissolved {} pools "
+                            + "({} cabs released)", expiredRides, cutoff, expiredPools, releasedCabs);
+                }
+            });
+            routePlanCache.evictAll();
+        } catch (Exception e) {
+            log.error("Ride expiry failed (non-fatal): {}", e.getMessage());
+        }
     }
 
     @Scheduled(fixedRateString = "${aerolink.pooling.dispatch-interval-ms}")
@@ -107,39 +165,132 @@ public class PoolDispatchScheduler {
             return; // Skip until startup cleanup has finished
         }
 
-        // Wrap the read query in a transaction (LEFT JOIN FETCH needs it)
-        List<RidePool> readyPools = transactionTemplate
-                .execute(status -> ridePoolRepository.findPoolsReadyForDispatch(LocalDateTime.now()));
+        int claimed;
+        do {
+            claimed = claimAndDispatchReadyPools();
+        } while (claimed == claimBatchSize);
+    }
+
+    /**
+     * Claim one batch of ready pools no other instance holds, and dispatch
+     * them.
+     *
+     * @return Number of pools claimed (less than the batch size once the
+     *         backlog is drained)
+     */
+    public int claimAndDispatchReadyPools() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> claimed = poolDispatchExecutor.withConnection(() -> transactionTemplate.execute(
+                status -> ridePoolRepository.claimReadyPools(now, now.minusSeconds(claimLeaseSeconds),
+                        claimBatchSize)));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        log.info("Dispatch sweep: claimed {} pools ready for dispatch", claimed.size());
+        dispatch(loadPools(claimed));
+        return claimed.size();
+    }
 
-        if (readyPools == null || readyPools.isEmpty()) {
+    /**
+     * Dispatch pools fired by the {@link PoolDispatchTimer}. Pools that were
+     * dispatched, dissolved or claimed elsewhere meanwhile are skipped;
+     * {@link #dispatchPool} re-arms the timer for any whose window was
+     * extended.
+     */
+    public void dispatchPools(List<UUID> poolIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> claimed = poolDispatchExecutor.withConnection(() -> transactionTemplate.execute(
+                status -> ridePoolRepository.claimPools(poolIds, now, now.minusSeconds(claimLeaseSeconds))));
+        if (claimed == null || claimed.isEmpty()) {
             return;
         }
+        log.info("Dispatch timer: {} pools due", claimed.size());
+        dispatch(loadPools(claimed));
+    }
 
-        log.info("Dispatch scheduler: found {} pools ready for dispatch", readyPools.size());
+    private List<RidePool> loadPools(List<UUID> poolIds) {
+        List<RidePool> pools = poolDispatchExecutor.withConnection(
+                () -> transactionTemplate.execute(status -> ridePoolRepository.findAllById(poolIds)));
+        return pools != null ? pools : List.of();
+    }
+
+    private void dispatch(List<RidePool> readyPools) {
+        Map<UUID, UUID> plannedCabs = planCabs(readyPools);
+
+        // Pools with a planned cab go first in their cell, so the nearest-cab fallback of the others can't take it
+        List<RidePool> ordered = new ArrayList<>(readyPools);
+        ordered.sort(Comparator.comparing((RidePool pool) -> !plannedCabs.containsKey(pool.getId())));
+
+        poolDispatchExecutor.dispatchAll(ordered,
+                pool -> dispatchPool(pool.getId(), plannedCabs.get(pool.getId())));
+    }
 
-        for (RidePool pool : readyPools) {
-            try {
-                dispatchPool(pool.getId());
-            } catch (Exception e) {
-                log.error("Failed to dispatch pool {}: {}", pool.getId(), e.getMessage(), e);
+    /**
+     * Choose a cab for each ready pool so the total pickup distance over the
+     * tick is minimal, rather than letting each pool in turn take its nearest
+     * cab. Cabs are only read here; {@link #dispatchPool} claims them.
+     *
+     * @return Planned cab ID per pool ID (pools without one are absent)
+     */
+    private Map<UUID, UUID> planCabs(List<RidePool> readyPools) {
+        double maxPickupKm = searchRadiusKm * FALLBACK_RADIUS_FACTOR;
+        List<Cab> cabs = poolDispatchExecutor.withConnection(() -> transactionTemplate.execute(status -> {
+            Map<UUID, Cab> nearby = new LinkedHashMap<>();
+            for (RidePool pool : readyPools) {
+                cabRepository.findAvailableCabsNear(pool.getPickupLat(), pool.getPickupLng(), maxPickupKm,
+                        CabStatus.AVAILABLE).forEach(cab -> nearby.putIfAbsent(cab.getId(), cab));
             }
+            return new ArrayList<>(nearby.values());
+        }));
+        if (cabs == null || cabs.isEmpty()) {
+            return Map.of();
         }
+
+        Cab[] assigned = CabDispatchMatcher.assign(readyPools, cabs, maxPickupKm);
+        Map<UUID, UUID> plannedCabs = new HashMap<>();
+        for (int i = 0; i < assigned.length; i++) {
+            if (assigned[i] != null) {
+                plannedCabs.put(readyPools.get(i).getId(), assigned[i].getId());
+            }
+        }
+        log.debug("Planned cabs for {}/{} ready pools from {} available cabs", plannedCabs.size(),
+                readyPools.size(), cabs.size());
+        return plannedCabs;
+    }
+
+    /**
+     * Dispatch a single pool to its nearest available cab.
+     */
+    public void dispatchPool(UUID poolId) {
+        dispatchPool(poolId, null);
     }
 
     /**
      * Dispatch a single pool.
      * Uses TransactionTemplate instead of @Transactional because this method
      * is called from within the same class (self-invocation), which bypasses
-     * Spring's AOP proxy and ignores @Transactional annotations.
+     * Spring's AOP proxy and ignores @Transactional annotations. The
+     * transaction counts against the dispatch connection budget.
+     *
+     * @param plannedCabId Cab chosen by {@link #planCabs}, tried first; null
+     *                     to take the nearest available cab
      */
-    public void dispatchPool(java.util.UUID poolId) {
-        transactionTemplate.executeWithoutResult(status -> {
+    public void dispatchPool(UUID poolId, UUID plannedCabId) {
+        poolDispatchExecutor.runWithConnection(() -> transactionTemplate.executeWithoutResult(status -> {
             // 1. Acquire pessimistic lock on pool
             RidePool pool = ridePoolRepository.findByIdWithLock(poolId).orElse(null);
             if (pool == null || pool.getStatus() != PoolStatus.FORMING) {
                 log.debug("Pool {} already dispatched or not found, skipping", poolId);
                 return;
             }
+            if (!pool.isFull() && pool.getWindowExpiresAt().isAfter(LocalDateTime.now())) {
+                // Timer fired early against the wall clock, or the window was extended
+                ridePoolRepository.releaseClaim(poolId);
+                poolDispatchTimer.schedule(poolId, pool.getWindowExpiresAt());
+                log.debug("Pool {} not ready until {}, re-armed", poolId, pool.getWindowExpiresAt());
+                return;
+            }
 
             // 2. Get active riders
             List<RideRequest> activeRiders = rideRequestRepository.findActiveRequestsByPoolId(poolId);
@@ -148,6 +299,8 @@ public class PoolDispatchScheduler {
                 pool.setStatus(PoolStatus.DISSOLVED);
                 ridePoolRepository.save(pool);
                 sseService.cleanupPool(poolId);
+                routePlanCache.evict(poolId);
+                poolDispatchTimer.cancel(poolId);
                 log.info("Pool {} dissolved — no active riders at dispatch time", poolId);
                 return;
             }
@@ -158,45 +311,22 @@ public class PoolDispatchScheduler {
             log.info("Dispatching pool {} with {} bookings, {} total passengers", poolId, activeRiders.size(),
                     totalPassengers);
 
+            // Members don't change from here on: keep the planned route for the driver
+            routePlanCache.retain(pool);
+
             // 3. Set pool to DISPATCHING to prevent new joins
             pool.setStatus(PoolStatus.DISPATCHING);
             ridePoolRepository.save(pool);
 
-            // 4. Find nearest AVAILABLE cab
-            List<Cab> availableCabs = cabRepository.findAvailableCabsNear(
-                    pool.getPickupLat(), pool.getPickupLng(), searchRadiusKm, CabStatus.AVAILABLE);
-
-            Cab assignedCab = null;
-            for (Cab candidate : availableCabs) {
-                try {
-                    Cab cab = cabRepository.findByIdWithLock(candidate.getId()).orElse(null);
-                    if (cab != null && cab.getStatus() == CabStatus.AVAILABLE) {
-                        cab.setStatus(CabStatus.ASSIGNED);
-                        assignedCab = cabRepository.save(cab);
-                        break;
-                    }
-                } catch (Exception e) {
-                    log.debug("Cab {} already taken, trying next", candidate.getId());
-                }
+            // 4. Claim the planned cab, else the nearest AVAILABLE one (one statement each)
+            Cab assignedCab = plannedCabId != null ? claimCab(plannedCabId) : null;
+            if (assignedCab == null && plannedCabId != null) {
+                log.debug("Planned cab {} for pool {} already taken, searching nearest", plannedCabId, poolId);
             }
 
             if (assignedCab == null) {
-                // No cabs available — expand search radius
-                availableCabs = cabRepository.findAvailableCabsNear(
-                        pool.getPickupLat(), pool.getPickupLng(), searchRadiusKm * 3, CabStatus.AVAILABLE);
-
-                for (Cab candidate : availableCabs) {
-                    try {
-                        Cab cab = cabRepository.findByIdWithLock(candidate.getId()).orElse(null);
-                        if (cab != null && cab.getStatus() == CabStatus.AVAILABLE) {
-                            cab.setStatus(CabStatus.ASSIGNED);
-                            assignedCab = cabRepository.save(cab);
-                            break;
-                        }
-                    } catch (Exception e) {
-                        log.debug("Cab {} already taken, trying next", candidate.getId());
-                    }
-                }
+                // Covers the base radius and the expanded fallback ring in the same call
+                assignedCab = claimNearestCab(pool, searchRadiusKm * FALLBACK_RADIUS_FACTOR);
             }
 
             if (assignedCab == null) {
@@ -204,6 +334,8 @@ public class PoolDispatchScheduler {
                 pool.setStatus(PoolStatus.FORMING);
                 pool.setWindowExpiresAt(LocalDateTime.now().plusSeconds(10)); // retry in 10s
                 ridePoolRepository.save(pool);
+                ridePoolRepository.releaseClaim(poolId);
+                poolDispatchTimer.schedule(poolId, pool.getWindowExpiresAt());
                 log.warn("No cabs available for pool {}. Will retry.", poolId);
 
                 sseService.emitToPool(poolId, "POOL_WAITING",
@@ -251,6 +383,34 @@ public class PoolDispatchScheduler {
                             "riders", activeRiders.size(),
                             "pickupLat", pool.getPickupLat(),
                             "pickupLng", pool.getPickupLng()));
-        });
+        }));
+    }
+
+    private Cab claimNearestCab(RidePool pool, double maxRadiusKm) {
+        return cabRepository.claimNearestAvailable(pool.getPickupLat(), pool.getPickupLng(), maxRadiusKm,
+                pool.getTotalOccupiedSeats(), pool.getTotalLuggage())
+                .map(this::loadClaimedCab)
+                .orElse(null);
+    }
+
+    /**
+     * Mark the cab ASSIGNED if it is still AVAILABLE and not being claimed
+     * by another dispatch.
+     *
+     * @return The claimed cab, or null if it was taken
+     */
+    private Cab claimCab(UUID cabId) {
+        return cabRepository.claimIfAvailable(cabId).map(this::loadClaimedCab).orElse(null);
+    }
+
+    /**
+     * Load a cab a claim has just marked ASSIGNED. The claim is a native
+     * statement, so a copy of the cab already in the persistence context
+     * still holds its pre-claim state; refreshing it reads the row back.
+     */
+    private Cab loadClaimedCab(UUID cabId) {
+        Cab cab = entityManager.find(Cab.class, cabId);
+        entityManager.refresh(cab);
+        return cab;
     }
 }
@@ -0,0 +1,235 @@
+package com.aerolink.ride.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Fires pool dispatch when a pool's window expires, instead of waiting for
+ * the next database poll.
+ *
+ * <h3>Hashed timing wheel:</h3>
+ * <p>
+ * Time is cut into ticks of {@code aerolink.pooling.dispatch-tick-ms}; a pool
+ * due at tick {@code t} sits in bucket {@code t mod }{@value #WHEEL_SIZE}.
+ * Every tick the worker thread visits one bucket and fires the pools whose
+ * tick has come; pools due in a later rotation stay put. Scheduling and
+ * cancelling are O(1), and an idle wheel costs one wake-up per tick and no
+ * queries. Callers never touch the buckets: they queue their changes, which
+ * the worker applies at the start of each tick.
+ * </p>
+ *
+ * <p>
+ * Pools expiring in the same tick are handed to the expiry handler together
+ * (so they share one cab assignment), on a separate dispatch thread so a
+ * slow dispatch never delays the wheel. Nothing here is persistent: the
+ * scheduler's database sweep still catches pools this instance never saw
+ * or lost on restart.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PoolDispatchTimer {
+
+    /** Buckets per rotation (a power of two); 512 × 100 ms ≈ 51 s per rotation. */
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    /** Queued change: fire {@code poolId} at {@code deadlineNanos}, or cancel it if null. */
+    private record Change(UUID poolId, Long deadlineNanos) {
+    }
+
+    private final long tickNanos;
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor(
+            r -> newThread(r, "pool-dispatch"));
+
+    // Worker-thread state
+    @SuppressWarnings("unchecked")
+    private final Set<UUID>[] buckets = new Set[WHEEL_SIZE];
+    private final Map<UUID, Long> deadlineTicks = new HashMap<>();
+    private long startNanos;
+    private long tick;
+
+    private volatile Consumer<List<UUID>> expiryHandler = ids -> {
+    };
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public PoolDispatchTimer(@Value("${aerolink.pooling.dispatch-tick-ms}") long tickMs) {
+        if (tickMs < 1) {
+            throw new IllegalArgumentException("Dispatch tick must be at least 1 ms: " + tickMs);
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new LinkedHashSet<>();
+        }
+    }
+
+    /**
+     * Set the callback run (on the dispatch thread) with the pools due in a
+     * tick, or with a single pool passed to {@link #dispatchNow}.
+     */
+    public void setExpiryHandler(Consumer<List<UUID>> handler) {
+        this.expiryHandler = handler;
+    }
+
+    @PostConstruct
+    public void start() {
+        startNanos = System.nanoTime();
+        running = true;
+        worker = newThread(this::run, "pool-dispatch-timer");
+        worker.start();
+        log.info("Pool dispatch timer started ({} ms ticks, {} buckets)",
+                TimeUnit.NANOSECONDS.toMillis(tickNanos), WHEEL_SIZE);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread current = worker;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+        dispatchExecutor.shutdownNow();
+    }
+
+    /**
+     * Fire the pool at {@code expiresAt} (at the next tick if that has
+     * passed), replacing any earlier deadline. Takes effect when the current
+     * transaction commits.
+     */
+    public void schedule(UUID poolId, LocalDateTime expiresAt) {
+        long delayNanos = Math.max(0L, Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+        afterCommit(() -> changes.add(new Change(poolId, System.nanoTime() + delayNanos)));
+    }
+
+    /**
+     * Stop tracking a pool. Firing a pool that was dispatched or dissolved
+     * meanwhile is harmless, so this only saves the wake-up.
+     */
+    public void cancel(UUID poolId) {
+        afterCommit(() -> changes.add(new Change(poolId, null)));
+    }
+
+    /**
+     * Dispatch a pool right away (e.g. it just filled up), once the current
+     * transaction commits.
+     */
+    public void dispatchNow(UUID poolId) {
+        afterCommit(() -> {
+            changes.add(new Change(poolId, null));
+            submit(List.of(poolId));
+        });
+    }
+
+    private void run() {
+        while (running) {
+            long nextTickNanos = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = nextTickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            tick++;
+            try {
+                applyChanges();
+                List<UUID> due = expire(buckets[(int) (tick & MASK)]);
+                if (!due.isEmpty()) {
+                    submit(due);
+                }
+            } catch (Exception e) {
+                log.error("Pool dispatch timer tick {} failed: {}", tick, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void applyChanges() {
+        Change change;
+        while ((change = changes.poll()) != null) {
+            if (change.deadlineNanos() == null) {
+                deadlineTicks.remove(change.poolId());
+                continue;
+            }
+            // Round up so a pool never fires before its deadline; never schedule into the past
+            long due = Math.max(tick,
+                    Math.floorDiv(change.deadlineNanos() - startNanos + tickNanos - 1, tickNanos));
+            deadlineTicks.put(change.poolId(), due);
+            buckets[(int) (due & MASK)].add(change.poolId());
+        }
+    }
+
+    /**
+     * Remove and return the bucket's pools that are due by the current tick.
+     * Entries left behind by a cancel or a reschedule to another bucket are
+     * dropped on the way.
+     */
+    private List<UUID> expire(Set<UUID> bucket) {
+        List<UUID> due = new ArrayList<>();
+        for (Iterator<UUID> it = bucket.iterator(); it.hasNext();) {
+            UUID poolId = it.next();
+            Long deadline = deadlineTicks.get(poolId);
+            if (deadline == null || (deadline & MASK) != (tick & MASK)) {
+                it.remove();
+            } else if (deadline <= tick) {
+                it.remove();
+                deadlineTicks.remove(poolId);
+                due.add(poolId);
+            }
+        }
+        return due;
+    }
+
+    private void submit(List<UUID> poolIds) {
+        if (!running) {
+            return;
+        }
+        dispatchExecutor.execute(() -> {
+            try {
+                expiryHandler.accept(poolIds);
+            } catch (Exception e) {
+                log.error("Timed dispatch of {} pools failed: {}", poolIds.size(), e.getMessage(), e);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Thread newThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
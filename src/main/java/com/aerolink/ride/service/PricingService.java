@@ -120,9 +120,8 @@ public class PricingService {
          */
         @Transactional
         public PricingRecord calculateAndPersist(RideRequest rideRequest, int poolSize) {
-                double distanceKm = DistanceCalculator.calculateKm(
-                                rideRequest.getPickupLat(), rideRequest.getPickupLng(),
-                                rideRequest.getDropLat(), rideRequest.getDropLng());
+                // Stored at booking: no trig per rider at dispatch or on cancellation repricing
+                double distanceKm = DistanceCalculator.directKm(rideRequest);
 
                 long activeRequests = rideRequestRepository.countActiveRequestsSince(
                                 List.of(RideStatus.PENDING, RideStatus.POOLED, RideStatus.CONFIRMED),
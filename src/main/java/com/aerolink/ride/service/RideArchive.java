@@ -0,0 +1,283 @@
+package com.aerolink.ride.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only store of archived rides: gzip-compressed NDJSON segment files
+ * in {@code aerolink.archive.directory}.
+ *
+ * <h3>Layout:</h3>
+ * <p>
+ * Each {@link #append} writes one new segment
+ * {@code segment-<millis>-<instance>-<n>.ndjson.gz} and never touches it
+ * again; {@code <instance>} is random per process, so instances writing to
+ * the same directory never pick the same name. A line is either
+ * {@code {"type":"ride","ride":{…},"pricing":{…}}} or
+ * {@code {"type":"pool","pool":{…}}}, holding the table rows column by
+ * column (timestamps as ISO strings). Next to it, {@code <segment>.idx}
+ * lists the passenger ids the segment contains, so a history lookup only
+ * decompresses the segments of that passenger.
+ * </p>
+ *
+ * <p>
+ * Both files are written under a temporary name, forced to disk and then
+ * renamed, so a crash leaves no partial segment. A batch whose database
+ * delete fails after its segment was written is archived again by the next
+ * run; lookups drop such duplicates by ride id.
+ * </p>
+ *
+ * <h3>Several instances:</h3>
+ * <p>
+ * The directory must be storage every instance mounts (e.g. a network
+ * volume). Each lookup first reads the {@code .idx} files it has not seen
+ * yet, so segments another instance archived show up at the next lookup;
+ * that costs one directory listing per lookup. With a directory per host,
+ * each instance would only find the rides it archived itself.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RideArchive {
+
+    private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> LINE = new TypeReference<>() {
+    };
+
+    /** Newest first, the order of the database ride lists. */
+    private static final Comparator<KeysetCursor> NEWEST_FIRST = Comparator.comparing(KeysetCursor::createdAt)
+            .thenComparing(KeysetCursor::id)
+            .reversed();
+
+    /** A ride_requests row and its pricing_records row (null if never priced). */
+    public record ArchivedRide(Map<String, Object> ride, Map<String, Object> pricing) {
+    }
+
+    private final Path directory;
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Passenger id → segments holding their rides, from the index files read so far. */
+    private final Map<UUID, List<Path>> passengerIndex = new HashMap<>();
+
+    /** Index files already in {@link #passengerIndex}. */
+    private final Set<Path> indexFilesRead = new HashSet<>();
+
+    public RideArchive(@Value("${aerolink.archive.directory}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Write the rides and pools as one new segment.
+     *
+     * @return The segment written, or null if there was nothing to write
+     */
+    public synchronized Path append(List<ArchivedRide> rides, List<Map<String, Object>> pools) throws IOException {
+        if (rides.isEmpty() && pools.isEmpty()) {
+            return null;
+        }
+        Files.createDirectories(directory);
+        String name = "segment-" + System.currentTimeMillis() + "-" + instance + "-" + sequence.incrementAndGet();
+        Path segment = directory.resolve(name + SEGMENT_SUFFIX);
+        Path index = directory.resolve(name + INDEX_SUFFIX);
+
+        Set<UUID> passengers = new LinkedHashSet<>();
+        writeAtomically(segment, out -> {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(out), StandardCharsets.UTF_8))) {
+                for (ArchivedRide archived : rides) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("type", "ride");
+                    line.put("ride", toJsonValues(archived.ride()));
+                    line.put("pricing", archived.pricing() != null ? toJsonValues(archived.pricing()) : null);
+                    writer.write(JSON.writeValueAsString(line));
+                    writer.newLine();
+                    passengers.add(UUID.fromString(String.valueOf(archived.ride().get("passenger_id"))));
+                }
+                for (Map<String, Object> pool : pools) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("type", "pool");
+                    line.put("pool", toJsonValues(pool));
+                    writer.write(JSON.writeValueAsString(line));
+                    writer.newLine();
+                }
+            }
+        });
+        writeAtomically(index, out -> {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                for (UUID passengerId : passengers) {
+                    writer.write(passengerId.toString());
+                    writer.newLine();
+                }
+            }
+        });
+
+        passengers.forEach(id -> passengerIndex.computeIfAbsent(id, k -> new ArrayList<>()).add(segment));
+        indexFilesRead.add(index);
+        log.info("Archived {} rides and {} pools to {}", rides.size(), pools.size(), segment.getFileName());
+        return segment;
+    }
+
+    /**
+     * Archived ride_requests rows of a passenger, newest first by
+     * {@code (created_at, id)}: at most {@code maxRows} of them, starting
+     * after {@code after}. The passenger's segments are still all read, but
+     * only one page of rows is held.
+     *
+     * @param after Key of the last row of the previous page, or null for the
+     *              newest rides
+     */
+    public synchronized List<Map<String, Object>> findRidesByPassenger(UUID passengerId, KeysetCursor after,
+            int maxRows) {
+        refreshIndex();
+        List<Path> segments = passengerIndex.getOrDefault(passengerId, List.of());
+        TreeMap<KeysetCursor, Map<String, Object>> rides = new TreeMap<>(NEWEST_FIRST);
+        String passenger = passengerId.toString();
+        for (Path segment : segments) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+                String text;
+                while ((text = reader.readLine()) != null) {
+                    Map<String, Object> line = JSON.readValue(text, LINE);
+                    if (!"ride".equals(line.get("type"))) {
+                        continue;
+                    }
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> ride = (Map<String, Object>) line.get("ride");
+                    if (!passenger.equals(ride.get("passenger_id"))) {
+                        continue;
+                    }
+                    KeysetCursor key = keyOf(ride);
+                    if (after != null && NEWEST_FIRST.compare(key, after) <= 0) {
+                        continue;
+                    }
+                    // Same key, same ride: a re-archived duplicate
+                    rides.putIfAbsent(key, ride);
+                    if (rides.size() > maxRows) {
+                        rides.pollLastEntry();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read archive segment " + segment, e);
+            }
+        }
+        return new ArrayList<>(rides.values());
+    }
+
+    /**
+     * Position of an archived ride in {@link #findRidesByPassenger} order.
+     */
+    public static KeysetCursor keyOf(Map<String, Object> ride) {
+        return new KeysetCursor(LocalDateTime.parse(String.valueOf(ride.get("created_at"))),
+                UUID.fromString(String.valueOf(ride.get("id"))));
+    }
+
+    /**
+     * Read the index files not read yet: all of them on first use, then the
+     * segments other instances have written since.
+     */
+    private void refreshIndex() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(directory, "*" + INDEX_SUFFIX)) {
+            for (Path index : indexes) {
+                if (indexFilesRead.contains(index)) {
+                    continue;
+                }
+                String name = index.getFileName().toString();
+                Path segment = index.resolveSibling(
+                        name.substring(0, name.length() - INDEX_SUFFIX.length()) + SEGMENT_SUFFIX);
+                for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        passengerIndex.computeIfAbsent(UUID.fromString(line.trim()), k -> new ArrayList<>())
+                                .add(segment);
+                    }
+                }
+                indexFilesRead.add(index);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load archive index from " + directory, e);
+        }
+    }
+
+    /** Timestamps as ISO-8601 local date-times, UUIDs as strings; the rest as-is. */
+    private static Map<String, Object> toJsonValues(Map<String, Object> row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        row.forEach((column, value) -> {
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime().toString();
+            } else if (value instanceof LocalDateTime dateTime) {
+                value = dateTime.toString();
+            } else if (value instanceof UUID uuid) {
+                value = uuid.toString();
+            }
+            values.put(column, value);
+        });
+        return values;
+    }
+
+    private interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static void writeAtomically(Path target, Writer writer) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            // The writer closes its stream; keep the channel open until it is forced
+            writer.write(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
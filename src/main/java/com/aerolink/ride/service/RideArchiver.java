@@ -0,0 +1,202 @@
+package com.aerolink.ride.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves finished rides out of Postgres into the {@link RideArchive}.
+ *
+ * <p>
+ * COMPLETED and CANCELLED ride requests older than
+ * {@code aerolink.archive.older-than-days} are written, with their pricing
+ * records, to a segment file and then deleted, {@code batch-size} at a time.
+ * Pools that are COMPLETED or DISSOLVED, equally old, and no longer
+ * referenced by any request follow the same way. Each batch is one
+ * transaction: rows are locked with {@code FOR UPDATE SKIP LOCKED} (so
+ * instances archive disjoint batches), the segment is forced to disk, then
+ * the rows are deleted.
+ * </p>
+ *
+ * <p>
+ * Idempotency keys outlive their rides, so a replayed key of an archived
+ * ride is still rejected. They are deleted in the same run once older
+ * than {@code aerolink.archive.idempotency-key-retention-days}.
+ * </p>
+ *
+ * <p>
+ * Off unless {@code aerolink.archive.enabled} is set.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RideArchiver {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RideArchive rideArchive;
+
+    @Value("${aerolink.archive.enabled}")
+    private boolean enabled;
+
+    @Value("${aerolink.archive.older-than-days}")
+    private int olderThanDays;
+
+    @Value("${aerolink.archive.idempotency-key-retention-days}")
+    private int keyRetentionDays;
+
+    @Value("${aerolink.archive.batch-size}")
+    private int batchSize;
+
+    @Scheduled(cron = "${aerolink.archive.cron}")
+    public void archiveScheduled() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archive everything eligible now.
+     *
+     * @return Number of ride requests archived
+     */
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(olderThanDays);
+        int rides = 0;
+        int batch;
+        try {
+            do {
+                batch = archiveRideBatch(cutoff);
+                rides += batch;
+            } while (batch == batchSize);
+
+            int pools = 0;
+            do {
+                batch = archivePoolBatch(cutoff);
+                pools += batch;
+            } while (batch == batchSize);
+
+            if (rides > 0 || pools > 0) {
+                log.info("Archived {} ride requests and {} pools older than {}", rides, pools, cutoff);
+            }
+
+            LocalDateTime keyCutoff = LocalDateTime.now().minusDays(keyRetentionDays);
+            int keys = 0;
+            do {
+                batch = deleteIdempotencyKeyBatch(keyCutoff);
+                keys += batch;
+            } while (batch == batchSize);
+
+            if (keys > 0) {
+                log.info("Deleted {} idempotency keys older than {}", keys, keyCutoff);
+            }
+        } catch (Exception e) {
+            log.error("Ride archiving failed after {} requests: {}", rides, e.getMessage(), e);
+        }
+        return rides;
+    }
+
+    private int archiveRideBatch(LocalDateTime cutoff) {
+        Integer archived = transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("limit", batchSize);
+            List<Map<String, Object>> rides = jdbcTemplate.queryForList("""
+                    SELECT * FROM ride_requests
+                    WHERE status IN ('COMPLETED', 'CANCELLED')
+                    AND created_at < :cutoff
+                    ORDER BY created_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                    """, params);
+            if (rides.isEmpty()) {
+                return 0;
+            }
+
+            List<Object> ids = rides.stream().map(ride -> ride.get("id")).toList();
+            params.addValue("ids", ids);
+            Map<Object, Map<String, Object>> pricingByRide = new HashMap<>();
+            for (Map<String, Object> pricing : jdbcTemplate.queryForList(
+                    "SELECT * FROM pricing_records WHERE ride_request_id IN (:ids)", params)) {
+                pricingByRide.put(pricing.get("ride_request_id"), pricing);
+            }
+
+            List<RideArchive.ArchivedRide> archivedRides = new ArrayList<>(rides.size());
+            for (Map<String, Object> ride : rides) {
+                archivedRides.add(new RideArchive.ArchivedRide(ride, pricingByRide.get(ride.get("id"))));
+            }
+            write(archivedRides, List.of());
+
+            jdbcTemplate.update("DELETE FROM pricing_records WHERE ride_request_id IN (:ids)", params);
+            // created_at bound prunes the delete to the old partitions
+            jdbcTemplate.update("DELETE FROM ride_requests WHERE id IN (:ids) AND created_at < :cutoff", params);
+            return rides.size();
+        });
+        return archived != null ? archived : 0;
+    }
+
+    private int archivePoolBatch(LocalDateTime cutoff) {
+        Integer archived = transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("limit", batchSize);
+            List<Map<String, Object>> pools = jdbcTemplate.queryForList("""
+                    SELECT * FROM ride_pools p
+                    WHERE p.status IN ('COMPLETED', 'DISSOLVED')
+                    AND p.created_at < :cutoff
+                    AND NOT EXISTS (SELECT 1 FROM ride_requests r WHERE r.ride_pool_id = p.id)
+                    ORDER BY p.created_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                    """, params);
+            if (pools.isEmpty()) {
+                return 0;
+            }
+
+            write(List.of(), pools);
+            params.addValue("ids", pools.stream().map(pool -> pool.get("id")).toList());
+            jdbcTemplate.update("DELETE FROM ride_pools WHERE id IN (:ids)", params);
+            return pools.size();
+        });
+        return archived != null ? archived : 0;
+    }
+
+    private int deleteIdempotencyKeyBatch(LocalDateTime cutoff) {
+        Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update("""
+                DELETE FROM ride_request_idempotency_keys
+                WHERE idempotency_key IN (
+                    SELECT idempotency_key FROM ride_request_idempotency_keys
+                    WHERE created_at < :cutoff
+                    ORDER BY created_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                """, new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", batchSize)));
+        return deleted != null ? deleted : 0;
+    }
+
+    private void write(List<RideArchive.ArchivedRide> rides, List<Map<String, Object>> pools) {
+        try {
+            rideArchive.append(rides, pools);
+        } catch (IOException e) {
+            // Rolls the batch back: nothing is deleted that was not archived
+            throw new UncheckedIOException("Cannot write archive segment", e);
+        }
+    }
+}
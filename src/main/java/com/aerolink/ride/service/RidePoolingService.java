@@ -1,11 +1,16 @@
 package com.aerolink.ride.service;
 
+import com.aerolink.ride.algorithm.DistanceCalculator;
+import com.aerolink.ride.algorithm.RideBatchMatcher;
 import com.aerolink.ride.algorithm.RideGroupingAlgorithm;
 import com.aerolink.ride.algorithm.RouteDeviationChecker;
+import com.aerolink.ride.algorithm.RoutePlan;
 import com.aerolink.ride.dto.event.RideEvent;
 import com.aerolink.ride.dto.request.RideRequestDTO;
+import com.aerolink.ride.dto.response.CursorPage;
 import com.aerolink.ride.dto.response.PoolResponseDTO;
 import com.aerolink.ride.dto.response.RideResponseDTO;
+import com.aerolink.ride.dto.response.RouteStopDTO;
 import com.aerolink.ride.entity.*;
 import com.aerolink.ride.enums.*;
 import com.aerolink.ride.exception.*;
@@ -13,24 +18,42 @@ import com.aerolink.ride.messaging.RideEventPublisher;
 import com.aerolink.ride.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.integration.redis.util.RedisLockRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RidePoolingService {
 
+    /** Global uniqueness of idempotency keys across ride_requests partitions (V6). */
+    private static final String IDEMPOTENCY_KEY_CONSTRAINT = "ride_request_idempotency_keys_pkey";
+
     private final RideRequestRepository rideRequestRepository;
     private final RidePoolRepository ridePoolRepository;
     private final PassengerRepository passengerRepository;
@@ -38,6 +61,11 @@ public class RidePoolingService {
     private final RideEventPublisher eventPublisher;
     private final RedisLockRegistry redisLockRegistry;
     private final SseService sseService;
+    private final RoutePlanCache routePlanCache;
+    private final RideRequestBatch rideRequestBatch;
+    private final PoolDispatchTimer poolDispatchTimer;
+    private final TransactionTemplate transactionTemplate;
+    private final RideArchive rideArchive;
 
     @Value("${aerolink.pooling.search-radius-km}")
     private double searchRadiusKm;
@@ -48,6 +76,9 @@ public class RidePoolingService {
     @Value("${aerolink.pooling.pool-window-seconds}")
     private int poolWindowSeconds;
 
+    @Value("${aerolink.pooling.batch-matching-enabled}")
+    private boolean batchMatchingEnabled;
+
     @Value("${aerolink.concurrency.lock-timeout-seconds}")
     private long lockTimeoutSeconds;
 
@@ -60,6 +91,9 @@ public class RidePoolingService {
      * 2. One-ride-per-user validation
      * 3. Find/create FORMING pool (NO cab assigned, NO price calculated)
      * 4. Rider sees "waiting for pool" until dispatch
+     *
+     * With batch matching enabled, step 3 is deferred: the request is saved
+     * as PENDING and placed by the next {@link #matchBatch} round.
      */
     @Transactional
     public RideResponseDTO requestRide(RideRequestDTO dto) {
@@ -102,10 +136,21 @@ public class RidePoolingService {
                 .passengerCount(dto.getPassengerCount())
                 .luggageCount(dto.getLuggageCount())
                 .maxDetourKm(dto.getMaxDetourKm())
+                .directKm(DistanceCalculator.calculateKm(dto.getPickupLat(), dto.getPickupLng(),
+                        dto.getDropLat(), dto.getDropLng()))
+                .tripBearing(DistanceCalculator.bearingDegrees(dto.getPickupLat(), dto.getPickupLng(),
+                        dto.getDropLat(), dto.getDropLng()))
                 .status(RideStatus.PENDING)
                 .idempotencyKey(dto.getIdempotencyKey())
                 .build();
-        rideRequest = rideRequestRepository.save(rideRequest);
+        rideRequest = insertRequest(rideRequest);
+
+        if (batchMatchingEnabled) {
+            // Placed together with the other requests of this micro-window
+            rideRequestBatch.add(rideRequest.getId());
+            log.info("Ride request {} queued for batch matching", rideRequest.getId());
+            return toResponse(rideRequest);
+        }
 
         // 6. Find or create a FORMING pool (NO cab assignment, NO pricing yet)
         RidePool assignedPool = findOrCreatePool(rideRequest);
@@ -114,16 +159,143 @@ public class RidePoolingService {
         rideRequest = rideRequestRepository.save(rideRequest);
 
         // 8. Publish event + SSE notification
+        notifyJoined(rideRequest, assignedPool);
+        return toResponse(rideRequest);
+    }
+
+    /**
+     * Insert a new request right away, so a reused idempotency key fails
+     * here rather than at commit. The lookup in {@link #requestRide} misses
+     * such a key when its ride has been archived, or when a concurrent
+     * request with the same key has not committed yet; the key table still
+     * holds it.
+     *
+     * @throws DuplicateRequestException If the idempotency key was used before
+     */
+    private RideRequest insertRequest(RideRequest rideRequest) {
+        try {
+            return rideRequestRepository.saveAndFlush(rideRequest);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && IDEMPOTENCY_KEY_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                log.info("Idempotency key {} already used by an earlier request", rideRequest.getIdempotencyKey());
+                throw new DuplicateRequestException(
+                        "Idempotency key already used: " + rideRequest.getIdempotencyKey());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Place a batch of PENDING requests collectively (batch matching mode).
+     *
+     * <p>
+     * The placements are computed in one read transaction over the
+     * requests and every FORMING pool near them, then applied one request
+     * per transaction through the same locked join path as
+     * {@link #requestRide}. A join that fails is re-queued for the next
+     * batch and does not affect the others; a pool this batch meant to open
+     * is opened by whichever of its members is applied first. If opening it
+     * fails, its remaining members are re-queued too rather than opening
+     * pools of their own, so the next batch matches the group together
+     * again.
+     * </p>
+     *
+     * @param requestIds Buffered request IDs, in arrival order
+     */
+    public void matchBatch(List<UUID> requestIds) {
+        List<RideBatchMatcher.Placement> placements = transactionTemplate.execute(status -> {
+            Map<UUID, RideRequest> byId = new HashMap<>();
+            rideRequestRepository.findAllById(requestIds).forEach(r -> byId.put(r.getId(), r));
+            List<RideRequest> requests = requestIds.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .filter(r -> r.getStatus() == RideStatus.PENDING && r.getRidePool() == null)
+                    .distinct()
+                    .toList();
+
+            Map<UUID, RidePool> candidates = new LinkedHashMap<>();
+            for (RideRequest request : requests) {
+                ridePoolRepository.findFormingPoolsNear(request.getPickupLat(), request.getPickupLng(),
+                        searchRadiusKm).forEach(pool -> candidates.putIfAbsent(pool.getId(), pool));
+            }
+            return RideBatchMatcher.match(requests, new ArrayList<>(candidates.values()), maxPoolSize,
+                    searchRadiusKm);
+        });
+        if (placements == null || placements.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, UUID> openedPools = new HashMap<>();
+        Set<Integer> failedPools = new HashSet<>();
+        int requeued = 0;
+        for (RideBatchMatcher.Placement placement : placements) {
+            UUID requestId = placement.request().getId();
+            if (placement.pool() == null && failedPools.contains(placement.newPool())) {
+                rideRequestBatch.add(requestId);
+                requeued++;
+                continue;
+            }
+            try {
+                UUID target = placement.pool() != null ? placement.pool().getId()
+                        : openedPools.get(placement.newPool());
+                UUID poolId = transactionTemplate.execute(status -> applyPlacement(requestId, target));
+                if (poolId != null && placement.pool() == null) {
+                    openedPools.putIfAbsent(placement.newPool(), poolId);
+                }
+            } catch (Exception e) {
+                log.warn("Batch placement of request {} failed, re-queueing: {}", requestId, e.getMessage());
+                rideRequestBatch.add(requestId);
+                requeued++;
+                if (placement.pool() == null && !openedPools.containsKey(placement.newPool())) {
+                    failedPools.add(placement.newPool());
+                }
+            }
+        }
+
+        log.info("Batch matched {} requests into {} existing and {} new pools ({} re-queued)", placements.size(),
+                placements.stream().filter(p -> p.pool() != null).map(p -> p.pool().getId()).distinct().count(),
+                openedPools.size(), requeued);
+    }
+
+    /**
+     * Join one batched request to {@code poolId}, or to a new pool if null.
+     *
+     * @return The pool the request ended up in, or null if it was no longer
+     *         waiting (e.g. cancelled meanwhile)
+     */
+    private UUID applyPlacement(UUID requestId, UUID poolId) {
+        RideRequest request = rideRequestRepository.findById(requestId).orElse(null);
+        if (request == null || request.getStatus() != RideStatus.PENDING || request.getRidePool() != null) {
+            return null;
+        }
+
+        RidePool pool;
+        if (poolId == null) {
+            pool = createNewPool(request);
+        } else {
+            // Re-validates status and capacity under the pool lock; opens a new pool if either changed
+            RidePool target = ridePoolRepository.findById(poolId).orElse(null);
+            pool = target != null ? addToPoolWithLock(target, request) : createNewPool(request);
+        }
+        request = rideRequestRepository.save(request);
+
+        notifyJoined(request, pool);
+        sseService.emitToPassenger(request.getPassenger().getId(), "POOL_ASSIGNED",
+                Map.of("rideId", request.getId().toString(), "poolId", pool.getId().toString()));
+        return pool.getId();
+    }
+
+    private void notifyJoined(RideRequest rideRequest, RidePool pool) {
         eventPublisher.publishNotification(
-                RideEvent.pooled(rideRequest.getId(), assignedPool.getId(), passenger.getId()));
+                RideEvent.pooled(rideRequest.getId(), pool.getId(), rideRequest.getPassenger().getId()));
 
         // Notify all riders in this pool about the new join
-        sseService.emitToPool(assignedPool.getId(), "POOL_JOINED",
-                "New rider joined pool. " + assignedPool.getTotalOccupiedSeats() + "/4 seats filled.");
+        sseService.emitToPool(pool.getId(), "POOL_JOINED",
+                "New rider joined pool. " + pool.getTotalOccupiedSeats() + "/4 seats filled.");
 
         log.info("Ride request {} joined pool {} ({}/4 seats)",
-                rideRequest.getId(), assignedPool.getId(), assignedPool.getTotalOccupiedSeats());
-        return toResponse(rideRequest);
+                rideRequest.getId(), pool.getId(), pool.getTotalOccupiedSeats());
     }
 
     /**
@@ -139,8 +311,9 @@ public class RidePoolingService {
         log.info("Step 1: Found {} FORMING pools near ({}, {})",
                 candidates.size(), rideRequest.getPickupLat(), rideRequest.getPickupLng());
 
-        // Score and find best pool
-        RidePool bestPool = RideGroupingAlgorithm.findBestPool(candidates, rideRequest, maxPoolSize);
+        // Score and find best pool, checking detours against each pool's cached route
+        RidePool bestPool = RideGroupingAlgorithm.findBestPool(candidates, rideRequest, maxPoolSize,
+                routePlanCache::get);
 
         if (bestPool != null) {
             log.info("Joining existing pool {}", bestPool.getId());
@@ -157,11 +330,12 @@ public class RidePoolingService {
      * NO cab assigned — cab is found at dispatch time.
      */
     private RidePool createNewPool(RideRequest rideRequest) {
+        RoutePlan plan = RouteDeviationChecker.planRoute(List.of(rideRequest));
         RidePool pool = RidePool.builder()
                 .status(PoolStatus.FORMING)
                 .totalOccupiedSeats(rideRequest.getPassengerCount())
                 .totalLuggage(rideRequest.getLuggageCount())
-                .totalRouteDistanceKm(RouteDeviationChecker.estimateTotalRouteDistance(List.of(), rideRequest))
+                .totalRouteDistanceKm(RouteDeviationChecker.roundKm(plan.getTotalKm()))
                 .pickupLat(rideRequest.getPickupLat())
                 .pickupLng(rideRequest.getPickupLng())
                 .dropLat(rideRequest.getDropLat())
@@ -169,6 +343,8 @@ public class RidePoolingService {
                 .windowExpiresAt(LocalDateTime.now().plusSeconds(poolWindowSeconds))
                 .build();
         pool = ridePoolRepository.save(pool);
+        routePlanCache.put(pool, plan);
+        poolDispatchTimer.schedule(pool.getId(), pool.getWindowExpiresAt());
 
         rideRequest.setRidePool(pool);
         rideRequest.setStatus(RideStatus.POOLED);
@@ -221,14 +397,36 @@ public class RidePoolingService {
                     return createNewPool(rideRequest);
                 }
 
+                // Look up before modifying the pool: the cached plan is keyed by its current version
+                RoutePlan plan = routePlanCache.getIfCurrent(pool);
+                List<RideRequest> members = null;
+                if (plan == null) {
+                    members = rideRequestRepository.findActiveRequestsByPoolId(poolId);
+                    plan = RouteDeviationChecker.planRoute(members);
+                }
+
                 pool.setTotalOccupiedSeats(pool.getTotalOccupiedSeats() + rideRequest.getPassengerCount());
                 pool.setTotalLuggage(pool.getTotalLuggage() + rideRequest.getLuggageCount());
 
-                List<RideRequest> activeRequests = rideRequestRepository.findActiveRequestsByPoolId(poolId);
-                pool.setTotalRouteDistanceKm(
-                        RouteDeviationChecker.estimateTotalRouteDistance(activeRequests, rideRequest));
+                // Insert into the existing route; re-plan only if no insertion fits
+                RoutePlan.Insertion insertion = plan.findBestInsertion(rideRequest);
+                if (insertion != null) {
+                    plan = plan.withInsertion(rideRequest, insertion);
+                } else {
+                    // The plan keeps only rider ids, so a rebuild needs the members themselves
+                    members = new ArrayList<>(members != null ? members
+                            : rideRequestRepository.findActiveRequestsByPoolId(poolId));
+                    members.add(rideRequest);
+                    plan = RouteDeviationChecker.planRoute(members);
+                }
+                pool.setTotalRouteDistanceKm(RouteDeviationChecker.roundKm(plan.getTotalKm()));
 
                 pool = ridePoolRepository.save(pool);
+                routePlanCache.put(pool, plan);
+                if (pool.isFull()) {
+                    // Nobody else can join: dispatch without waiting for the window
+                    poolDispatchTimer.dispatchNow(pool.getId());
+                }
 
                 rideRequest.setRidePool(pool);
                 rideRequest.setStatus(RideStatus.POOLED);
@@ -247,41 +445,45 @@ public class RidePoolingService {
 
     // === Read Operations ===
 
+    /**
+     * One page of all rides, newest first.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the
+     *               first page
+     */
     @Transactional(readOnly = true)
-    public List<RideResponseDTO> getAllRides() {
-        return rideRequestRepository.findAll().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    public CursorPage<RideResponseDTO> getRides(String cursor, int limit) {
+        Pageable page = KeysetCursor.pageOf(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<RideResponseDTO> rides = after == null
+                ? rideRequestRepository.findFirstPage(page)
+                : rideRequestRepository.findPageAfter(after.createdAt(), after.id(), page);
+        return KeysetCursor.toPage(rides, limit, ride -> new KeysetCursor(ride.getCreatedAt(), ride.getId()),
+                Function.identity());
+    }
+
+    /**
+     * Hand every ride, newest first, to {@code sink} while reading them
+     * through a database cursor, so memory stays flat however many rides
+     * there are.
+     */
+    @Transactional(readOnly = true)
+    public void streamRides(Consumer<RideResponseDTO> sink) {
+        try (Stream<RideResponseDTO> rides = rideRequestRepository.streamAllNewestFirst()) {
+            rides.forEach(sink);
+        }
     }
 
     @Transactional(readOnly = true)
     public RideResponseDTO getRide(UUID rideId) {
-        RideRequest request = rideRequestRepository.findById(rideId)
+        return rideRequestRepository.findResponseById(rideId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ride not found: " + rideId));
-        return toResponse(request);
     }
 
     @Transactional(readOnly = true)
     public PoolResponseDTO getPool(UUID poolId) {
-        RidePool pool = ridePoolRepository.findById(poolId)
+        return poolResponse(poolId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pool not found: " + poolId));
-
-        List<RideRequest> members = rideRequestRepository.findActiveRequestsByPoolId(poolId);
-
-        return PoolResponseDTO.builder()
-                .id(pool.getId())
-                .cabId(pool.getCab() != null ? pool.getCab().getId() : null)
-                .cabLicensePlate(pool.getCab() != null ? pool.getCab().getLicensePlate() : null)
-                .driverName(pool.getCab() != null ? pool.getCab().getDriverName() : null)
-                .status(pool.getStatus())
-                .totalOccupiedSeats(pool.getTotalOccupiedSeats())
-                .totalLuggage(pool.getTotalLuggage())
-                .remainingSeats(pool.getRemainingSeats())
-                .totalRouteDistanceKm(pool.getTotalRouteDistanceKm())
-                .windowExpiresAt(pool.getWindowExpiresAt())
-                .riders(members.stream().map(this::toResponse).collect(Collectors.toList()))
-                .createdAt(pool.getCreatedAt())
-                .build();
     }
 
     /**
@@ -289,49 +491,70 @@ public class RidePoolingService {
      */
     @Transactional(readOnly = true)
     public PassengerDashboardData getPassengerDashboard(UUID passengerId) {
-        passengerRepository.findById(passengerId)
+        return getPassengerDashboard(passengerId, false, KeysetCursor.MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Get passenger dashboard data: active ride + ride history, optionally
+     * followed by the first {@code archivedLimit} rides moved to the
+     * {@link RideArchive}. Later archived pages come from
+     * {@link #getArchivedRides}.
+     */
+    @Transactional(readOnly = true)
+    public PassengerDashboardData getPassengerDashboard(UUID passengerId, boolean includeArchived,
+            int archivedLimit) {
+        Passenger passenger = passengerRepository.findById(passengerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Passenger not found: " + passengerId));
 
-        List<RideRequest> activeRides = rideRequestRepository.findActiveRidesByPassengerId(passengerId);
-        RideRequest activeRide = activeRides.isEmpty() ? null : activeRides.get(0);
-        List<RideRequest> history = rideRequestRepository.findByPassengerIdOrderByCreatedAtDesc(passengerId);
-
-        RideResponseDTO activeDto = activeRide != null ? toResponse(activeRide) : null;
-        PoolResponseDTO activePoolDto = null;
-
-        if (activeRide != null && activeRide.getRidePool() != null) {
-            RidePool pool = activeRide.getRidePool();
-            List<RideRequest> poolMembers = rideRequestRepository.findActiveRequestsByPoolId(pool.getId());
-            activePoolDto = PoolResponseDTO.builder()
-                    .id(pool.getId())
-                    .cabId(pool.getCab() != null ? pool.getCab().getId() : null)
-                    .cabLicensePlate(pool.getCab() != null ? pool.getCab().getLicensePlate() : null)
-                    .driverName(pool.getCab() != null ? pool.getCab().getDriverName() : null)
-                    .status(pool.getStatus())
-                    .totalOccupiedSeats(pool.getTotalOccupiedSeats())
-                    .totalLuggage(pool.getTotalLuggage())
-                    .remainingSeats(pool.getRemainingSeats())
-                    .totalRouteDistanceKm(pool.getTotalRouteDistanceKm())
-                    .windowExpiresAt(pool.getWindowExpiresAt())
-                    .riders(poolMembers.stream().map(this::toResponse).collect(Collectors.toList()))
-                    .createdAt(pool.getCreatedAt())
-                    .build();
+        List<RideResponseDTO> activeRides = rideRequestRepository.findActiveResponsesByPassengerId(passengerId);
+        RideResponseDTO activeDto = activeRides.isEmpty() ? null : activeRides.get(0);
+        PoolResponseDTO activePoolDto = activeDto != null && activeDto.getRidePoolId() != null
+                ? poolResponse(activeDto.getRidePoolId()).orElse(null)
+                : null;
+
+        List<RideResponseDTO> historyDtos = new ArrayList<>(
+                rideRequestRepository.findResponsesByPassengerId(passengerId));
+        String archivedNextCursor = null;
+        if (includeArchived) {
+            // Archived rides are older than anything still in the database
+            CursorPage<RideResponseDTO> archived = archivedRides(passenger, null, archivedLimit);
+            historyDtos.addAll(archived.items());
+            archivedNextCursor = archived.nextCursor();
         }
 
-        List<RideResponseDTO> historyDtos = history.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return new PassengerDashboardData(activeDto, activePoolDto, historyDtos, archivedNextCursor);
+    }
+
+    /**
+     * One page of a passenger's archived rides, newest first.
+     *
+     * @param cursor {@code archivedNextCursor} of the dashboard or
+     *               {@code nextCursor} of the previous page, or null for the
+     *               first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RideResponseDTO> getArchivedRides(UUID passengerId, String cursor, int limit) {
+        Passenger passenger = passengerRepository.findById(passengerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Passenger not found: " + passengerId));
+        return archivedRides(passenger, KeysetCursor.decode(cursor), limit);
+    }
 
-        return new PassengerDashboardData(activeDto, activePoolDto, historyDtos);
+    private CursorPage<RideResponseDTO> archivedRides(Passenger passenger, KeysetCursor after, int limit) {
+        Pageable page = KeysetCursor.pageOf(limit);
+        List<Map<String, Object>> rides = rideArchive.findRidesByPassenger(passenger.getId(), after,
+                page.getPageSize());
+        return KeysetCursor.toPage(rides, limit, RideArchive::keyOf, ride -> fromArchive(ride, passenger));
     }
 
     /**
-     * Passenger dashboard data container.
+     * Passenger dashboard data container. {@code archivedNextCursor} is set
+     * when archived rides were asked for and more follow.
      */
     public record PassengerDashboardData(
             RideResponseDTO activeRide,
             PoolResponseDTO activePool,
-            List<RideResponseDTO> rideHistory) {
+            List<RideResponseDTO> rideHistory,
+            String archivedNextCursor) {
     }
 
     /**
@@ -348,6 +571,7 @@ public class RidePoolingService {
         RidePool activePool = activePools.get(0);
 
         List<RideRequest> riders = rideRequestRepository.findActiveRequestsByPoolId(activePool.getId());
+        RoutePlan plan = routePlanCache.get(activePool, riders);
         PoolResponseDTO poolDto = PoolResponseDTO.builder()
                 .id(activePool.getId())
                 .cabId(cabId)
@@ -357,6 +581,7 @@ public class RidePoolingService {
                 .remainingSeats(activePool.getRemainingSeats())
                 .totalRouteDistanceKm(activePool.getTotalRouteDistanceKm())
                 .riders(riders.stream().map(this::toResponse).collect(Collectors.toList()))
+                .route(toRouteStops(plan))
                 .createdAt(activePool.getCreatedAt())
                 .build();
 
@@ -370,6 +595,49 @@ public class RidePoolingService {
 
     // === DTO Mapping ===
 
+    /**
+     * A pool with its active riders, in two queries whatever the pool size.
+     */
+    private Optional<PoolResponseDTO> poolResponse(UUID poolId) {
+        Optional<PoolResponseDTO> pool = ridePoolRepository.findResponseById(poolId);
+        pool.ifPresent(dto -> dto.setRiders(rideRequestRepository.findActiveResponsesByPoolId(poolId)));
+        return pool;
+    }
+
+    private List<RouteStopDTO> toRouteStops(RoutePlan plan) {
+        List<RouteStopDTO> stops = new ArrayList<>(plan.getStopCount());
+        for (int pos = 0; pos < plan.getStopCount(); pos++) {
+            stops.add(RouteStopDTO.builder()
+                    .rideRequestId(plan.getRiderIds().get(plan.getRiderAt(pos)))
+                    .pickup(plan.isPickupAt(pos))
+                    .lat(plan.getLatAt(pos))
+                    .lng(plan.getLngAt(pos))
+                    .cumulativeKm(RouteDeviationChecker.roundKm(plan.getCumulativeKm(pos)))
+                    .build());
+        }
+        return stops;
+    }
+
+    private static RideResponseDTO fromArchive(Map<String, Object> ride, Passenger passenger) {
+        Object poolId = ride.get("ride_pool_id");
+        Object estimatedPrice = ride.get("estimated_price");
+        return RideResponseDTO.builder()
+                .id(UUID.fromString((String) ride.get("id")))
+                .passengerId(passenger.getId())
+                .passengerName(passenger.getName())
+                .pickupLat(((Number) ride.get("pickup_lat")).doubleValue())
+                .pickupLng(((Number) ride.get("pickup_lng")).doubleValue())
+                .dropLat(((Number) ride.get("drop_lat")).doubleValue())
+                .dropLng(((Number) ride.get("drop_lng")).doubleValue())
+                .passengerCount(((Number) ride.get("passenger_count")).intValue())
+                .luggageCount(((Number) ride.get("luggage_count")).intValue())
+                .status(RideStatus.valueOf((String) ride.get("status")))
+                .ridePoolId(poolId != null ? UUID.fromString((String) poolId) : null)
+                .estimatedPrice(estimatedPrice != null ? ((Number) estimatedPrice).doubleValue() : null)
+                .createdAt(LocalDateTime.parse((String) ride.get("created_at")))
+                .build();
+    }
+
     private RideResponseDTO toResponse(RideRequest request) {
         return RideResponseDTO.builder()
                 .id(request.getId())
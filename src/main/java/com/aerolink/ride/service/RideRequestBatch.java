@@ -0,0 +1,55 @@
+package com.aerolink.ride.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Buffer of PENDING ride requests waiting for the next batch-matching round
+ * (see {@link BatchMatchingScheduler}).
+ *
+ * <p>
+ * Requests are added only once the transaction that saved them commits, so
+ * the matcher never looks for a request that is not yet visible (or was
+ * rolled back).
+ * </p>
+ */
+@Component
+public class RideRequestBatch {
+
+    private final ConcurrentLinkedQueue<UUID> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Queue a request for the next batch once the current transaction
+     * commits (immediately if there is none).
+     */
+    public void add(UUID rideRequestId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.add(rideRequestId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.add(rideRequestId);
+            }
+        });
+    }
+
+    /**
+     * Take every queued request, in arrival order.
+     */
+    public List<UUID> drain() {
+        List<UUID> batch = new ArrayList<>();
+        UUID id;
+        while ((id = pending.poll()) != null) {
+            batch.add(id);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,180 @@
+package com.aerolink.ride.service;
+
+import com.aerolink.ride.algorithm.RouteDeviationChecker;
+import com.aerolink.ride.algorithm.RoutePlan;
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.entity.RideRequest;
+import com.aerolink.ride.enums.RideStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory cache of each pool's planned pickup/drop route.
+ *
+ * <p>
+ * Entries are tagged with the {@link RidePool#getVersion() version} of the
+ * pool row they were planned for. Every membership change (join,
+ * cancellation) updates that row and bumps its version, so an entry that
+ * was not refreshed simply misses and the route is re-planned from the
+ * member list.
+ * </p>
+ *
+ * <p>
+ * Writers update the plan incrementally ({@link RoutePlan#withInsertion},
+ * {@link RoutePlan#withoutRider}) and hand it over with {@link #put}, which
+ * publishes it only after the transaction commits, under the version the
+ * commit produced. A rolled-back join therefore never reaches the cache.
+ * </p>
+ *
+ * <p>
+ * Pools can finish without passing through this instance (another instance
+ * completes them, or a bulk cleanup dissolves them), so nothing guarantees
+ * an {@link #evict}. The cache is therefore bounded by size and expires
+ * entries a fixed time after their last write; a plan that ages out is
+ * simply re-planned on the next lookup.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RoutePlanCache {
+
+    private final Cache<UUID, CachedPlan> plans;
+
+    private record CachedPlan(long version, RoutePlan plan) {
+    }
+
+    public RoutePlanCache(
+            @Value("${aerolink.pooling.route-plan-cache-max-size}") long maxSize,
+            @Value("${aerolink.pooling.route-plan-cache-ttl-minutes}") long ttlMinutes) {
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * @return The cached plan if it was made for the pool's current version,
+     *         otherwise null. A plan for an older version is dropped, since
+     *         no reader will ask for that version again.
+     */
+    public RoutePlan getIfCurrent(RidePool pool) {
+        CachedPlan cached = plans.getIfPresent(pool.getId());
+        Long version = pool.getVersion();
+        if (cached == null || version == null) {
+            return null;
+        }
+        if (cached.version() == version) {
+            return cached.plan();
+        }
+        // A newer plan belongs to a writer that has committed since the caller read the pool: keep it
+        if (cached.version() < version) {
+            plans.asMap().remove(pool.getId(), cached);
+        }
+        return null;
+    }
+
+    /**
+     * The pool's current plan, planned from {@code activeMembers} (and cached)
+     * on a miss.
+     *
+     * @param activeMembers The pool's active riders, as of the pool version
+     *                      read by the caller
+     */
+    public RoutePlan get(RidePool pool, List<RideRequest> activeMembers) {
+        RoutePlan plan = getIfCurrent(pool);
+        if (plan == null) {
+            plan = RouteDeviationChecker.planRoute(activeMembers);
+            store(pool.getId(), pool.getVersion(), plan);
+        }
+        return plan;
+    }
+
+    /**
+     * The pool's current plan, planned from its loaded
+     * {@link RidePool#getRideRequests() ride requests} on a miss. Used for
+     * candidate pools, whose members are fetched with them.
+     */
+    public RoutePlan get(RidePool pool) {
+        RoutePlan plan = getIfCurrent(pool);
+        if (plan != null) {
+            return plan;
+        }
+        List<RideRequest> active = pool.getRideRequests() == null ? List.of()
+                : pool.getRideRequests().stream()
+                        .filter(r -> r.getStatus() != RideStatus.CANCELLED
+                                && r.getStatus() != RideStatus.COMPLETED)
+                        .toList();
+        return get(pool, active);
+    }
+
+    /**
+     * Record the plan for a pool that the current transaction is updating.
+     * Published after commit under the version the commit wrote; dropped on
+     * rollback.
+     */
+    public void put(RidePool pool, RoutePlan plan) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            store(pool.getId(), pool.getVersion(), plan);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                store(pool.getId(), pool.getVersion(), plan);
+            }
+        });
+    }
+
+    /**
+     * Keep the current plan across a pool update that does not change its
+     * members (status, cab assignment). Call before modifying the pool.
+     */
+    public void retain(RidePool pool) {
+        RoutePlan plan = getIfCurrent(pool);
+        if (plan != null) {
+            put(pool, plan);
+        }
+    }
+
+    /**
+     * Forget a pool that has been dissolved or completed.
+     */
+    public void evict(UUID poolId) {
+        plans.invalidate(poolId);
+    }
+
+    /**
+     * Forget every plan, after a bulk update that finished pools without
+     * naming them.
+     */
+    public void evictAll() {
+        plans.invalidateAll();
+    }
+
+    /** Number of cached plans (approximate until pending evictions run). */
+    long size() {
+        plans.cleanUp();
+        return plans.estimatedSize();
+    }
+
+    private void store(UUID poolId, Long version, RoutePlan plan) {
+        if (poolId == null || version == null) {
+            return;
+        }
+        // Never let a slow writer replace the plan for a newer version
+        plans.asMap().merge(poolId, new CachedPlan(version, plan),
+                (old, fresh) -> old.version() > fresh.version() ? old : fresh);
+        if (log.isDebugEnabled()) {
+            log.debug("Cached {}-stop route plan for pool {} at version {}", plan.getStopCount(), poolId, version);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- =============================================================
+-- V10: Retention for ride_request_idempotency_keys (V6)
+-- RideArchiver deletes keys older than
+-- aerolink.archive.idempotency-key-retention-days, oldest first and
+-- a batch at a time; this index lets it find them without scanning
+-- the whole table.
+-- =============================================================
+
+CREATE INDEX IF NOT EXISTS idx_ride_request_idempotency_keys_created
+    ON ride_request_idempotency_keys(created_at);
@@ -0,0 +1,37 @@
+-- =============================================================
+-- V4: Precomputed trip geometry on ride requests
+-- direct_km and trip_bearing are computed once at booking so the
+-- detour checks and pricing never recompute them per rider.
+-- =============================================================
+
+-- 1. New columns (nullable until existing rows are backfilled)
+ALTER TABLE ride_requests ADD COLUMN IF NOT EXISTS direct_km DOUBLE PRECISION;
+ALTER TABLE ride_requests ADD COLUMN IF NOT EXISTS trip_bearing DOUBLE PRECISION;
+
+-- 2. Backfill: haversine distance (R = 6371 km) and initial bearing in
+--    degrees clockwise from north, matching DistanceCalculator
+UPDATE ride_requests r
+SET direct_km    = g.direct_km,
+    trip_bearing = CASE WHEN g.bearing < 0 THEN g.bearing + 360.0 ELSE g.bearing END
+FROM (
+    SELECT id,
+           2 * 6371.0 * asin(least(1.0, sqrt(
+               power(sin(radians(drop_lat - pickup_lat) / 2), 2)
+               + cos(radians(pickup_lat)) * cos(radians(drop_lat))
+                 * power(sin(radians(drop_lng - pickup_lng) / 2), 2)))) AS direct_km,
+           degrees(atan2(
+               sin(radians(drop_lng - pickup_lng)) * cos(radians(drop_lat)),
+               cos(radians(pickup_lat)) * sin(radians(drop_lat))
+                 - sin(radians(pickup_lat)) * cos(radians(drop_lat)) * cos(radians(drop_lng - pickup_lng))
+           )) AS bearing
+    FROM ride_requests
+    WHERE direct_km IS NULL OR trip_bearing IS NULL
+) g
+WHERE r.id = g.id;
+
+-- 3. Every booking now sets both
+ALTER TABLE ride_requests ALTER COLUMN direct_km SET NOT NULL;
+ALTER TABLE ride_requests ALTER COLUMN trip_bearing SET NOT NULL;
+
+ALTER TABLE ride_requests ADD CONSTRAINT chk_direct_km CHECK (direct_km >= 0);
+ALTER TABLE ride_requests ADD CONSTRAINT chk_trip_bearing CHECK (trip_bearing >= 0 AND trip_bearing < 360);
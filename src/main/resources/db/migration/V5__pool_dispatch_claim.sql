@@ -0,0 +1,13 @@
+-- =============================================================
+-- V5: Dispatch claims
+-- Instances claim ready pools with FOR UPDATE SKIP LOCKED and stamp
+-- claimed_at as a lease, so each pool is dispatched by one instance.
+-- The column is not mapped by JPA: only the claim queries touch it.
+-- =============================================================
+
+ALTER TABLE ride_pools ADD COLUMN IF NOT EXISTS claimed_at TIMESTAMP;
+
+-- Claim scan: FORMING pools in window order (the partial index stays
+-- small because dispatched and dissolved pools drop out of it)
+CREATE INDEX IF NOT EXISTS idx_ride_pools_forming_window
+    ON ride_pools(window_expires_at) WHERE status = 'FORMING';
@@ -0,0 +1,108 @@
+-- =============================================================
+-- V6: Monthly range partitions on ride_requests and pricing_records
+-- Both tables are partitioned by created_at. Queries that bound
+-- created_at (the active-ride lookups do) only touch the current
+-- partitions, and an old month can be detached without a big DELETE.
+--
+-- Postgres requires every unique constraint of a partitioned table to
+-- include the partition key, so:
+--   * the primary keys become (id, created_at); ids stay unique
+--     (UUIDv7) and JPA still maps id alone
+--   * idempotency keys stay globally unique through the
+--     ride_request_idempotency_keys table, filled by a trigger
+--   * pricing_records.ride_request_id can no longer reference
+--     ride_requests; the application writes one pricing record per
+--     request at dispatch
+-- =============================================================
+
+-- 1. Move the current tables aside
+ALTER TABLE pricing_records RENAME TO pricing_records_unpartitioned;
+ALTER TABLE ride_requests RENAME TO ride_requests_unpartitioned;
+
+-- 2. Partitioned parents with the same columns, defaults and checks
+CREATE TABLE ride_requests (LIKE ride_requests_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+CREATE TABLE pricing_records (LIKE pricing_records_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+
+-- 3. Monthly partitions <parent>_pYYYY_MM from from_month's month up to
+--    months_ahead months after the current one. Existing partitions are
+--    left alone, so this is safe to call repeatedly (the application does,
+--    daily). Returns the number of partitions created.
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, from_month DATE, months_ahead INT)
+RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start    DATE := date_trunc('month', from_month)::date;
+    last_month     DATE := (date_trunc('month', now()) + make_interval(months => months_ahead))::date;
+    partition_name TEXT;
+    created        INT  := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        partition_name := format('%s_p%s', parent, to_char(month_start, 'YYYY_MM'));
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent, month_start, (month_start + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+SELECT create_monthly_partitions('ride_requests',
+    COALESCE((SELECT min(created_at) FROM ride_requests_unpartitioned), now())::date, 3);
+SELECT create_monthly_partitions('pricing_records',
+    COALESCE((SELECT min(created_at) FROM pricing_records_unpartitioned), now())::date, 3);
+
+-- Safety net for rows outside every monthly partition (e.g. the
+-- maintenance job did not run); should stay empty
+CREATE TABLE ride_requests_default PARTITION OF ride_requests DEFAULT;
+CREATE TABLE pricing_records_default PARTITION OF pricing_records DEFAULT;
+
+-- 4. Copy the data and drop the old tables (and their index names)
+INSERT INTO ride_requests SELECT * FROM ride_requests_unpartitioned;
+INSERT INTO pricing_records SELECT * FROM pricing_records_unpartitioned;
+
+CREATE TABLE ride_request_idempotency_keys (
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    created_at      TIMESTAMP   NOT NULL DEFAULT NOW()
+);
+INSERT INTO ride_request_idempotency_keys (idempotency_key, created_at)
+SELECT idempotency_key, created_at FROM ride_requests_unpartitioned;
+
+DROP TABLE pricing_records_unpartitioned;
+DROP TABLE ride_requests_unpartitioned;
+
+-- 5. Keys, foreign keys and indexes (created on every partition)
+ALTER TABLE ride_requests ADD PRIMARY KEY (id, created_at);
+ALTER TABLE ride_requests ADD CONSTRAINT fk_ride_requests_passenger
+    FOREIGN KEY (passenger_id) REFERENCES passengers(id);
+ALTER TABLE ride_requests ADD CONSTRAINT fk_ride_requests_pool
+    FOREIGN KEY (ride_pool_id) REFERENCES ride_pools(id);
+
+ALTER TABLE pricing_records ADD PRIMARY KEY (id, created_at);
+
+CREATE INDEX idx_ride_requests_status ON ride_requests(status);
+CREATE INDEX idx_ride_requests_pool ON ride_requests(ride_pool_id);
+CREATE INDEX idx_ride_requests_created ON ride_requests(created_at);
+CREATE INDEX idx_ride_requests_passenger_status ON ride_requests(passenger_id, status);
+CREATE INDEX idx_ride_requests_idempotency ON ride_requests(idempotency_key);
+CREATE INDEX idx_pricing_records_ride_request ON pricing_records(ride_request_id);
+
+-- 6. Global idempotency: a duplicate key fails the insert with a unique
+--    violation, as the old UNIQUE constraint did
+CREATE OR REPLACE FUNCTION register_idempotency_key()
+RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO ride_request_idempotency_keys (idempotency_key, created_at)
+    VALUES (NEW.idempotency_key, NEW.created_at);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_ride_requests_idempotency
+    BEFORE INSERT ON ride_requests
+    FOR EACH ROW EXECUTE FUNCTION register_idempotency_key();
@@ -0,0 +1,22 @@
+-- =============================================================
+-- V7: PostGIS geography points for proximity queries
+-- The proximity queries used to compute an acos-haversine per row,
+-- which no index can serve. Each table now gets a geography(Point)
+-- column, generated from its lat/lng columns (so JPA keeps writing
+-- lat/lng only), with a GiST index. The queries use
+-- ST_DWithin(..., false) (sphere, like DistanceCalculator) to filter
+-- and <-> to order nearest first.
+-- =============================================================
+
+-- 1. Cab positions
+ALTER TABLE cabs ADD COLUMN IF NOT EXISTS location geography(Point, 4326)
+    GENERATED ALWAYS AS (ST_SetSRID(ST_MakePoint(current_lng, current_lat), 4326)::geography) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_cabs_location ON cabs USING GIST (location);
+
+-- 2. Pool anchor pickups; only FORMING pools are searched by location
+ALTER TABLE ride_pools ADD COLUMN IF NOT EXISTS pickup_location geography(Point, 4326)
+    GENERATED ALWAYS AS (ST_SetSRID(ST_MakePoint(pickup_lng, pickup_lat), 4326)::geography) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_ride_pools_forming_pickup
+    ON ride_pools USING GIST (pickup_location) WHERE status = 'FORMING';
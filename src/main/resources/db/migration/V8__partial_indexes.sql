@@ -0,0 +1,23 @@
+-- =============================================================
+-- V8: Partial indexes for the hot repository queries
+-- Each index covers only the rows one query family reads, so it stays
+-- small however much COMPLETED / CANCELLED history accumulates. The
+-- QueryPlanGuardTest suite checks that the planner uses them.
+-- =============================================================
+
+-- No AVAILABLE-only cab location index: it would duplicate idx_cabs_location
+-- (V7), which the nearest-cab claim uses, and findAssignedCabsWithCapacityNear
+-- needs the full index anyway.
+
+-- Active pool of a cab (driver view, orphaned-cab release)
+CREATE INDEX IF NOT EXISTS idx_ride_pools_active_cab
+    ON ride_pools(cab_id, created_at) WHERE status IN ('CONFIRMED', 'IN_PROGRESS');
+
+-- One-active-ride check and the passenger dashboard, newest first
+CREATE INDEX IF NOT EXISTS idx_ride_requests_passenger_active
+    ON ride_requests(passenger_id, created_at)
+    WHERE status IN ('PENDING', 'POOLED', 'CONFIRMED', 'IN_PROGRESS');
+
+-- Batch matching: PENDING requests not yet placed in a pool, oldest first
+CREATE INDEX IF NOT EXISTS idx_ride_requests_unpooled
+    ON ride_requests(created_at) WHERE status = 'PENDING' AND ride_pool_id IS NULL;
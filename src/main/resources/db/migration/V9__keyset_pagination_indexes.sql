@@ -0,0 +1,12 @@
+-- =============================================================
+-- V9: Indexes for keyset pagination on (created_at, id)
+-- GET /rides and GET /cabs page with WHERE (created_at, id) < / > the
+-- cursor, ordered by the same pair. A (created_at, id) index serves
+-- both the seek and the order, at any depth. On ride_requests it also
+-- covers the time-window queries idx_ride_requests_created served.
+-- =============================================================
+
+CREATE INDEX IF NOT EXISTS idx_ride_requests_created_id ON ride_requests(created_at, id);
+DROP INDEX IF EXISTS idx_ride_requests_created;
+
+CREATE INDEX IF NOT EXISTS idx_cabs_created_id ON cabs(created_at, id);
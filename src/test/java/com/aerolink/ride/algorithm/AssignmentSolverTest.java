@@ -0,0 +1,113 @@
+package com.aerolink.ride.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("AssignmentSolver - Hungarian Assignment Tests")
+class AssignmentSolverTest {
+
+    @Test
+    @DisplayName("Should match brute force on random square and rectangular matrices")
+    void testMatchesBruteForce() {
+        Random random = new Random(11);
+        for (int rows = 1; rows <= 5; rows++) {
+            for (int cols = 1; cols <= 5; cols++) {
+                for (int trial = 0; trial < 10; trial++) {
+                    double[] cost = new double[rows * cols];
+                    for (int i = 0; i < cost.length; i++) {
+                        cost[i] = random.nextDouble() < 0.25 ? AssignmentSolver.FORBIDDEN
+                                : random.nextDouble() * 20.0 - 5.0;
+                    }
+
+                    int[] assignment = AssignmentSolver.solve(cost, rows, cols);
+
+                    assertValidAssignment(cost, cols, assignment);
+                    double[] best = bruteForce(cost, rows, cols, 0, new boolean[cols]);
+                    String label = rows + "×" + cols + " trial=" + trial;
+                    assertEquals((int) best[0], assignedCount(assignment), label);
+                    assertEquals(best[1], AssignmentSolver.totalCost(cost, cols, assignment), 1e-9, label);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should prefer the assignment with the lowest total, not the greedy first pick")
+    void testBeatsGreedy() {
+        // Greedy would give row 0 its cheapest column (0) and row 1 the expensive one
+        double[] cost = {
+                1.0, 2.0,
+                1.5, 10.0 };
+
+        int[] assignment = AssignmentSolver.solve(cost, 2, 2);
+
+        assertArrayEquals(new int[] { 1, 0 }, assignment);
+        assertEquals(3.5, AssignmentSolver.totalCost(cost, 2, assignment), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should leave rows unassigned when only forbidden columns remain")
+    void testForbiddenRows() {
+        double[] cost = {
+                AssignmentSolver.FORBIDDEN, AssignmentSolver.FORBIDDEN,
+                4.0, AssignmentSolver.FORBIDDEN };
+
+        assertArrayEquals(new int[] { -1, 0 }, AssignmentSolver.solve(cost, 2, 2));
+        assertArrayEquals(new int[0], AssignmentSolver.solve(new double[0], 0, 3));
+        assertArrayEquals(new int[] { -1, -1 }, AssignmentSolver.solve(new double[0], 2, 0));
+    }
+
+    // ---- Helpers ----
+
+    private void assertValidAssignment(double[] cost, int cols, int[] assignment) {
+        boolean[] taken = new boolean[cols];
+        for (int row = 0; row < assignment.length; row++) {
+            int col = assignment[row];
+            if (col < 0) {
+                continue;
+            }
+            assertFalse(taken[col], "column " + col + " assigned twice");
+            taken[col] = true;
+            assertNotEquals(AssignmentSolver.FORBIDDEN, cost[row * cols + col]);
+        }
+    }
+
+    private int assignedCount(int[] assignment) {
+        int count = 0;
+        for (int col : assignment) {
+            if (col >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** @return {most rows assigned, lowest total cost among those} */
+    private double[] bruteForce(double[] cost, int rows, int cols, int row, boolean[] taken) {
+        if (row == rows) {
+            return new double[] { 0, 0.0 };
+        }
+        double[] best = bruteForce(cost, rows, cols, row + 1, taken); // Leave this row unassigned
+        for (int col = 0; col < cols; col++) {
+            double c = cost[row * cols + col];
+            if (taken[col] || c == AssignmentSolver.FORBIDDEN) {
+                continue;
+            }
+            taken[col] = true;
+            double[] rest = bruteForce(cost, rows, cols, row + 1, taken);
+            taken[col] = false;
+            double count = rest[0] + 1;
+            double total = rest[1] + c;
+            if (count > best[0] || (count == best[0] && total < best[1])) {
+                best = new double[] { count, total };
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,75 @@
+package com.aerolink.ride.algorithm;
+
+import com.aerolink.ride.entity.Cab;
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.enums.CabStatus;
+import com.aerolink.ride.enums.PoolStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("CabDispatchMatcher - Cab-to-Pool Assignment Tests")
+class CabDispatchMatcherTest {
+
+    @Test
+    @DisplayName("Should not let an early pool take the only cab near a later one")
+    void testMinimisesTotalPickupDistance() {
+        RidePool early = buildPool(19.090, 72.870, 2, 0);
+        RidePool late = buildPool(19.090, 72.880, 2, 0);
+        // Nearest to both pools, but the only cab within range of the late one
+        Cab between = buildCab(19.090, 72.876, 4, 4);
+        // ~0.9 km west of the early pool, ~2 km from the late one
+        Cab west = buildCab(19.090, 72.8615, 4, 4);
+
+        Cab[] assigned = CabDispatchMatcher.assign(List.of(early, late), List.of(between, west), 1.5);
+
+        assertSame(west, assigned[0]);
+        assertSame(between, assigned[1]);
+    }
+
+    @Test
+    @DisplayName("Should leave pools without a cab when cabs are out of range, too small, or too few")
+    void testUnassignable() {
+        RidePool full = buildPool(19.09, 72.87, 4, 3);
+        RidePool far = buildPool(19.20, 72.87, 1, 0);
+        RidePool extra = buildPool(19.09, 72.87, 1, 0);
+        Cab small = buildCab(19.09, 72.87, 3, 4);
+
+        Cab[] assigned = CabDispatchMatcher.assign(List.of(full, far, extra), List.of(small), 1.5);
+
+        assertNull(assigned[0], "cab cannot seat the pool");
+        assertNull(assigned[1], "cab out of range");
+        assertSame(small, assigned[2]);
+        assertArrayEquals(new Cab[2], CabDispatchMatcher.assign(List.of(full, far), List.of(), 1.5));
+    }
+
+    // ---- Helpers ----
+
+    private RidePool buildPool(double lat, double lng, int seats, int luggage) {
+        return RidePool.builder()
+                .id(UUID.randomUUID())
+                .status(PoolStatus.FORMING)
+                .totalOccupiedSeats(seats)
+                .totalLuggage(luggage)
+                .pickupLat(lat)
+                .pickupLng(lng)
+                .build();
+    }
+
+    private Cab buildCab(double lat, double lng, int seats, int luggage) {
+        return Cab.builder()
+                .id(UUID.randomUUID())
+                .totalSeats(seats)
+                .luggageCapacity(luggage)
+                .currentLat(lat)
+                .currentLng(lng)
+                .status(CabStatus.AVAILABLE)
+                .build();
+    }
+}
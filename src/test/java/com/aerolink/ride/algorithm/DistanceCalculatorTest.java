@@ -1,10 +1,15 @@
 package com.aerolink.ride.algorithm;
 
+import com.aerolink.ride.entity.RideRequest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @Tag("unit")
 @DisplayName("DistanceCalculator - Haversine Distance Tests")
@@ -69,4 +74,224 @@ class DistanceCalculatorTest {
         double ba = DistanceCalculator.calculateKm(18.9398, 72.8355, 19.0896, 72.8656);
         assertEquals(ab, ba, 0.001);
     }
+
+    // ---- Equirectangular fast path ----
+
+    @AfterEach
+    void resetMode() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.HAVERSINE, DistanceCalculator.MAX_FAST_PATH_KM);
+        DistanceCalculator.configureVectorKernel(true);
+    }
+
+    @Test
+    @DisplayName("routeKm should equal calculateKm in HAVERSINE mode")
+    void testRouteKmHaversineMode() {
+        double exact = DistanceCalculator.calculateKm(19.0896, 72.8656, 19.1197, 72.8464);
+        assertEquals(exact, DistanceCalculator.routeKm(19.0896, 72.8656, 19.1197, 72.8464), 0.0);
+    }
+
+    @Test
+    @DisplayName("Fast path max relative error vs haversine stays below 1e-5 for legs up to 50 km")
+    void testFastPathErrorBound() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, 50.0);
+        Random random = new Random(42);
+        double maxRelativeError = 0;
+        double maxAbsoluteErrorKm = 0;
+
+        for (int i = 0; i < 100_000; i++) {
+            double lat1 = -60 + random.nextDouble() * 120;
+            double lng1 = -180 + random.nextDouble() * 360;
+            double lat2 = Math.max(-60, Math.min(60, lat1 + (random.nextDouble() * 2 - 1) * 0.45));
+            double lng2 = lng1 + (random.nextDouble() * 2 - 1) * 0.45;
+
+            double exact = DistanceCalculator.calculateKm(lat1, lng1, lat2, lng2);
+            if (exact < 0.01 || exact > 50.0) {
+                continue;
+            }
+            double fast = DistanceCalculator.routeKm(lat1, lng1, DistanceCalculator.cosLat(lat1),
+                    lat2, lng2, DistanceCalculator.cosLat(lat2));
+            maxRelativeError = Math.max(maxRelativeError, Math.abs(fast - exact) / exact);
+            maxAbsoluteErrorKm = Math.max(maxAbsoluteErrorKm, Math.abs(fast - exact));
+        }
+
+        assertTrue(maxRelativeError < 1e-5, "Max relative error too high: " + maxRelativeError);
+        assertTrue(maxAbsoluteErrorKm < 0.0005, "Max absolute error too high: " + maxAbsoluteErrorKm + " km");
+    }
+
+    @Test
+    @DisplayName("Fast path error around Mumbai airport stays below 5 cm")
+    void testFastPathErrorAirportScale() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, 50.0);
+        Random random = new Random(7);
+        double maxAbsoluteErrorKm = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            double lat2 = 18.90 + random.nextDouble() * 0.35; // Colaba → Borivali
+            double lng2 = 72.80 + random.nextDouble() * 0.25;
+            double exact = DistanceCalculator.calculateKm(19.0896, 72.8656, lat2, lng2);
+            double fast = DistanceCalculator.routeKm(19.0896, 72.8656, lat2, lng2);
+            maxAbsoluteErrorKm = Math.max(maxAbsoluteErrorKm, Math.abs(fast - exact));
+        }
+
+        assertTrue(maxAbsoluteErrorKm < 0.00005, "Max absolute error too high: " + maxAbsoluteErrorKm + " km");
+    }
+
+    @Test
+    @DisplayName("Fast path should fall back to haversine beyond the threshold")
+    void testFastPathFallbackBeyondThreshold() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, 10.0);
+
+        // Airport → CST is ~17 km: over the 10 km threshold, so exact haversine
+        double exactLong = DistanceCalculator.calculateKm(19.0896, 72.8656, 18.9398, 72.8355);
+        assertEquals(exactLong, DistanceCalculator.routeKm(19.0896, 72.8656, 18.9398, 72.8355), 0.0);
+
+        // Mumbai → Delhi is far beyond any threshold
+        double exactFar = DistanceCalculator.calculateKm(19.0760, 72.8777, 28.6139, 77.2090);
+        assertEquals(exactFar, DistanceCalculator.routeKm(19.0760, 72.8777, 28.6139, 77.2090), 0.0);
+    }
+
+    @Test
+    @DisplayName("Fast path should not be used at high latitudes")
+    void testFastPathHighLatitudeFallback() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, 50.0);
+        double exact = DistanceCalculator.calculateKm(69.65, 18.95, 69.70, 19.05);
+        assertEquals(exact, DistanceCalculator.routeKm(69.65, 18.95, 69.70, 19.05), 0.0);
+    }
+
+    @Test
+    @DisplayName("Fast path should take the short way across the antimeridian")
+    void testFastPathAntimeridian() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, 50.0);
+        double exact = DistanceCalculator.calculateKm(-17.0, 179.95, -17.0, -179.95);
+        double fast = DistanceCalculator.routeKm(-17.0, 179.95, -17.0, -179.95);
+        assertEquals(exact, fast, exact * 1e-5);
+    }
+
+    @Test
+    @DisplayName("configure should reject invalid settings")
+    void testConfigureValidation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DistanceCalculator.configure(null, 50.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, 0));
+    }
+
+    @Test
+    @DisplayName("distanceMatrix should match pairwise calculateKm and be symmetric")
+    void testDistanceMatrixMatchesPairwise() {
+        Random random = new Random(7);
+        int n = 12;
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = -70 + random.nextDouble() * 140;
+            lngs[i] = -180 + random.nextDouble() * 360;
+        }
+        double[] matrix = new double[n * n];
+        DistanceCalculator.distanceMatrix(lats, lngs, n, matrix);
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(0.0, matrix[i * n + i], 0.0);
+            for (int j = 0; j < n; j++) {
+                double expected = DistanceCalculator.calculateKm(lats[i], lngs[i], lats[j], lngs[j]);
+                assertEquals(expected, matrix[i * n + j], 1e-6);
+                assertEquals(matrix[i * n + j], matrix[j * n + i], 0.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("m×n distanceMatrix and distancesFrom should agree with routeKm")
+    void testRectangularMatrixAndDistancesFrom() {
+        DistanceCalculator.configure(DistanceCalculator.Mode.EQUIRECTANGULAR, 50.0);
+        double[] fromLats = { 19.0896, 19.0990 };
+        double[] fromLngs = { 72.8656, 72.8740 };
+        double[] toLats = { 19.1197, 19.0544, 28.6139 };
+        double[] toLngs = { 72.8464, 72.8403, 77.2090 };
+        double[] matrix = new double[6];
+        DistanceCalculator.distanceMatrix(fromLats, fromLngs, 2, toLats, toLngs, 3, matrix);
+
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                double expected = DistanceCalculator.routeKm(fromLats[i], fromLngs[i], toLats[j], toLngs[j]);
+                assertEquals(expected, matrix[i * 3 + j], 1e-6);
+            }
+        }
+
+        double[] row = new double[3];
+        DistanceCalculator.distancesFrom(fromLats[1], fromLngs[1], toLats, toLngs, 3, row);
+        for (int j = 0; j < 3; j++) {
+            assertEquals(matrix[3 + j], row[j], 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("distanceMatrix should reject an undersized output array")
+    void testDistanceMatrixCapacity() {
+        double[] lats = { 19.0, 19.1 };
+        double[] lngs = { 72.8, 72.9 };
+        assertThrows(IllegalArgumentException.class,
+                () -> DistanceCalculator.distanceMatrix(lats, lngs, 2, new double[3]));
+    }
+
+    // ---- SIMD kernel ----
+
+    @Test
+    @DisplayName("SIMD distancesFrom should match the scalar path in both modes")
+    void testVectorKernelMatchesScalar() {
+        assumeTrue(DistanceCalculator.isVectorKernelActive(), "Vector API module not available");
+        Random random = new Random(11);
+        int n = 1003; // not a multiple of any lane count, so the scalar tail runs too
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Mostly airport-scale, with some long and high-latitude points mixed in
+            boolean far = i % 10 == 0;
+            lats[i] = far ? -80 + random.nextDouble() * 160 : 19.0 + random.nextDouble() * 0.3;
+            lngs[i] = far ? -180 + random.nextDouble() * 360 : 72.8 + random.nextDouble() * 0.3;
+        }
+        double[] vector = new double[n];
+        double[] scalar = new double[n];
+
+        for (DistanceCalculator.Mode mode : DistanceCalculator.Mode.values()) {
+            DistanceCalculator.configure(mode, DistanceCalculator.MAX_FAST_PATH_KM);
+            DistanceCalculator.configureVectorKernel(true);
+            DistanceCalculator.distancesFrom(19.0896, 72.8656, lats, lngs, n, vector);
+            DistanceCalculator.configureVectorKernel(false);
+            DistanceCalculator.distancesFrom(19.0896, 72.8656, lats, lngs, n, scalar);
+            for (int i = 0; i < n; i++) {
+                assertEquals(scalar[i], vector[i], 1e-9 * Math.max(1.0, scalar[i]),
+                        mode + " mismatch at " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Bearing should follow compass directions and stay in [0, 360)")
+    void testBearingDegrees() {
+        assertEquals(0.0, DistanceCalculator.bearingDegrees(19.0, 72.8, 19.1, 72.8), 1e-9);
+        assertEquals(90.0, DistanceCalculator.bearingDegrees(0.0, 72.8, 0.0, 72.9), 1e-9);
+        assertEquals(180.0, DistanceCalculator.bearingDegrees(19.1, 72.8, 19.0, 72.8), 1e-9);
+        assertEquals(270.0, DistanceCalculator.bearingDegrees(0.0, 72.9, 0.0, 72.8), 1e-9);
+
+        // Airport → CST heads south-southwest
+        double bearing = DistanceCalculator.bearingDegrees(19.0896, 72.8656, 18.9398, 72.8355);
+        assertTrue(bearing > 180 && bearing < 200, "Expected SSW, got: " + bearing);
+    }
+
+    @Test
+    @DisplayName("directKm should prefer the stored value and fall back to haversine")
+    void testDirectKm() {
+        RideRequest stored = RideRequest.builder()
+                .pickupLat(19.0896).pickupLng(72.8656).dropLat(18.9398).dropLng(72.8355)
+                .directKm(42.0)
+                .build();
+        assertEquals(42.0, DistanceCalculator.directKm(stored));
+
+        RideRequest unsaved = RideRequest.builder()
+                .pickupLat(19.0896).pickupLng(72.8656).dropLat(18.9398).dropLng(72.8355)
+                .build();
+        assertEquals(DistanceCalculator.calculateKm(19.0896, 72.8656, 18.9398, 72.8355),
+                DistanceCalculator.directKm(unsaved));
+    }
 }
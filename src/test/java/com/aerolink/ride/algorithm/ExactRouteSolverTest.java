@@ -0,0 +1,128 @@
+package com.aerolink.ride.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("ExactRouteSolver - Pickup/Drop Route DP Tests")
+class ExactRouteSolverTest {
+
+    private static final long NO_BUDGET = Long.MAX_VALUE / 2;
+
+    @Test
+    @DisplayName("Should match brute force on random pools of 1-5 riders")
+    void testMatchesBruteForce() {
+        Random random = new Random(3);
+        for (int riders = 1; riders <= 5; riders++) {
+            for (int trial = 0; trial < 20; trial++) {
+                double[] matrix = randomMatrix(random, riders);
+                int stops = 2 * riders;
+
+                int[] route = ExactRouteSolver.solve(matrix, riders, NO_BUDGET);
+
+                assertNotNull(route);
+                assertValidRoute(route, riders);
+                double expected = bruteForce(matrix, riders, new int[stops], 0, new int[riders], -1, 0.0);
+                assertEquals(expected, ExactRouteSolver.routeKm(matrix, stops, route), 1e-9,
+                        "riders=" + riders + " trial=" + trial);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should interleave pickups and drops when that is shorter")
+    void testInterleavesStops() {
+        // Two riders in a line: A picks up at 0 km, drops at 1 km; B picks up at 1.1 km, drops at 2 km
+        double[] lats = { 19.09, 19.09, 19.09, 19.09 };
+        double[] lngs = { 72.87, 72.8805, 72.8795, 72.89 };
+        double[] matrix = new double[16];
+        DistanceCalculator.distanceMatrix(lats, lngs, 4, matrix);
+
+        int[] route = ExactRouteSolver.solve(matrix, 2, NO_BUDGET);
+
+        assertArrayEquals(new int[] { 0, 2, 1, 3 }, route);
+    }
+
+    @Test
+    @DisplayName("Should solve a full 8-rider pool with valid precedence")
+    void testMaxRiders() {
+        double[] matrix = randomMatrix(new Random(5), ExactRouteSolver.MAX_RIDERS);
+
+        int[] route = ExactRouteSolver.solve(matrix, ExactRouteSolver.MAX_RIDERS, NO_BUDGET);
+
+        assertNotNull(route);
+        assertValidRoute(route, ExactRouteSolver.MAX_RIDERS);
+    }
+
+    @Test
+    @DisplayName("Should return null when the latency budget is exceeded")
+    void testBudgetExceeded() {
+        double[] matrix = randomMatrix(new Random(5), ExactRouteSolver.MAX_RIDERS);
+
+        assertNull(ExactRouteSolver.solve(matrix, ExactRouteSolver.MAX_RIDERS, 1));
+    }
+
+    @Test
+    @DisplayName("Should reject unsupported pool sizes")
+    void testRejectsTooManyRiders() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ExactRouteSolver.solve(new double[18 * 18], 9, NO_BUDGET));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExactRouteSolver.solve(new double[0], 0, NO_BUDGET));
+    }
+
+    // ---- Helpers ----
+
+    private double[] randomMatrix(Random random, int riders) {
+        int stops = 2 * riders;
+        double[] lats = new double[stops];
+        double[] lngs = new double[stops];
+        for (int i = 0; i < stops; i++) {
+            lats[i] = 19.0 + random.nextDouble() * 0.2;
+            lngs[i] = 72.8 + random.nextDouble() * 0.2;
+        }
+        double[] matrix = new double[stops * stops];
+        DistanceCalculator.distanceMatrix(lats, lngs, stops, matrix);
+        return matrix;
+    }
+
+    private void assertValidRoute(int[] route, int riders) {
+        int stops = 2 * riders;
+        assertEquals(stops, route.length);
+        boolean[] seen = new boolean[stops];
+        for (int stop : route) {
+            assertFalse(seen[stop], "Stop visited twice: " + stop);
+            if (stop >= riders) {
+                assertTrue(seen[stop - riders], "Drop before pickup for rider " + (stop - riders));
+            }
+            seen[stop] = true;
+        }
+    }
+
+    /** Exhaustive search over every precedence-respecting order. */
+    private double bruteForce(double[] matrix, int riders, int[] route, int depth, int[] phase,
+            int last, double soFar) {
+        int stops = 2 * riders;
+        if (depth == stops) {
+            return soFar;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int r = 0; r < riders; r++) {
+            if (phase[r] == 2) {
+                continue;
+            }
+            int next = phase[r] == 0 ? r : riders + r;
+            double leg = last < 0 ? 0.0 : matrix[last * stops + next];
+            phase[r]++;
+            route[depth] = next;
+            best = Math.min(best, bruteForce(matrix, riders, route, depth + 1, phase, next, soFar + leg));
+            phase[r]--;
+        }
+        return best;
+    }
+}
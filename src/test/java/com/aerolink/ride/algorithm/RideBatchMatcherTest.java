@@ -0,0 +1,118 @@
+package com.aerolink.ride.algorithm;
+
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.entity.RideRequest;
+import com.aerolink.ride.enums.PoolStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("RideBatchMatcher - Collective Matching Tests")
+class RideBatchMatcherTest {
+
+    private static final double AIRPORT_LAT = 19.09;
+    private static final double AIRPORT_LNG = 72.87;
+
+    @Test
+    @DisplayName("Should give a contested pool to the request that fits nowhere else")
+    void testFewerPoolsThanGreedy() {
+        // Each pool has one seat left; their riders head 5 km east and 5 km west
+        RidePool east = buildPool(buildRequest(AIRPORT_LAT, AIRPORT_LNG + 0.047, 3, 3.0));
+        RidePool west = buildPool(buildRequest(AIRPORT_LAT, AIRPORT_LNG - 0.047, 3, 3.0));
+        // Short hop slightly east: fits both, scores better on the east pool
+        RideRequest flexible = buildRequest(AIRPORT_LAT + 0.0045, AIRPORT_LNG + 0.001, 1, 3.0);
+        // Heads east with almost no detour tolerance: fits only the east pool
+        RideRequest strict = buildRequest(AIRPORT_LAT, AIRPORT_LNG + 0.05, 1, 0.5);
+
+        // Arrival order: the flexible rider would take the east pool first
+        assertSame(east, RideGroupingAlgorithm.findBestPool(List.of(east, west), flexible, 4));
+
+        List<RideBatchMatcher.Placement> placements = RideBatchMatcher.match(
+                List.of(flexible, strict), List.of(east, west), 4, 0.5);
+
+        assertEquals(2, placements.size());
+        assertSame(west, poolOf(placements, flexible));
+        assertSame(east, poolOf(placements, strict));
+    }
+
+    @Test
+    @DisplayName("Should group fresh compatible requests into as few new pools as seats allow")
+    void testGroupsNewRequests() {
+        List<RideRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(buildRequest(AIRPORT_LAT + 0.04, AIRPORT_LNG + 0.04 + i * 0.001, 1, 3.0));
+        }
+
+        List<RideBatchMatcher.Placement> placements = RideBatchMatcher.match(requests, List.of(), 4, 0.5);
+
+        assertEquals(6, placements.size());
+        assertSame(requests.get(0), placements.get(0).request(), "earliest request opens the first pool");
+        long[] perPool = new long[2];
+        for (RideBatchMatcher.Placement placement : placements) {
+            assertNull(placement.pool());
+            perPool[placement.newPool()]++;
+        }
+        assertArrayEquals(new long[] { 4, 2 }, perPool);
+    }
+
+    @Test
+    @DisplayName("Should not join a pool outside the search radius")
+    void testRespectsSearchRadius() {
+        RidePool pool = buildPool(buildRequest(AIRPORT_LAT + 0.04, AIRPORT_LNG + 0.04, 1, 3.0));
+        // Same trip, but picked up 2 km away
+        RideRequest request = buildRequest(AIRPORT_LAT + 0.04, AIRPORT_LNG + 0.04, 1, 3.0);
+        request.setPickupLat(AIRPORT_LAT + 0.018);
+
+        List<RideBatchMatcher.Placement> placements = RideBatchMatcher.match(
+                List.of(request), List.of(pool), 4, 0.5);
+
+        assertNull(placements.get(0).pool());
+        assertEquals(0, placements.get(0).newPool());
+    }
+
+    // ---- Helpers ----
+
+    private RidePool poolOf(List<RideBatchMatcher.Placement> placements, RideRequest request) {
+        return placements.stream()
+                .filter(p -> p.request() == request)
+                .findFirst()
+                .orElseThrow()
+                .pool();
+    }
+
+    private RideRequest buildRequest(double dropLat, double dropLng, int passengers, double maxDetour) {
+        return RideRequest.builder()
+                .id(UUID.randomUUID())
+                .pickupLat(AIRPORT_LAT)
+                .pickupLng(AIRPORT_LNG)
+                .dropLat(dropLat)
+                .dropLng(dropLng)
+                .passengerCount(passengers)
+                .luggageCount(0)
+                .maxDetourKm(maxDetour)
+                .build();
+    }
+
+    private RidePool buildPool(RideRequest member) {
+        List<RideRequest> members = new ArrayList<>();
+        members.add(member);
+        return RidePool.builder()
+                .id(UUID.randomUUID())
+                .status(PoolStatus.FORMING)
+                .totalOccupiedSeats(member.getPassengerCount())
+                .totalLuggage(member.getLuggageCount())
+                .pickupLat(member.getPickupLat())
+                .pickupLng(member.getPickupLng())
+                .dropLat(member.getDropLat())
+                .dropLng(member.getDropLng())
+                .rideRequests(members)
+                .build();
+    }
+}
@@ -10,8 +10,12 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -93,6 +97,100 @@ class RideGroupingAlgorithmTest {
         assertEquals(pool2.getId(), result.getId());
     }
 
+    @Test
+    @DisplayName("Should check detours against the looked-up route plan of pools with capacity")
+    void testUsesPlanLookup() {
+        RideRequest request = buildRequest(19.09, 72.87, 19.10, 72.88, 1, 0, 3.0);
+
+        RidePool open = buildPool(4, 4, 1, 0);
+        open.setRideRequests(List.of(buildRequest(19.09, 72.87, 19.10, 72.88, 1, 0, 3.0)));
+        RidePool full = buildPool(4, 4, 4, 0);
+
+        List<RidePool> looked = new ArrayList<>();
+        RidePool result = RideGroupingAlgorithm.findBestPool(List.of(open, full), request, 4, pool -> {
+            looked.add(pool);
+            return RouteDeviationChecker.planRoute(pool.getRideRequests());
+        });
+
+        assertSame(open, result);
+        assertEquals(List.of(open), looked);
+    }
+
+    @Test
+    @DisplayName("Pruned and parallel evaluation should pick the same pool as checking every candidate")
+    void testPrunedAndParallelMatchExhaustive() {
+        Random random = new Random(31);
+        try {
+            for (int trial = 0; trial < 40; trial++) {
+                List<RidePool> candidates = new ArrayList<>();
+                for (int p = 0; p < 5 + random.nextInt(60); p++) {
+                    RidePool pool = buildPool(4, 4, 0, 0);
+                    if (random.nextBoolean()) {
+                        pool.setCab(null);
+                    }
+                    List<RideRequest> members = new ArrayList<>();
+                    for (int r = 0; r < 1 + random.nextInt(3); r++) {
+                        members.add(randomRequest(random));
+                    }
+                    pool.setRideRequests(members);
+                    pool.setTotalOccupiedSeats(members.size());
+                    candidates.add(pool);
+                }
+                // Duplicate a pool so equal scores have to be broken by candidate order
+                RidePool twin = buildPool(4, 4, 0, 0);
+                twin.setCab(candidates.get(0).getCab());
+                twin.setRideRequests(candidates.get(0).getRideRequests());
+                twin.setTotalOccupiedSeats(candidates.get(0).getTotalOccupiedSeats());
+                candidates.add(twin);
+                RideRequest request = randomRequest(random);
+
+                RidePool expected = candidates.stream()
+                        .filter(pool -> RideGroupingAlgorithm.hasCapacity(pool, request, 4))
+                        .filter(pool -> RouteDeviationChecker.isWithinDetourTolerance(
+                                pool, request, pool.getRideRequests()))
+                        .min(Comparator.comparingDouble(pool -> RideGroupingAlgorithm.scorePool(pool, request)))
+                        .orElse(null);
+
+                RideGroupingAlgorithm.configureParallelEvaluation(false, 64);
+                assertSame(expected, RideGroupingAlgorithm.findBestPool(candidates, request, 4), "trial " + trial);
+                RideGroupingAlgorithm.configureParallelEvaluation(true, 1);
+                assertSame(expected, RideGroupingAlgorithm.findBestPool(candidates, request, 4), "trial " + trial);
+            }
+        } finally {
+            RideGroupingAlgorithm.configureParallelEvaluation(false, 64);
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel evaluation should look up every plan on the calling thread")
+    void testParallelPlanLookupOnCaller() {
+        Random random = new Random(37);
+        List<RidePool> candidates = new ArrayList<>();
+        for (int p = 0; p < 40; p++) {
+            RidePool pool = buildPool(4, 4, 1, 0);
+            pool.setRideRequests(List.of(randomRequest(random)));
+            candidates.add(pool);
+        }
+        RideRequest request = randomRequest(random);
+
+        Thread caller = Thread.currentThread();
+        Set<Thread> lookupThreads = ConcurrentHashMap.newKeySet();
+        RidePool sequential = RideGroupingAlgorithm.findBestPool(candidates, request, 4,
+                pool -> RouteDeviationChecker.planRoute(pool.getRideRequests()));
+        try {
+            RideGroupingAlgorithm.configureParallelEvaluation(true, 1);
+            RidePool parallel = RideGroupingAlgorithm.findBestPool(candidates, request, 4, pool -> {
+                lookupThreads.add(Thread.currentThread());
+                return RouteDeviationChecker.planRoute(pool.getRideRequests());
+            });
+
+            assertSame(sequential, parallel);
+            assertEquals(Set.of(caller), lookupThreads);
+        } finally {
+            RideGroupingAlgorithm.configureParallelEvaluation(false, 64);
+        }
+    }
+
     @Test
     @DisplayName("hasCapacity should validate both seats and luggage")
     void testHasCapacity() {
@@ -123,6 +221,14 @@ class RideGroupingAlgorithmTest {
                 .build();
     }
 
+    private RideRequest randomRequest(Random random) {
+        // Airport pickups, drops spread over ~15 km
+        return buildRequest(
+                19.085 + random.nextDouble() * 0.015, 72.860 + random.nextDouble() * 0.015,
+                19.00 + random.nextDouble() * 0.15, 72.82 + random.nextDouble() * 0.15,
+                1, 0, 1.0 + random.nextDouble() * 4.0);
+    }
+
     private RidePool buildPool(int totalSeats, int luggageCapacity, int occupiedSeats, int totalLuggage) {
         Cab cab = Cab.builder()
                 .id(UUID.randomUUID())
@@ -51,6 +51,33 @@ class RouteDeviationCheckerTest {
         assertFalse(RouteDeviationChecker.isWithinDetourTolerance(pool, newRequest, List.of(existing)));
     }
 
+    @Test
+    @DisplayName("Should accept when only an interleaved pickup/drop order fits the tolerance")
+    void testExactRouteRescuesGreedyRejection() {
+        RidePool pool = buildPool();
+        // Existing rider drops ~1 km east, just short of where the new rider is picked up.
+        // Greedy (all pickups, then all drops) makes them ride past their stop and back.
+        RideRequest existing = buildRequest(19.09, 72.87, 19.09, 72.8795, 0.1);
+        RideRequest newRequest = buildRequest(19.09, 72.8805, 19.09, 72.89, 0.1);
+
+        assertTrue(RouteDeviationChecker.isWithinDetourTolerance(pool, newRequest, List.of(existing)));
+    }
+
+    @Test
+    @DisplayName("Should keep the greedy verdict when the exact solver is disabled")
+    void testExactSolverDisabled() {
+        RidePool pool = buildPool();
+        RideRequest existing = buildRequest(19.09, 72.87, 19.09, 72.8795, 0.1);
+        RideRequest newRequest = buildRequest(19.09, 72.8805, 19.09, 72.89, 0.1);
+
+        RouteDeviationChecker.configureExactSolver(0, 1_000);
+        try {
+            assertFalse(RouteDeviationChecker.isWithinDetourTolerance(pool, newRequest, List.of(existing)));
+        } finally {
+            RouteDeviationChecker.configureExactSolver(6, 1_000);
+        }
+    }
+
     @Test
     @DisplayName("Should calculate positive route distance estimate")
     void testEstimateTotalRouteDistance() {
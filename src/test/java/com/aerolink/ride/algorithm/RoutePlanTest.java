@@ -0,0 +1,241 @@
+package com.aerolink.ride.algorithm;
+
+import com.aerolink.ride.entity.RideRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("RoutePlan - Insertion Detour Tests")
+class RoutePlanTest {
+
+    @Test
+    @DisplayName("Best insertion should match brute force over every pickup/drop position")
+    void testInsertionMatchesBruteForce() {
+        Random random = new Random(17);
+        int feasible = 0;
+        for (int trial = 0; trial < 200; trial++) {
+            int members = 1 + random.nextInt(4);
+            List<RideRequest> riders = new ArrayList<>();
+            for (int r = 0; r < members; r++) {
+                riders.add(randomRequest(random, 3.0 + random.nextDouble() * 3.0));
+            }
+            RoutePlan plan = RouteDeviationChecker.planRoute(riders);
+            RideRequest newRequest = randomRequest(random, random.nextDouble() * 4.0);
+
+            RoutePlan.Insertion insertion = plan.findBestInsertion(newRequest);
+            double expected = bruteForceBestAddedKm(plan, byId(riders), newRequest);
+            assertEquals(insertion != null, plan.canInsert(newRequest), "trial " + trial);
+
+            if (Double.isInfinite(expected)) {
+                assertNull(insertion, "trial " + trial);
+            } else {
+                feasible++;
+                assertNotNull(insertion, "trial " + trial);
+                assertEquals(expected, insertion.getAddedKm(), 1e-9, "trial " + trial);
+            }
+        }
+        assertTrue(feasible > 20 && feasible < 180, "Fixture should mix feasible and infeasible cases");
+    }
+
+    @Test
+    @DisplayName("withInsertion should extend the route by exactly the added distance")
+    void testWithInsertion() {
+        Random random = new Random(23);
+        for (int trial = 0; trial < 50; trial++) {
+            List<RideRequest> riders = List.of(randomRequest(random, 50.0), randomRequest(random, 50.0));
+            RoutePlan plan = RouteDeviationChecker.planRoute(riders);
+            RideRequest newRequest = randomRequest(random, 50.0);
+
+            RoutePlan.Insertion insertion = plan.findBestInsertion(newRequest);
+            assertNotNull(insertion);
+            RoutePlan extended = plan.withInsertion(newRequest, insertion);
+
+            assertEquals(plan.getStopCount() + 2, extended.getStopCount());
+            List<RideRequest> members = new ArrayList<>(riders);
+            members.add(newRequest);
+            assertEquals(members.stream().map(RideRequest::getId).toList(), extended.getRiderIds());
+            assertEquals(plan.getTotalKm() + insertion.getAddedKm(), extended.getTotalKm(), 1e-9);
+            assertEquals(routeKm(extended, byId(members)), extended.getTotalKm(), 1e-9);
+            for (int r = 0; r < 3; r++) {
+                assertTrue(extended.getSlackKm(r) >= -1e-9, "Rider " + r + " over tolerance");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("withoutRider should keep the remaining stops in order and re-measure closed gaps")
+    void testWithoutRider() {
+        Random random = new Random(29);
+        for (int trial = 0; trial < 50; trial++) {
+            List<RideRequest> riders = List.of(randomRequest(random, 50.0), randomRequest(random, 50.0),
+                    randomRequest(random, 50.0));
+            RoutePlan plan = RouteDeviationChecker.planRoute(riders);
+
+            RoutePlan reduced = plan.withoutRider(riders.get(1).getId());
+
+            assertEquals(List.of(riders.get(0).getId(), riders.get(2).getId()), reduced.getRiderIds());
+            assertEquals(4, reduced.getStopCount());
+            int out = 0;
+            for (int pos = 0; pos < plan.getStopCount(); pos++) {
+                if (plan.getRiderAt(pos) == 1) {
+                    continue;
+                }
+                assertEquals(riders.get(plan.getRiderAt(pos)).getId(),
+                        reduced.getRiderIds().get(reduced.getRiderAt(out)));
+                assertEquals(plan.isPickupAt(pos), reduced.isPickupAt(out));
+                out++;
+            }
+            assertEquals(routeKm(reduced, byId(riders)), reduced.getTotalKm(), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("withoutRider should ignore unknown riders and empty out the last one")
+    void testWithoutRiderEdgeCases() {
+        RideRequest only = buildRequest(19.09, 72.87, 19.10, 72.88, 1.0);
+        RoutePlan plan = RouteDeviationChecker.planRoute(List.of(only));
+
+        assertSame(plan, plan.withoutRider(UUID.randomUUID()));
+        assertEquals(0, plan.withoutRider(only.getId()).getStopCount());
+    }
+
+    @Test
+    @DisplayName("Any request should fit into an empty plan")
+    void testEmptyPlan() {
+        RideRequest request = buildRequest(19.09, 72.87, 19.10, 72.88, 0.0);
+
+        RoutePlan.Insertion insertion = RoutePlan.empty().findBestInsertion(request);
+
+        assertNotNull(insertion);
+        RoutePlan plan = RoutePlan.empty().withInsertion(request, insertion);
+        assertEquals(2, plan.getStopCount());
+        assertTrue(plan.isPickupAt(0));
+        assertFalse(plan.isPickupAt(1));
+        assertEquals(DistanceCalculator.calculateKm(19.09, 72.87, 19.10, 72.88), plan.getTotalKm(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Insertion mode should accept a rider whose stops fit after the existing drop")
+    void testInsertionModeInterleaves() {
+        RideRequest existing = buildRequest(19.09, 72.87, 19.09, 72.8795, 0.1);
+        RideRequest newRequest = buildRequest(19.09, 72.8805, 19.09, 72.89, 0.1);
+
+        RouteDeviationChecker.configureDetourCheckMode(RouteDeviationChecker.DetourCheckMode.INSERTION);
+        try {
+            assertTrue(RouteDeviationChecker.isWithinDetourTolerance(null, newRequest, List.of(existing)));
+        } finally {
+            RouteDeviationChecker.configureDetourCheckMode(RouteDeviationChecker.DetourCheckMode.REBUILD);
+        }
+    }
+
+    // ---- Helpers ----
+
+    /** Try every gap pair on the materialised route and return the least added km, or +∞. */
+    private double bruteForceBestAddedKm(RoutePlan plan, Map<UUID, RideRequest> requests, RideRequest newRequest) {
+        List<RideRequest> riders = plan.getRiderIds().stream().map(requests::get).toList();
+        int m = plan.getStopCount();
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i <= m; i++) {
+            for (int j = i; j <= m; j++) {
+                List<double[]> stops = new ArrayList<>();
+                List<int[]> owners = new ArrayList<>(); // {rider, isPickup}
+                for (int pos = 0; pos <= m; pos++) {
+                    if (pos == i) {
+                        stops.add(new double[] { newRequest.getPickupLat(), newRequest.getPickupLng() });
+                        owners.add(new int[] { riders.size(), 1 });
+                    }
+                    if (pos == j) {
+                        stops.add(new double[] { newRequest.getDropLat(), newRequest.getDropLng() });
+                        owners.add(new int[] { riders.size(), 0 });
+                    }
+                    if (pos < m) {
+                        RideRequest r = riders.get(plan.getRiderAt(pos));
+                        boolean pickup = plan.isPickupAt(pos);
+                        stops.add(pickup ? new double[] { r.getPickupLat(), r.getPickupLng() }
+                                : new double[] { r.getDropLat(), r.getDropLng() });
+                        owners.add(new int[] { plan.getRiderAt(pos), pickup ? 1 : 0 });
+                    }
+                }
+                double[] cumulative = new double[stops.size()];
+                for (int k = 1; k < stops.size(); k++) {
+                    cumulative[k] = cumulative[k - 1] + DistanceCalculator.calculateKm(
+                            stops.get(k - 1)[0], stops.get(k - 1)[1], stops.get(k)[0], stops.get(k)[1]);
+                }
+                boolean ok = true;
+                for (int r = 0; r <= riders.size() && ok; r++) {
+                    RideRequest rider = r < riders.size() ? riders.get(r) : newRequest;
+                    int pickupAt = -1;
+                    int dropAt = -1;
+                    for (int k = 0; k < owners.size(); k++) {
+                        if (owners.get(k)[0] == r) {
+                            if (owners.get(k)[1] == 1) {
+                                pickupAt = k;
+                            } else {
+                                dropAt = k;
+                            }
+                        }
+                    }
+                    double direct = DistanceCalculator.calculateKm(rider.getPickupLat(), rider.getPickupLng(),
+                            rider.getDropLat(), rider.getDropLng());
+                    ok = cumulative[dropAt] - cumulative[pickupAt] - direct <= rider.getMaxDetourKm();
+                }
+                if (ok) {
+                    best = Math.min(best, cumulative[cumulative.length - 1] - plan.getTotalKm());
+                }
+            }
+        }
+        return best;
+    }
+
+    private double routeKm(RoutePlan plan, Map<UUID, RideRequest> requests) {
+        List<RideRequest> riders = plan.getRiderIds().stream().map(requests::get).toList();
+        double total = 0.0;
+        double[] prev = null;
+        for (int pos = 0; pos < plan.getStopCount(); pos++) {
+            RideRequest r = riders.get(plan.getRiderAt(pos));
+            double[] stop = plan.isPickupAt(pos) ? new double[] { r.getPickupLat(), r.getPickupLng() }
+                    : new double[] { r.getDropLat(), r.getDropLng() };
+            if (prev != null) {
+                total += DistanceCalculator.calculateKm(prev[0], prev[1], stop[0], stop[1]);
+            }
+            prev = stop;
+        }
+        return total;
+    }
+
+    private Map<UUID, RideRequest> byId(List<RideRequest> requests) {
+        return requests.stream().collect(Collectors.toMap(RideRequest::getId, Function.identity()));
+    }
+
+    private RideRequest randomRequest(Random random, double maxDetour) {
+        // Airport pickups, drops spread over ~15 km
+        return buildRequest(
+                19.085 + random.nextDouble() * 0.015, 72.860 + random.nextDouble() * 0.015,
+                19.00 + random.nextDouble() * 0.15, 72.82 + random.nextDouble() * 0.15,
+                maxDetour);
+    }
+
+    private RideRequest buildRequest(double pLat, double pLng, double dLat, double dLng, double maxDetour) {
+        return RideRequest.builder()
+                .id(UUID.randomUUID())
+                .pickupLat(pLat)
+                .pickupLng(pLng)
+                .dropLat(dLat)
+                .dropLng(dLng)
+                .passengerCount(1)
+                .luggageCount(0)
+                .maxDetourKm(maxDetour)
+                .build();
+    }
+}
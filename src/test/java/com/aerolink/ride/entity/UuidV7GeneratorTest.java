@@ -0,0 +1,60 @@
+package com.aerolink.ride.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("UuidV7Generator - Time-Ordered Id Tests")
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("Should set version 7, the RFC variant and the current time")
+    void testLayout() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1, "timestamp " + millis + " not in [" + before
+                + ", " + after + "]");
+    }
+
+    @Test
+    @DisplayName("Should be strictly increasing in database (unsigned byte) order")
+    void testMonotonic() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7Generator.next());
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(unsignedCompare(ids.get(i - 1), ids.get(i)) < 0,
+                    ids.get(i - 1) + " not before " + ids.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay unique across threads")
+    void testUniqueAcrossThreads() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(UuidV7Generator.next()));
+        assertEquals(200_000, ids.size());
+    }
+
+    /** PostgreSQL orders uuid values by their bytes, i.e. as unsigned 128-bit numbers. */
+    private static int unsignedCompare(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,128 @@
+package com.aerolink.ride.integration;
+
+import com.aerolink.ride.enums.RideStatus;
+import com.aerolink.ride.repository.RideRequestRepository;
+import com.aerolink.ride.service.PoolDispatchScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The active-ride queries bound {@code created_at}: pool member queries by
+ * the pool's age, passenger lookups by
+ * {@link RideRequestRepository#ACTIVE_HORIZON}, which the expiry sweep keeps
+ * true. No active ride may fall out of them.
+ */
+@Tag("integration")
+@DisplayName("Active Horizon Integration Tests")
+class ActiveHorizonIntegrationTest extends BaseIntegrationTest {
+
+    private static final UUID OLD_PASSENGER_ID = UUID.fromString("a1b2c3d4-1111-1111-1111-000000000001");
+    private static final UUID NEW_PASSENGER_ID = UUID.fromString("a1b2c3d4-1111-1111-1111-000000000002");
+
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+
+    @Autowired
+    private PoolDispatchScheduler poolDispatchScheduler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("A pool older than the horizon should still see and move its riders")
+    void testOldPoolKeepsItsRiders() {
+        LocalDateTime createdAt = LocalDateTime.now().minus(RideRequestRepository.ACTIVE_HORIZON).minusDays(3);
+        UUID poolId = seedPool("CONFIRMED", createdAt);
+        UUID rideId = seedRide(OLD_PASSENGER_ID, poolId, "CONFIRMED", createdAt);
+
+        assertEquals(1, rideRequestRepository.findActiveRequestsByPoolId(poolId).size());
+        assertEquals(1, rideRequestRepository.findActiveResponsesByPoolId(poolId).size());
+
+        int updated = transactionTemplate.execute(status -> rideRequestRepository
+                .updateActiveRequestStatusByPoolId(poolId, RideStatus.IN_PROGRESS));
+
+        assertEquals(1, updated);
+        assertEquals("IN_PROGRESS", rideStatus(rideId));
+    }
+
+    @Test
+    @DisplayName("The expiry sweep should end a ride before it passes the horizon")
+    void testExpirySweepEndsRideBeforeHorizon() {
+        LocalDateTime oldCreatedAt = LocalDateTime.now().minus(RideRequestRepository.ACTIVE_HORIZON).plusHours(12);
+        UUID oldPoolId = seedPool("IN_PROGRESS", oldCreatedAt.minus(RideRequestRepository.POOL_MEMBER_SLACK));
+        UUID oldRideId = seedRide(OLD_PASSENGER_ID, oldPoolId, "IN_PROGRESS", oldCreatedAt);
+        LocalDateTime newCreatedAt = LocalDateTime.now().minusHours(1);
+        UUID newPoolId = seedPool("IN_PROGRESS", newCreatedAt);
+        UUID newRideId = seedRide(NEW_PASSENGER_ID, newPoolId, "IN_PROGRESS", newCreatedAt);
+        assertTrue(rideRequestRepository.hasActiveRide(OLD_PASSENGER_ID));
+
+        poolDispatchScheduler.expireRidesPastHorizon();
+
+        assertEquals("CANCELLED", rideStatus(oldRideId));
+        assertEquals("DISSOLVED", poolStatus(oldPoolId));
+        assertFalse(rideRequestRepository.hasActiveRide(OLD_PASSENGER_ID));
+
+        assertEquals("IN_PROGRESS", rideStatus(newRideId));
+        assertEquals("IN_PROGRESS", poolStatus(newPoolId));
+        assertTrue(rideRequestRepository.hasActiveRide(NEW_PASSENGER_ID));
+    }
+
+    @Test
+    @DisplayName("Stale cleanup should cancel an old active ride")
+    void testStaleCleanupCancelsOldRide() {
+        LocalDateTime createdAt = LocalDateTime.now().minus(RideRequestRepository.ACTIVE_HORIZON).minusDays(3);
+        UUID poolId = seedPool("FORMING", createdAt);
+        UUID rideId = seedRide(OLD_PASSENGER_ID, poolId, "POOLED", createdAt);
+
+        poolDispatchScheduler.cleanupStalePools();
+
+        assertEquals("CANCELLED", rideStatus(rideId));
+        assertEquals("DISSOLVED", poolStatus(poolId));
+    }
+
+    // ---- Helpers ----
+
+    private UUID seedPool(String status, LocalDateTime createdAt) {
+        UUID poolId = UUID.randomUUID();
+        // Window still open, so the dispatch sweep leaves a FORMING pool alone
+        Timestamp windowExpiresAt = Timestamp.valueOf(LocalDateTime.now().plusHours(1));
+        jdbcTemplate.update("""
+                INSERT INTO ride_pools (id, status, total_occupied_seats, total_luggage, pickup_lat, pickup_lng,
+                                        drop_lat, drop_lng, window_expires_at, created_at)
+                VALUES (?, ?, 1, 0, 19.09, 72.86, 19.05, 72.85, ?, ?)
+                """, poolId, status, windowExpiresAt, Timestamp.valueOf(createdAt));
+        return poolId;
+    }
+
+    private UUID seedRide(UUID passengerId, UUID poolId, String status, LocalDateTime createdAt) {
+        UUID rideId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO ride_requests (id, passenger_id, pickup_lat, pickup_lng, drop_lat, drop_lng, status,
+                                           ride_pool_id, idempotency_key, direct_km, trip_bearing, created_at)
+                VALUES (?, ?, 19.09, 72.86, 19.05, 72.85, ?, ?, ?, 4.8, 200.0, ?)
+                """, rideId, passengerId, status, poolId, "active-horizon-" + UUID.randomUUID(),
+                Timestamp.valueOf(createdAt));
+        return rideId;
+    }
+
+    private String rideStatus(UUID rideId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM ride_requests WHERE id = ?", String.class, rideId);
+    }
+
+    private String poolStatus(UUID poolId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM ride_pools WHERE id = ?", String.class, poolId);
+    }
+}
@@ -0,0 +1,279 @@
+package com.aerolink.ride.integration;
+
+import com.aerolink.ride.entity.Cab;
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.enums.CabStatus;
+import com.aerolink.ride.repository.CabRepository;
+import com.aerolink.ride.repository.RidePoolRepository;
+import com.aerolink.ride.service.PoolDispatchScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several scheduler instances are simulated by threads that each run the
+ * sweep's claim-and-dispatch loop against the same database. They share
+ * this JVM's dispatch connection budget, so these tests check that claims
+ * are disjoint, not that instances add throughput.
+ *
+ * <p>
+ * Runs on its own PostGIS Testcontainer, like the query plan guard, so the
+ * spatial cab claims and {@code SKIP LOCKED} are exercised on the real
+ * engine and extension. Redis and RabbitMQ still come from the integration
+ * profile.
+ * </p>
+ */
+@Tag("integration")
+@DisplayName("Dispatch Claim Integration Tests")
+class DispatchClaimIntegrationTest extends BaseIntegrationTest {
+
+    private static final String PASSENGER_ID = "a1b2c3d4-1111-1111-1111-000000000001";
+    private static final String TEST_CAB_PREFIX = "TEST-CLAIM-";
+    private static final int POOLS = 200;
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgis/postgis:15-3.4").asCompatibleSubstituteFor("postgres"));
+
+    static {
+        // Started before the Spring context reads the datasource URL
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private PoolDispatchScheduler poolDispatchScheduler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CabRepository cabRepository;
+
+    @Autowired
+    private RidePoolRepository ridePoolRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void removeTestCabs() {
+        jdbcTemplate.update("DELETE FROM pricing_records");
+        jdbcTemplate.update("DELETE FROM ride_requests");
+        jdbcTemplate.update("DELETE FROM ride_pools");
+        jdbcTemplate.update("DELETE FROM cabs WHERE license_plate LIKE ?", TEST_CAB_PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("Should dispatch every ready pool exactly once across concurrent instances")
+    void testInstancesClaimDisjointPools() throws Exception {
+        seedReadyPools(POOLS);
+
+        List<List<Integer>> claims = runInstances(4);
+
+        int claimed = claims.stream().flatMap(List::stream).mapToInt(Integer::intValue).sum();
+        assertTrue(claimed <= POOLS, "a pool was claimed twice: " + claimed + " claims for " + POOLS + " pools");
+        assertEquals(POOLS, count("SELECT COUNT(*) FROM ride_pools WHERE status = 'CONFIRMED'"));
+        assertEquals(POOLS, count("SELECT COUNT(DISTINCT cab_id) FROM ride_pools WHERE status = 'CONFIRMED'"),
+                "a cab was assigned to two pools");
+    }
+
+    @Test
+    @DisplayName("Should hand concurrent instances disjoint sets of pools that together cover the backlog")
+    void testConcurrentClaimsAreDisjoint() throws Exception {
+        seedReadyPools(POOLS);
+        int instances = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(instances);
+        List<Future<Set<UUID>>> futures = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            futures.add(executor.submit(() -> {
+                Set<UUID> claimed = new HashSet<>();
+                List<UUID> batch;
+                do {
+                    LocalDateTime now = LocalDateTime.now();
+                    batch = transactionTemplate.execute(status -> ridePoolRepository.claimReadyPools(
+                            now, now.minusSeconds(30), 10));
+                    claimed.addAll(batch);
+                } while (!batch.isEmpty());
+                return claimed;
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(120, TimeUnit.SECONDS), "Claims did not finish in time");
+
+        Set<UUID> all = new HashSet<>();
+        for (Future<Set<UUID>> future : futures) {
+            for (UUID poolId : future.get()) {
+                assertTrue(all.add(poolId), "pool " + poolId + " was claimed by two instances");
+            }
+        }
+        assertEquals(POOLS, all.size(), "a ready pool was never claimed");
+    }
+
+    @Test
+    @DisplayName("Should claim the nearest cab, and distinct cabs under concurrent claims")
+    void testClaimNearestAvailableCab() throws Exception {
+        // Ten test cabs north of a point far from the seed cabs, ~110 m apart
+        double lat = 18.50;
+        double lng = 73.50;
+        List<Object[]> cabRows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            cabRows.add(new Object[] { UUID.randomUUID(), TEST_CAB_PREFIX + i, "Claim Test " + i,
+                    lat + (i + 1) * 0.001, lng });
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO cabs (id, license_plate, driver_name, current_lat, current_lng, status)
+                VALUES (?, ?, ?, ?, ?, 'AVAILABLE')
+                """, cabRows);
+
+        UUID nearest = transactionTemplate.execute(
+                status -> cabRepository.claimNearestAvailable(lat, lng, 1.5, 1, 0).orElse(null));
+        assertNotNull(nearest);
+        assertEquals(TEST_CAB_PREFIX + 0, jdbcTemplate.queryForObject(
+                "SELECT license_plate FROM cabs WHERE id = ?", String.class, nearest));
+        assertEquals("ASSIGNED", jdbcTemplate.queryForObject(
+                "SELECT status FROM cabs WHERE id = ?", String.class, nearest));
+        UUID again = transactionTemplate.execute(
+                status -> cabRepository.claimIfAvailable(nearest).orElse(null));
+        assertNull(again, "an ASSIGNED cab was claimed again");
+
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        List<Future<UUID>> futures = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            futures.add(executor.submit(() -> transactionTemplate.execute(
+                    status -> cabRepository.claimNearestAvailable(lat, lng, 1.5, 1, 0).orElse(null))));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "Claims did not finish in time");
+
+        Set<UUID> claimed = new HashSet<>();
+        for (Future<UUID> future : futures) {
+            UUID cabId = future.get();
+            assertNotNull(cabId, "a claim found no cab while free ones were left");
+            assertTrue(claimed.add(cabId), "cab " + cabId + " was claimed twice");
+        }
+        UUID extra = transactionTemplate.execute(
+                status -> cabRepository.claimNearestAvailable(lat, lng, 1.5, 1, 0).orElse(null));
+        assertNull(extra, "claimed a cab after all were taken");
+    }
+
+    @Test
+    @DisplayName("Should assign the claimed cab as ASSIGNED when a stale copy is already loaded")
+    void testClaimRefreshesLoadedCab() {
+        seedReadyPools(1);
+        UUID poolId = jdbcTemplate.queryForObject("SELECT id FROM ride_pools WHERE status = 'FORMING'", UUID.class);
+        UUID cabId = jdbcTemplate.queryForObject(
+                "SELECT id FROM cabs WHERE license_plate = ?", UUID.class, TEST_CAB_PREFIX + 0);
+
+        CabStatus assignedStatus = transactionTemplate.execute(status -> {
+            // Loaded before the claim, so the persistence context holds it as AVAILABLE
+            Cab loaded = cabRepository.findById(cabId).orElseThrow();
+            poolDispatchScheduler.dispatchPool(poolId, cabId);
+            RidePool pool = ridePoolRepository.findById(poolId).orElseThrow();
+            assertSame(loaded, pool.getCab());
+            return loaded.getStatus();
+        });
+
+        assertEquals(CabStatus.ASSIGNED, assignedStatus);
+        assertEquals("ASSIGNED", jdbcTemplate.queryForObject(
+                "SELECT status FROM cabs WHERE id = ?", String.class, cabId));
+        assertEquals(cabId, jdbcTemplate.queryForObject(
+                "SELECT cab_id FROM ride_pools WHERE id = ?", UUID.class, poolId));
+    }
+
+    // ---- Helpers ----
+
+    /**
+     * Run the claim-and-dispatch loop on {@code n} threads until no ready
+     * pool is left; returns each thread's claim sizes.
+     */
+    private List<List<Integer>> runInstances(int n) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(n);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            futures.add(executor.submit(() -> {
+                List<Integer> claims = new ArrayList<>();
+                int claimed;
+                while ((claimed = poolDispatchScheduler.claimAndDispatchReadyPools()) > 0) {
+                    claims.add(claimed);
+                }
+                return claims;
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(300, TimeUnit.SECONDS), "Dispatch did not finish in time");
+
+        List<List<Integer>> claims = new ArrayList<>();
+        for (Future<List<Integer>> future : futures) {
+            claims.add(future.get());
+        }
+        return claims;
+    }
+
+    /**
+     * Seed expired FORMING pools of one rider each, spread over ~10 km, with
+     * one AVAILABLE cab next to each pickup.
+     */
+    private void seedReadyPools(int pools) {
+        Timestamp expired = Timestamp.valueOf(LocalDateTime.now().minusMinutes(1));
+        List<Object[]> poolRows = new ArrayList<>();
+        List<Object[]> riderRows = new ArrayList<>();
+        List<Object[]> cabRows = new ArrayList<>();
+        for (int i = 0; i < pools; i++) {
+            UUID poolId = UUID.randomUUID();
+            double lat = 19.00 + (i % 20) * 0.005;
+            double lng = 72.80 + (i / 20) * 0.005;
+            poolRows.add(new Object[] { poolId, lat, lng, lat + 0.05, lng + 0.05, expired });
+            riderRows.add(new Object[] { UUID.randomUUID(), UUID.fromString(PASSENGER_ID), lat, lng,
+                    lat + 0.05, lng + 0.05, poolId, "claim-test-" + UUID.randomUUID() });
+            cabRows.add(new Object[] { UUID.randomUUID(), TEST_CAB_PREFIX + i, "Claim Test " + i,
+                    lat + 0.0005, lng });
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO ride_pools (id, status, total_occupied_seats, total_luggage, pickup_lat, pickup_lng,
+                                        drop_lat, drop_lng, window_expires_at)
+                VALUES (?, 'FORMING', 1, 0, ?, ?, ?, ?, ?)
+                """, poolRows);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO ride_requests (id, passenger_id, pickup_lat, pickup_lng, drop_lat, drop_lng,
+                                           status, ride_pool_id, idempotency_key, direct_km, trip_bearing)
+                VALUES (?, ?, ?, ?, ?, ?, 'POOLED', ?, ?, 7.5, 45.0)
+                """, riderRows);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO cabs (id, license_plate, driver_name, current_lat, current_lng, status)
+                VALUES (?, ?, ?, ?, ?, 'AVAILABLE')
+                """, cabRows);
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+}
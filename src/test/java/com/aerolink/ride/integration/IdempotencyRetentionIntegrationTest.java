@@ -0,0 +1,116 @@
+package com.aerolink.ride.integration;
+
+import com.aerolink.ride.dto.request.RideRequestDTO;
+import com.aerolink.ride.dto.response.ErrorResponseDTO;
+import com.aerolink.ride.dto.response.RideResponseDTO;
+import com.aerolink.ride.service.RideArchiver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotency keys of archived rides: still rejected within the retention
+ * window, deleted (and so reusable) after it.
+ */
+@Tag("integration")
+@DisplayName("Idempotency Key Retention Integration Tests")
+@TestPropertySource(properties = {
+        "aerolink.archive.directory=target/test-archive",
+        "aerolink.archive.older-than-days=30",
+        "aerolink.archive.idempotency-key-retention-days=90"
+})
+class IdempotencyRetentionIntegrationTest extends BaseIntegrationTest {
+
+    private static final UUID PASSENGER_ID = UUID.fromString("a1b2c3d4-1111-1111-1111-000000000001");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private RideArchiver rideArchiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String retainedKey;
+    private String expiredKey;
+
+    @BeforeEach
+    void seedArchivedRides() {
+        retainedKey = "retained-" + UUID.randomUUID();
+        expiredKey = "expired-" + UUID.randomUUID();
+        seedCancelledRide(retainedKey, LocalDateTime.now().minusDays(40));
+        seedCancelledRide(expiredKey, LocalDateTime.now().minusDays(120));
+
+        assertEquals(2, rideArchiver.archive());
+        assertEquals(0, count("SELECT COUNT(*) FROM ride_requests WHERE idempotency_key IN (?, ?)",
+                retainedKey, expiredKey));
+    }
+
+    @Test
+    @DisplayName("A replayed key of an archived ride should be rejected with 409")
+    void testReplayOfArchivedKey() {
+        assertEquals(1, count("SELECT COUNT(*) FROM ride_request_idempotency_keys WHERE idempotency_key = ?",
+                retainedKey));
+
+        ResponseEntity<ErrorResponseDTO> replay = restTemplate.postForEntity(
+                "/api/v1/rides", request(retainedKey), ErrorResponseDTO.class);
+
+        assertEquals(HttpStatus.CONFLICT, replay.getStatusCode());
+        assertEquals(0, count("SELECT COUNT(*) FROM ride_requests WHERE idempotency_key = ?", retainedKey));
+    }
+
+    @Test
+    @DisplayName("A key past the retention window should be deleted and accepted again")
+    void testExpiredKeyIsDeleted() {
+        assertEquals(0, count("SELECT COUNT(*) FROM ride_request_idempotency_keys WHERE idempotency_key = ?",
+                expiredKey));
+
+        ResponseEntity<RideResponseDTO> booking = restTemplate.postForEntity(
+                "/api/v1/rides", request(expiredKey), RideResponseDTO.class);
+
+        assertEquals(HttpStatus.CREATED, booking.getStatusCode());
+    }
+
+    // ---- Helpers ----
+
+    private void seedCancelledRide(String idempotencyKey, LocalDateTime createdAt) {
+        jdbcTemplate.update("""
+                INSERT INTO ride_requests (id, passenger_id, pickup_lat, pickup_lng, drop_lat, drop_lng, status,
+                                           idempotency_key, direct_km, trip_bearing, created_at)
+                VALUES (?, ?, 19.09, 72.86, 19.05, 72.85, 'CANCELLED', ?, 4.8, 200.0, ?)
+                """, UUID.randomUUID(), PASSENGER_ID, idempotencyKey, Timestamp.valueOf(createdAt));
+    }
+
+    private RideRequestDTO request(String idempotencyKey) {
+        return RideRequestDTO.builder()
+                .passengerId(PASSENGER_ID)
+                .pickupLat(19.0900)
+                .pickupLng(72.8660)
+                .dropLat(19.0500)
+                .dropLng(72.8500)
+                .passengerCount(1)
+                .luggageCount(0)
+                .maxDetourKm(3.0)
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count != null ? count : 0;
+    }
+}
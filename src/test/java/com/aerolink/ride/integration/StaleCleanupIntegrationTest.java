@@ -0,0 +1,107 @@
+package com.aerolink.ride.integration;
+
+import com.aerolink.ride.service.PoolDispatchScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Startup cleanup after a crash that left many pools mid-formation.
+ */
+@Tag("integration")
+@DisplayName("Stale Pool Cleanup Integration Tests")
+class StaleCleanupIntegrationTest extends BaseIntegrationTest {
+
+    private static final String PASSENGER_ID = "a0000000-0000-0000-0000-000000000001";
+    private static final String TEST_CAB_PREFIX = "TEST-STALE-";
+    private static final int POOLS = 10_000;
+    private static final int DISPATCHING_POOLS = 100;
+
+    @Autowired
+    private PoolDispatchScheduler poolDispatchScheduler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void removeTestData() {
+        jdbcTemplate.update("DELETE FROM ride_requests");
+        jdbcTemplate.update("DELETE FROM ride_pools");
+        jdbcTemplate.update("DELETE FROM cabs WHERE license_plate LIKE ?", TEST_CAB_PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("Should dissolve 10k stale pools with set-based updates")
+    void testCleanupOfTenThousandStalePools() {
+        seedStalePools();
+
+        long start = System.nanoTime();
+        poolDispatchScheduler.cleanupStalePools();
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("Startup cleanup of %d stale pools: %.0f ms%n", POOLS, millis);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM ride_pools WHERE status IN ('FORMING', 'DISPATCHING')"));
+        assertEquals(POOLS, count("SELECT COUNT(*) FROM ride_pools WHERE status = 'DISSOLVED'"));
+        assertEquals(POOLS, count("SELECT COUNT(*) FROM ride_requests WHERE status = 'CANCELLED'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM cabs WHERE license_plate LIKE '" + TEST_CAB_PREFIX
+                + "%' AND status <> 'AVAILABLE'"));
+        assertTrue(millis < 5_000, "cleanup of " + POOLS + " stale pools took " + millis + " ms");
+    }
+
+    // ---- Helpers ----
+
+    /**
+     * Seed FORMING pools of one rider each; the first few are DISPATCHING
+     * and hold an ASSIGNED test cab.
+     */
+    private void seedStalePools() {
+        Timestamp expired = Timestamp.valueOf(LocalDateTime.now().minusMinutes(10));
+        List<Object[]> cabRows = new ArrayList<>();
+        List<Object[]> poolRows = new ArrayList<>();
+        List<Object[]> riderRows = new ArrayList<>();
+        for (int i = 0; i < POOLS; i++) {
+            UUID poolId = UUID.randomUUID();
+            UUID cabId = null;
+            if (i < DISPATCHING_POOLS) {
+                cabId = UUID.randomUUID();
+                cabRows.add(new Object[] { cabId, TEST_CAB_PREFIX + i, "Stale Test " + i });
+            }
+            double lat = 19.00 + (i % 100) * 0.001;
+            double lng = 72.80 + (i / 100) * 0.001;
+            poolRows.add(new Object[] { poolId, i < DISPATCHING_POOLS ? "DISPATCHING" : "FORMING", cabId,
+                    lat, lng, lat + 0.05, lng + 0.05, expired });
+            riderRows.add(new Object[] { UUID.randomUUID(), UUID.fromString(PASSENGER_ID), lat, lng,
+                    lat + 0.05, lng + 0.05, poolId, "stale-test-" + UUID.randomUUID() });
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO cabs (id, license_plate, driver_name, current_lat, current_lng, status)
+                VALUES (?, ?, ?, 19.0, 72.8, 'ASSIGNED')
+                """, cabRows);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO ride_pools (id, status, cab_id, total_occupied_seats, total_luggage, pickup_lat,
+                                        pickup_lng, drop_lat, drop_lng, window_expires_at)
+                VALUES (?, ?, ?, 1, 0, ?, ?, ?, ?, ?)
+                """, poolRows);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO ride_requests (id, passenger_id, pickup_lat, pickup_lng, drop_lat, drop_lng,
+                                           status, ride_pool_id, idempotency_key, direct_km, trip_bearing)
+                VALUES (?, ?, ?, ?, ?, ?, 'POOLED', ?, ?, 7.5, 45.0)
+                """, riderRows);
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+}
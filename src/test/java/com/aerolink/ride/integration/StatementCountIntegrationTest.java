@@ -0,0 +1,162 @@
+package com.aerolink.ride.integration;
+
+import com.aerolink.ride.dto.request.RideRequestDTO;
+import com.aerolink.ride.dto.response.CabResponseDTO;
+import com.aerolink.ride.dto.response.PoolResponseDTO;
+import com.aerolink.ride.dto.response.RideResponseDTO;
+import com.aerolink.ride.service.RidePoolingService.PassengerDashboardData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Read endpoints issue a fixed number of SQL statements, however many riders
+ * a pool or passenger has or cabs are busy: each response comes from
+ * projection queries, not from entities whose lazy associations load one row
+ * at a time.
+ */
+@Tag("integration")
+@DisplayName("Statement Count Integration Tests")
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Keep the dispatch sweep's statements out of the counts
+        "aerolink.pooling.dispatch-interval-ms=3600000"
+})
+class StatementCountIntegrationTest extends BaseIntegrationTest {
+
+    private static final List<UUID> PASSENGERS = List.of(
+            UUID.fromString("a1b2c3d4-1111-1111-1111-000000000001"),
+            UUID.fromString("a1b2c3d4-1111-1111-1111-000000000002"),
+            UUID.fromString("a1b2c3d4-1111-1111-1111-000000000003"));
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private List<RideResponseDTO> rides;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Three nearby riders heading the same way share one pool
+        rides = new ArrayList<>();
+        for (int i = 0; i < PASSENGERS.size(); i++) {
+            RideRequestDTO request = RideRequestDTO.builder()
+                    .passengerId(PASSENGERS.get(i))
+                    .pickupLat(19.0900 + i * 0.0005)
+                    .pickupLng(72.8660 + i * 0.0005)
+                    .dropLat(19.0500 + i * 0.0005)
+                    .dropLng(72.8500 + i * 0.0005)
+                    .passengerCount(1)
+                    .luggageCount(0)
+                    .maxDetourKm(5.0)
+                    .idempotencyKey("statement-count-" + i + "-" + UUID.randomUUID())
+                    .build();
+            ResponseEntity<RideResponseDTO> response = restTemplate.postForEntity(
+                    "/api/v1/rides", request, RideResponseDTO.class);
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            rides.add(response.getBody());
+        }
+        assertTrue(rides.stream().allMatch(ride -> ride.getRidePoolId().equals(rides.get(0).getRidePoolId())),
+                "Test rides should share a pool");
+    }
+
+    @Test
+    @DisplayName("GET /rides/{id} takes one statement")
+    void testGetRide() {
+        RideResponseDTO ride = countStatements(1, () -> restTemplate.getForObject(
+                "/api/v1/rides/" + rides.get(0).getId(), RideResponseDTO.class));
+
+        assertEquals("Rahul Sharma", ride.getPassengerName());
+        assertEquals(rides.get(0).getRidePoolId(), ride.getRidePoolId());
+    }
+
+    @Test
+    @DisplayName("GET /rides/pool/{poolId} takes two statements for three riders")
+    void testGetPool() {
+        PoolResponseDTO pool = countStatements(2, () -> restTemplate.getForObject(
+                "/api/v1/rides/pool/" + rides.get(0).getRidePoolId(), PoolResponseDTO.class));
+
+        assertEquals(3, pool.getRiders().size());
+        assertEquals(3, pool.getTotalOccupiedSeats());
+        assertTrue(pool.getRiders().stream().allMatch(rider -> rider.getPassengerName() != null));
+    }
+
+    @Test
+    @DisplayName("GET /rides/passenger/{id}/dashboard takes five statements")
+    void testGetPassengerDashboard() {
+        // Passenger, active ride, its pool, the pool's riders, ride history
+        PassengerDashboardData dashboard = countStatements(5, () -> restTemplate.getForObject(
+                "/api/v1/rides/passenger/" + PASSENGERS.get(0) + "/dashboard", PassengerDashboardData.class));
+
+        assertEquals(rides.get(0).getId(), dashboard.activeRide().getId());
+        assertEquals(3, dashboard.activePool().getRiders().size());
+        assertEquals(1, dashboard.rideHistory().size());
+    }
+
+    @Test
+    @DisplayName("GET /rides takes one statement per page")
+    void testGetRides() {
+        RideResponseDTO[] page = countStatements(1, () -> restTemplate.getForObject(
+                "/api/v1/rides?limit=2", RideResponseDTO[].class));
+
+        assertEquals(2, page.length);
+    }
+
+    @Test
+    @DisplayName("GET /cabs takes one statement, busy cabs included")
+    void testGetCabs() {
+        // Dispatch the pool by hand so one cab is busy
+        UUID poolId = rides.get(0).getRidePoolId();
+        UUID cabId = jdbcTemplate.queryForObject("SELECT id FROM cabs ORDER BY created_at, id LIMIT 1", UUID.class);
+        jdbcTemplate.update("UPDATE cabs SET status = 'ASSIGNED' WHERE id = ?", cabId);
+        jdbcTemplate.update("UPDATE ride_pools SET cab_id = ?, status = 'CONFIRMED' WHERE id = ?", cabId, poolId);
+
+        CabResponseDTO[] cabs = countStatements(1, () -> restTemplate.getForObject(
+                "/api/v1/cabs", CabResponseDTO[].class));
+
+        CabResponseDTO assigned = Arrays.stream(cabs)
+                .filter(cab -> cab.getId().equals(cabId))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(poolId, assigned.getPoolId());
+        assertEquals(assigned.getTotalSeats() - 3, assigned.getRemainingSeats());
+        assertEquals(assigned.getLuggageCapacity(), assigned.getRemainingLuggage());
+        assertTrue(Arrays.stream(cabs)
+                .filter(cab -> !cab.getId().equals(cabId))
+                .allMatch(cab -> cab.getPoolId() == null && cab.getRemainingSeats() == cab.getTotalSeats()));
+    }
+
+    private <T> T countStatements(long expected, Supplier<T> call) {
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements issued");
+        assertNotNull(result);
+        return result;
+    }
+}
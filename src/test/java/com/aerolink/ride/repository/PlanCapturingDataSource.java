@@ -0,0 +1,117 @@
+package com.aerolink.ride.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DataSource wrapper for {@link QueryPlanGuardTest}: while recording, each
+ * prepared statement Hibernate executes is first run as
+ * {@code EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON)} with the same SQL and the
+ * same bound parameters. The EXPLAIN runs inside a savepoint that is rolled
+ * back, so the statement itself still sees unchanged data. Recording needs
+ * an open transaction.
+ */
+class PlanCapturingDataSource extends DelegatingDataSource {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate");
+
+    /** One explained statement: its SQL and the EXPLAIN JSON entry. */
+    record CapturedPlan(String sql, JsonNode explain) {
+    }
+
+    private record Binding(Method setter, Object[] args) {
+    }
+
+    private List<CapturedPlan> plans;
+
+    PlanCapturingDataSource(DataSource target) {
+        super(target);
+    }
+
+    void startRecording() {
+        plans = new ArrayList<>();
+    }
+
+    List<CapturedPlan> stopRecording() {
+        List<CapturedPlan> recorded = plans;
+        plans = null;
+        return recorded;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return capturing(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return capturing(super.getConnection(username, password));
+    }
+
+    private Connection capturing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if ("prepareStatement".equals(method.getName()) && args[0] instanceof String sql) {
+                        return capturing(connection, (PreparedStatement) result, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private PreparedStatement capturing(Connection connection, PreparedStatement statement, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        bindings.add(new Binding(method, args));
+                    } else if ("clearParameters".equals(name)) {
+                        bindings.clear();
+                    } else if (plans != null && EXECUTE_METHODS.contains(name) && args == null) {
+                        plans.add(new CapturedPlan(sql, explain(connection, sql, bindings)));
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static JsonNode explain(Connection connection, String sql, List<Binding> bindings) throws Throwable {
+        Savepoint savepoint = connection.setSavepoint();
+        try (PreparedStatement explain = connection.prepareStatement(
+                "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql)) {
+            for (Binding binding : bindings) {
+                invoke(explain, binding.setter(), binding.args());
+            }
+            try (ResultSet result = explain.executeQuery()) {
+                result.next();
+                return JSON.readTree(result.getString(1)).get(0);
+            }
+        } finally {
+            connection.rollback(savepoint);
+            connection.releaseSavepoint(savepoint);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
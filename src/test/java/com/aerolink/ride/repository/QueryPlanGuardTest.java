@@ -0,0 +1,441 @@
+package com.aerolink.ride.repository;
+
+import com.aerolink.ride.dto.response.CabResponseDTO;
+import com.aerolink.ride.dto.response.RideResponseDTO;
+import com.aerolink.ride.enums.CabStatus;
+import com.aerolink.ride.enums.RideStatus;
+import com.aerolink.ride.service.KeysetCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-plan regression guard for every {@code @Query} of the cab, pool and
+ * ride request repositories.
+ *
+ * <p>
+ * Seeds a PostGIS Testcontainer with production-like volumes (100k cabs,
+ * 500k pools, 2M ride requests over six monthly partitions), then calls each
+ * query through its repository and captures
+ * {@code EXPLAIN (ANALYZE, BUFFERS)} of the SQL Hibernate actually sends (see
+ * {@link PlanCapturingDataSource}). A query fails the guard if its plan
+ * sequentially scans a table of {@value #LARGE_TABLE_ROWS}+ rows or touches
+ * more shared buffers than its budget. A {@code @Query} without a case here
+ * fails {@link #testEveryQueryIsGuarded}.
+ * </p>
+ *
+ * <p>
+ * Needs Docker. Run with {@code mvn test -Pplan-guard}; seeding takes a few
+ * minutes.
+ * </p>
+ */
+@Tag("plan-guard")
+@DataJpaTest(showSql = false, properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(QueryPlanGuardTest.PlanCaptureConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Query Plan Guard")
+class QueryPlanGuardTest {
+
+    private static final int CABS = 100_000;
+    private static final int PASSENGERS = 50_000;
+    private static final int POOLS = 500_000;
+    private static final int RIDE_REQUESTS = 2_000_000;
+    private static final int HISTORY_DAYS = 180;
+
+    /** Active pools, by pool number: 1..300 CONFIRMED, ..600 IN_PROGRESS, ..800 FORMING, ..820 DISPATCHING. */
+    private static final int CONFIRMED_POOLS = 300;
+    private static final int IN_PROGRESS_POOLS = 600;
+    private static final int FORMING_POOLS = 800;
+    private static final int DISPATCHING_POOLS = 820;
+    private static final int UNPOOLED_PENDING = 200;
+
+    private static final long LARGE_TABLE_ROWS = 10_000;
+    private static final long DEFAULT_BUFFER_BUDGET = 2_000;
+
+    /** Budget of the streaming exports, which read every row by design: no seq-scan or buffer check. */
+    private static final long WHOLE_TABLE = Long.MAX_VALUE;
+
+    private static final double AIRPORT_LAT = 19.0896;
+    private static final double AIRPORT_LNG = 72.8656;
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgis/postgis:15-3.4").asCompatibleSubstituteFor("postgres"));
+
+    static {
+        // Started here rather than by the Testcontainers extension: the Spring
+        // context (and its datasource URL) is created with the test instance
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @TestConfiguration
+    static class PlanCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor planCapturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof PlanCapturingDataSource)
+                            ? new PlanCapturingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /** One guarded query: how to call it and how many shared buffers it may touch. */
+    private record PlanCase(Consumer<QueryPlanGuardTest> call, long bufferBudget) {
+    }
+
+    @Autowired
+    private PlanCapturingDataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CabRepository cabRepository;
+
+    @Autowired
+    private RidePoolRepository ridePoolRepository;
+
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+
+    private Set<String> largeTables;
+    private UUID availableCabId;
+    private UUID assignedCabId;
+    private UUID confirmedPoolId;
+    private UUID formingPoolId;
+    private List<UUID> formingPoolIds;
+    private UUID activePassengerId;
+    private KeysetCursor ridePageCursor;
+    private KeysetCursor cabPageCursor;
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        seedProductionVolumes();
+        largeTables = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT relname FROM pg_class WHERE relkind = 'r' AND reltuples >= ?",
+                String.class, LARGE_TABLE_ROWS));
+        System.out.printf("Seeded plan-guard data in %.0f s; large tables: %s%n",
+                (System.nanoTime() - start) / 1e9, largeTables);
+
+        availableCabId = id("SELECT id FROM cabs WHERE status = 'AVAILABLE' LIMIT 1");
+        assignedCabId = id("SELECT id FROM cabs WHERE license_plate = 'PG-1'");
+        confirmedPoolId = id("SELECT id FROM ride_pools WHERE cab_id = ? AND status = 'CONFIRMED'", assignedCabId);
+        formingPoolIds = jdbcTemplate.queryForList(
+                "SELECT id FROM ride_pools WHERE status = 'FORMING' LIMIT 10", UUID.class);
+        formingPoolId = formingPoolIds.get(0);
+        activePassengerId = id("""
+                SELECT passenger_id FROM ride_requests
+                WHERE status IN ('PENDING', 'POOLED', 'CONFIRMED', 'IN_PROGRESS')
+                LIMIT 1
+                """);
+        ridePageCursor = cursor("SELECT created_at, id FROM ride_requests ORDER BY created_at DESC, id DESC"
+                + " OFFSET 100000 LIMIT 1");
+        cabPageCursor = cursor("SELECT created_at, id FROM cabs ORDER BY created_at, id OFFSET 50000 LIMIT 1");
+    }
+
+    @TestFactory
+    @DisplayName("Repository query plans stay within their guard")
+    Stream<DynamicTest> testQueryPlans() {
+        return cases().entrySet().stream().map(entry -> DynamicTest.dynamicTest(entry.getKey(),
+                () -> assertPlanWithinGuard(entry.getKey(), entry.getValue())));
+    }
+
+    @Test
+    @DisplayName("Every @Query of the guarded repositories has a plan case")
+    void testEveryQueryIsGuarded() {
+        Set<String> queries = Stream.of(CabRepository.class, RidePoolRepository.class, RideRequestRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> method.isAnnotationPresent(Query.class))
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .collect(Collectors.toSet());
+        assertEquals(queries, cases().keySet(), "@Query methods and plan cases differ");
+    }
+
+    private Map<String, PlanCase> cases() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minus(RideRequestRepository.ACTIVE_HORIZON);
+        Map<String, PlanCase> cases = new LinkedHashMap<>();
+
+        cases.put("CabRepository.findAvailableCabsNear", new PlanCase(t -> t.cabRepository
+                .findAvailableCabsNear(AIRPORT_LAT, AIRPORT_LNG, 1.5, CabStatus.AVAILABLE), DEFAULT_BUFFER_BUDGET));
+        cases.put("CabRepository.findByIdWithLock", new PlanCase(t -> t.cabRepository
+                .findByIdWithLock(t.availableCabId), DEFAULT_BUFFER_BUDGET));
+        cases.put("CabRepository.claimNearestAvailable", new PlanCase(t -> t.cabRepository
+                .claimNearestAvailable(AIRPORT_LAT, AIRPORT_LNG, 1.5, 1, 0), DEFAULT_BUFFER_BUDGET));
+        cases.put("CabRepository.claimIfAvailable", new PlanCase(t -> t.cabRepository
+                .claimIfAvailable(t.availableCabId), DEFAULT_BUFFER_BUDGET));
+        cases.put("CabRepository.releaseCabsOfStalePools", new PlanCase(t -> t.cabRepository
+                .releaseCabsOfStalePools(), 10_000));
+        cases.put("CabRepository.releaseCabsOfActivePoolsCreatedBefore", new PlanCase(t -> t.cabRepository
+                .releaseCabsOfActivePoolsCreatedBefore(since), 10_000));
+        cases.put("CabRepository.releaseOrphanedAssignedCabs", new PlanCase(t -> t.cabRepository
+                .releaseOrphanedAssignedCabs(), 10_000));
+        cases.put("CabRepository.findAssignedCabsWithCapacityNear", new PlanCase(t -> t.cabRepository
+                .findAssignedCabsWithCapacityNear(AIRPORT_LAT, AIRPORT_LNG, 2.0, 1, 0), DEFAULT_BUFFER_BUDGET));
+        cases.put("CabRepository.findFirstPage", new PlanCase(t -> t.cabRepository
+                .findFirstPage(KeysetCursor.pageOf(100)), DEFAULT_BUFFER_BUDGET));
+        cases.put("CabRepository.findPageAfter", new PlanCase(t -> t.cabRepository
+                .findPageAfter(t.cabPageCursor.createdAt(), t.cabPageCursor.id(), KeysetCursor.pageOf(100)),
+                DEFAULT_BUFFER_BUDGET));
+        cases.put("CabRepository.streamAllInOrder", new PlanCase(t -> {
+            try (Stream<CabResponseDTO> cabs = t.cabRepository.streamAllInOrder()) {
+                cabs.limit(RideRequestRepository.STREAM_FETCH_SIZE).count();
+            }
+        }, WHOLE_TABLE));
+
+        cases.put("RidePoolRepository.findFormingPoolIdsNear", new PlanCase(t -> t.ridePoolRepository
+                .findFormingPoolIdsNear(AIRPORT_LAT, AIRPORT_LNG, 0.5), DEFAULT_BUFFER_BUDGET));
+        cases.put("RidePoolRepository.findWithRideRequestsByIdIn", new PlanCase(t -> t.ridePoolRepository
+                .findWithRideRequestsByIdIn(t.formingPoolIds), DEFAULT_BUFFER_BUDGET));
+        cases.put("RidePoolRepository.claimReadyPools", new PlanCase(t -> t.ridePoolRepository
+                .claimReadyPools(now, now.minusSeconds(30), 50), DEFAULT_BUFFER_BUDGET));
+        cases.put("RidePoolRepository.claimPools", new PlanCase(t -> t.ridePoolRepository
+                .claimPools(t.formingPoolIds, now, now.minusSeconds(30)), DEFAULT_BUFFER_BUDGET));
+        cases.put("RidePoolRepository.releaseClaim", new PlanCase(t -> t.ridePoolRepository
+                .releaseClaim(t.formingPoolId), DEFAULT_BUFFER_BUDGET));
+        cases.put("RidePoolRepository.dissolveStaleFormingOrDispatchingPools", new PlanCase(
+                t -> t.ridePoolRepository.dissolveStaleFormingOrDispatchingPools(), 20_000));
+        cases.put("RidePoolRepository.dissolveActivePoolsCreatedBefore", new PlanCase(
+                t -> t.ridePoolRepository.dissolveActivePoolsCreatedBefore(since), 20_000));
+        cases.put("RidePoolRepository.findByIdWithLock", new PlanCase(t -> t.ridePoolRepository
+                .findByIdWithLock(t.confirmedPoolId), DEFAULT_BUFFER_BUDGET));
+        cases.put("RidePoolRepository.findActivePools", new PlanCase(t -> t.ridePoolRepository
+                .findActivePools(), 30_000));
+        cases.put("RidePoolRepository.findActivePoolsByCabId", new PlanCase(t -> t.ridePoolRepository
+                .findActivePoolsByCabId(t.assignedCabId), DEFAULT_BUFFER_BUDGET));
+        cases.put("RidePoolRepository.findResponseById", new PlanCase(t -> t.ridePoolRepository
+                .findResponseById(t.confirmedPoolId), DEFAULT_BUFFER_BUDGET));
+
+        cases.put("RideRequestRepository.countActiveRequestsSince", new PlanCase(t -> t.rideRequestRepository
+                .countActiveRequestsSince(List.of(RideStatus.PENDING, RideStatus.POOLED, RideStatus.CONFIRMED),
+                        now.minusMinutes(15)), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.findActiveRequestsByPoolId", new PlanCase(t -> t.rideRequestRepository
+                .findActiveRequestsByPoolId(t.confirmedPoolId), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.updateActiveRequestStatusByPoolId", new PlanCase(
+                t -> t.rideRequestRepository.updateActiveRequestStatusByPoolId(t.confirmedPoolId,
+                        RideStatus.IN_PROGRESS), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.cancelActiveRequestsInStalePools", new PlanCase(
+                t -> t.rideRequestRepository.cancelActiveRequestsInStalePools(), 20_000));
+        cases.put("RideRequestRepository.cancelActiveRequestsCreatedBefore", new PlanCase(
+                t -> t.rideRequestRepository.cancelActiveRequestsCreatedBefore(since), 20_000));
+        cases.put("RideRequestRepository.findUnpooledPendingIds", new PlanCase(t -> t.rideRequestRepository
+                .findUnpooledPendingIds(), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.hasActiveRideSince", new PlanCase(t -> t.rideRequestRepository
+                .hasActiveRideSince(t.activePassengerId, since), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.findResponseById", new PlanCase(t -> t.rideRequestRepository
+                .findResponseById(t.ridePageCursor.id()), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.findActiveResponsesByPoolId", new PlanCase(t -> t.rideRequestRepository
+                .findActiveResponsesByPoolId(t.confirmedPoolId), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.findResponsesByPassengerId", new PlanCase(t -> t.rideRequestRepository
+                .findResponsesByPassengerId(t.activePassengerId), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.findActiveResponsesByPassengerIdSince", new PlanCase(
+                t -> t.rideRequestRepository.findActiveResponsesByPassengerIdSince(t.activePassengerId, since),
+                DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.findFirstPage", new PlanCase(t -> t.rideRequestRepository
+                .findFirstPage(KeysetCursor.pageOf(100)), DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.findPageAfter", new PlanCase(t -> t.rideRequestRepository
+                .findPageAfter(t.ridePageCursor.createdAt(), t.ridePageCursor.id(), KeysetCursor.pageOf(100)),
+                DEFAULT_BUFFER_BUDGET));
+        cases.put("RideRequestRepository.streamAllNewestFirst", new PlanCase(t -> {
+            try (Stream<RideResponseDTO> rides = t.rideRequestRepository.streamAllNewestFirst()) {
+                rides.limit(RideRequestRepository.STREAM_FETCH_SIZE).count();
+            }
+        }, WHOLE_TABLE));
+        return cases;
+    }
+
+    // ---- Helpers ----
+
+    /**
+     * Run the case in a rolled-back transaction, capturing the plan of every
+     * statement it sends, and check each plan.
+     */
+    private void assertPlanWithinGuard(String name, PlanCase planCase) {
+        List<PlanCapturingDataSource.CapturedPlan> plans;
+        dataSource.startRecording();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                planCase.call().accept(this);
+            });
+        } finally {
+            plans = dataSource.stopRecording();
+        }
+        assertFalse(plans.isEmpty(), name + " sent no statement");
+
+        for (PlanCapturingDataSource.CapturedPlan plan : plans) {
+            JsonNode root = plan.explain().get("Plan");
+            List<String> seqScans = new ArrayList<>();
+            collectLargeSeqScans(root, seqScans);
+            long buffers = root.path("Shared Hit Blocks").asLong() + root.path("Shared Read Blocks").asLong();
+            System.out.printf("%-60s %8d buffers %s%n", name, buffers, seqScans.isEmpty() ? "" : seqScans);
+
+            if (planCase.bufferBudget() == WHOLE_TABLE) {
+                continue;
+            }
+            assertTrue(seqScans.isEmpty(), name + " sequentially scans " + seqScans + "\n" + describe(plan));
+            assertTrue(buffers <= planCase.bufferBudget(), name + " touched " + buffers
+                    + " shared buffers, budget " + planCase.bufferBudget() + "\n" + describe(plan));
+        }
+    }
+
+    private void collectLargeSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && largeTables.contains(node.path("Relation Name").asText())) {
+            seqScans.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectLargeSeqScans(child, seqScans);
+        }
+    }
+
+    private static String describe(PlanCapturingDataSource.CapturedPlan plan) {
+        return plan.sql() + "\n" + plan.explain().toPrettyString();
+    }
+
+    private KeysetCursor cursor(String sql) {
+        return jdbcTemplate.queryForObject(sql, (row, n) -> new KeysetCursor(
+                row.getTimestamp("created_at").toLocalDateTime(), row.getObject("id", UUID.class)));
+    }
+
+    private UUID id(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, UUID.class, args);
+    }
+
+    /**
+     * Seed the guard's data set with set-based inserts. Ids are derived from
+     * md5 of the row number so the tables can reference each other without
+     * lookups. Pools 1..{@value #DISPATCHING_POOLS} are active (see the
+     * constants), the rest history spread over {@value #HISTORY_DAYS} days;
+     * each pool has about four ride requests.
+     */
+    private void seedProductionVolumes() {
+        jdbcTemplate.queryForObject(
+                "SELECT create_monthly_partitions('ride_requests', (now() - make_interval(days => ?))::date, 3)",
+                Integer.class, HISTORY_DAYS);
+
+        jdbcTemplate.update("""
+                INSERT INTO passengers (id, name, email, phone)
+                SELECT md5('passenger' || g)::uuid, 'Passenger ' || g, 'passenger' || g || '@planguard.test',
+                       '+91-' || lpad(g::text, 10, '0')
+                FROM generate_series(1, ?) g
+                """, PASSENGERS);
+
+        jdbcTemplate.update("""
+                INSERT INTO cabs (id, license_plate, driver_name, total_seats, luggage_capacity,
+                                  current_lat, current_lng, status)
+                SELECT md5('cab' || g)::uuid, 'PG-' || g, 'Driver ' || g, 4, 4,
+                       18.95 + random() * 0.35, 72.80 + random() * 0.35,
+                       CASE WHEN g <= ? OR g BETWEEN ? + 1 AND ? THEN 'ASSIGNED'
+                            WHEN g <= ? THEN 'ON_TRIP'
+                            WHEN g % 5 < 2 THEN 'AVAILABLE'
+                            ELSE 'OFFLINE' END
+                FROM generate_series(1, ?) g
+                """, CONFIRMED_POOLS, FORMING_POOLS, DISPATCHING_POOLS, IN_PROGRESS_POOLS, CABS);
+
+        jdbcTemplate.update("""
+                INSERT INTO ride_pools (id, cab_id, status, total_occupied_seats, total_luggage,
+                                        window_expires_at, pickup_lat, pickup_lng, drop_lat, drop_lng, created_at)
+                SELECT md5('pool' || g)::uuid,
+                       CASE WHEN g <= ? OR g > ?
+                            THEN md5('cab' || CASE WHEN g <= ? THEN g ELSE g % ? + 1 END)::uuid END,
+                       CASE WHEN g <= ? THEN 'CONFIRMED'
+                            WHEN g <= ? THEN 'IN_PROGRESS'
+                            WHEN g <= ? THEN 'FORMING'
+                            WHEN g <= ? THEN 'DISPATCHING'
+                            WHEN g % 10 = 0 THEN 'DISSOLVED'
+                            ELSE 'COMPLETED' END,
+                       3, 2, now() + random() * interval '60 seconds',
+                       18.95 + random() * 0.35, 72.80 + random() * 0.35, ?, ?,
+                       CASE WHEN g <= ? THEN now() - random() * interval '10 minutes'
+                            ELSE now() - random() * make_interval(days => ?) END
+                FROM generate_series(1, ?) g
+                """, IN_PROGRESS_POOLS, FORMING_POOLS, DISPATCHING_POOLS, CABS,
+                CONFIRMED_POOLS, IN_PROGRESS_POOLS, FORMING_POOLS, DISPATCHING_POOLS,
+                AIRPORT_LAT, AIRPORT_LNG, DISPATCHING_POOLS, HISTORY_DAYS, POOLS);
+
+        // Request n rides in pool (n % POOLS) + 1, with its pool's state and age
+        jdbcTemplate.update("""
+                INSERT INTO ride_requests (id, passenger_id, pickup_lat, pickup_lng, drop_lat, drop_lng,
+                                           passenger_count, luggage_count, max_detour_km, direct_km, trip_bearing,
+                                           status, ride_pool_id, idempotency_key, created_at)
+                SELECT gen_random_uuid(), md5('passenger' || (g % ? + 1))::uuid,
+                       p.pickup_lat, p.pickup_lng, p.drop_lat, p.drop_lng, 1, 1, 3.0, 12.0, 45.0,
+                       CASE p.status WHEN 'CONFIRMED' THEN 'CONFIRMED'
+                                     WHEN 'IN_PROGRESS' THEN 'IN_PROGRESS'
+                                     WHEN 'FORMING' THEN 'POOLED'
+                                     WHEN 'DISPATCHING' THEN 'POOLED'
+                                     WHEN 'DISSOLVED' THEN 'CANCELLED'
+                                     ELSE 'COMPLETED' END,
+                       p.id, 'plan-guard-' || g, p.created_at
+                FROM generate_series(1, ?) g
+                JOIN ride_pools p ON p.id = md5('pool' || (g % ? + 1))::uuid
+                """, PASSENGERS, RIDE_REQUESTS, POOLS);
+
+        jdbcTemplate.update("""
+                INSERT INTO ride_requests (id, passenger_id, pickup_lat, pickup_lng, drop_lat, drop_lng,
+                                           passenger_count, luggage_count, max_detour_km, direct_km, trip_bearing,
+                                           status, idempotency_key, created_at)
+                SELECT gen_random_uuid(), md5('passenger' || g)::uuid,
+                       18.95 + random() * 0.35, 72.80 + random() * 0.35, ?, ?, 1, 1, 3.0, 12.0, 45.0,
+                       'PENDING', 'plan-guard-pending-' || g, now() - random() * interval '1 minute'
+                FROM generate_series(1, ?) g
+                """, AIRPORT_LAT, AIRPORT_LNG, UNPOOLED_PENDING);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
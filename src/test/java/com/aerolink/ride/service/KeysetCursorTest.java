@@ -0,0 +1,65 @@
+package com.aerolink.ride.service;
+
+import com.aerolink.ride.dto.response.CursorPage;
+import com.aerolink.ride.exception.InvalidOperationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("KeysetCursor - Cursor Pagination Tests")
+class KeysetCursorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 8, 15, 30, 123_456_000);
+
+    @Test
+    @DisplayName("Should round-trip a cursor through its token")
+    void testRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(BASE, UUID.randomUUID());
+        String token = cursor.encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "token is not URL-safe: " + token);
+        assertEquals(cursor, KeysetCursor.decode(token));
+    }
+
+    @Test
+    @DisplayName("Should treat a missing cursor as the first page and reject a malformed one")
+    void testDecodeEdgeCases() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+        assertThrows(InvalidOperationException.class, () -> KeysetCursor.decode("not a cursor!"));
+        assertThrows(InvalidOperationException.class, () -> KeysetCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+
+    @Test
+    @DisplayName("Should reject page limits outside 1..MAX_PAGE_SIZE")
+    void testPageLimit() {
+        assertEquals(11, KeysetCursor.pageOf(10).getPageSize());
+        assertThrows(InvalidOperationException.class, () -> KeysetCursor.pageOf(0));
+        assertThrows(InvalidOperationException.class, () -> KeysetCursor.pageOf(KeysetCursor.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("Should cut the probe row and point the next cursor at the last row kept")
+    void testToPage() {
+        List<KeysetCursor> rows = IntStream.range(0, 4)
+                .mapToObj(i -> new KeysetCursor(BASE.plusSeconds(i), UUID.randomUUID()))
+                .toList();
+
+        CursorPage<KeysetCursor> full = KeysetCursor.toPage(rows, 3, Function.identity(), Function.identity());
+        assertEquals(rows.subList(0, 3), full.items());
+        assertEquals(rows.get(2), KeysetCursor.decode(full.nextCursor()));
+
+        CursorPage<KeysetCursor> last = KeysetCursor.toPage(rows, 4, Function.identity(), Function.identity());
+        assertEquals(rows, last.items());
+        assertNull(last.nextCursor());
+    }
+}
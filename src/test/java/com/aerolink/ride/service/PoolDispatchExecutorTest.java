@@ -0,0 +1,218 @@
+package com.aerolink.ride.service;
+
+import com.aerolink.ride.entity.RidePool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("PoolDispatchExecutor - Partitioned Dispatch Tests")
+class PoolDispatchExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PoolDispatchExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PoolDispatchExecutor(4, 4, 1.5, 10, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    @DisplayName("Should group nearby pickups into one cell and keep distant ones apart")
+    void testPartition() {
+        RidePool a = pool(19.0896, 72.8656);
+        RidePool b = pool(19.0900, 72.8660); // ~60 m from a
+        RidePool c = pool(19.2000, 72.9800); // ~17 km away
+
+        Map<Long, List<RidePool>> cells = executor.partition(List.of(a, b, c));
+
+        assertEquals(2, cells.size());
+        assertTrue(cells.values().contains(List.of(a, b)), "same-cell pools split or reordered");
+        assertTrue(cells.values().contains(List.of(c)));
+    }
+
+    @Test
+    @DisplayName("Should dispatch cells concurrently and pools within a cell sequentially, in order")
+    void testCellsParallelPoolsSequential() {
+        List<RidePool> pools = new ArrayList<>();
+        for (int cell = 0; cell < 4; cell++) {
+            for (int i = 0; i < 5; i++) {
+                pools.add(pool(19.0 + cell * 0.1, 72.8 + i * 0.0001));
+            }
+        }
+        Map<Long, AtomicInteger> activePerCell = new ConcurrentHashMap<>();
+        List<RidePool> dispatched = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        executor.dispatchAll(pools, pool -> {
+            long cell = executor.cellOf(pool.getPickupLat(), pool.getPickupLng());
+            int inCell = activePerCell.computeIfAbsent(cell, k -> new AtomicInteger()).incrementAndGet();
+            assertEquals(1, inCell, "two pools of one cell dispatched at once");
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            sleep(20);
+            dispatched.add(pool);
+            active.decrementAndGet();
+            activePerCell.get(cell).decrementAndGet();
+        });
+
+        assertEquals(pools.size(), dispatched.size());
+        assertTrue(maxActive.get() > 1, "cells were not dispatched concurrently");
+        for (int cell = 0; cell < 4; cell++) {
+            List<RidePool> expected = pools.subList(cell * 5, cell * 5 + 5);
+            List<RidePool> actual = dispatched.stream().filter(expected::contains).toList();
+            assertEquals(expected, actual, "pools of a cell dispatched out of order");
+        }
+        assertEquals(0, executor.getBacklog());
+        assertEquals(1, meterRegistry.get("aerolink.dispatch.tick.duration").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should keep dispatching a cell after one pool fails")
+    void testFailureDoesNotStopCell() {
+        RidePool failing = pool(19.0896, 72.8656);
+        RidePool next = pool(19.0897, 72.8657);
+        List<RidePool> dispatched = Collections.synchronizedList(new ArrayList<>());
+
+        executor.dispatchAll(List.of(failing, next), pool -> {
+            if (pool == failing) {
+                throw new IllegalStateException("boom");
+            }
+            dispatched.add(pool);
+        });
+
+        assertEquals(List.of(next), dispatched);
+        assertEquals(0, executor.getBacklog());
+    }
+
+    @Test
+    @DisplayName("Should keep overlapping calls on the workers and out of each other's cells")
+    void testOverlappingCalls() throws Exception {
+        PoolDispatchExecutor narrow = new PoolDispatchExecutor(2, 2, 1.5, 10, new SimpleMeterRegistry());
+        // A single-cell tick (once run on the caller's thread) overlapping a tick for the same and another cell
+        List<RidePool> timerTick = List.of(pool(19.0896, 72.8656), pool(19.0897, 72.8657));
+        List<RidePool> sweepTick = List.of(pool(19.0898, 72.8658), pool(19.0899, 72.8659), pool(19.2000, 72.9800));
+        Map<Long, AtomicInteger> activePerCell = new ConcurrentHashMap<>();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        AtomicInteger sameCellOverlaps = new AtomicInteger();
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Consumer<RidePool> dispatcher = pool -> {
+            long cell = narrow.cellOf(pool.getPickupLat(), pool.getPickupLng());
+            if (activePerCell.computeIfAbsent(cell, k -> new AtomicInteger()).incrementAndGet() > 1) {
+                sameCellOverlaps.incrementAndGet();
+            }
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread().getName());
+            sleep(30);
+            active.decrementAndGet();
+            activePerCell.get(cell).decrementAndGet();
+        };
+
+        try {
+            Thread sweep = new Thread(() -> {
+                bothStarted.countDown();
+                awaitQuietly(bothStarted);
+                narrow.dispatchAll(sweepTick, dispatcher);
+            });
+            sweep.start();
+            bothStarted.countDown();
+            awaitQuietly(bothStarted);
+            narrow.dispatchAll(timerTick, dispatcher);
+            sweep.join();
+        } finally {
+            narrow.stop();
+        }
+
+        assertEquals(timerTick.size() + sweepTick.size(), threads.size());
+        assertEquals(0, sameCellOverlaps.get(), "overlapping calls dispatched one cell at once");
+        assertTrue(maxActive.get() <= 2, "more dispatches at once than the worker budget: " + maxActive.get());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("pool-dispatch-worker-")),
+                "a cell ran outside the workers: " + threads);
+        assertEquals(0, narrow.getBacklog());
+    }
+
+    @Test
+    @DisplayName("Should hold no more connections than the budget, however many callers overlap")
+    void testConnectionBudget() throws Exception {
+        PoolDispatchExecutor budgeted = new PoolDispatchExecutor(2, 3, 1.5, 10, new SimpleMeterRegistry());
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<Thread> callers = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                Thread caller = new Thread(() -> budgeted.runWithConnection(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    sleep(30);
+                    active.decrementAndGet();
+                }));
+                callers.add(caller);
+                caller.start();
+            }
+            for (Thread caller : callers) {
+                caller.join();
+            }
+        } finally {
+            budgeted.stop();
+        }
+
+        assertEquals(3, maxActive.get(), "connections held at once");
+        assertEquals(3, budgeted.getAvailableConnections());
+    }
+
+    @Test
+    @DisplayName("Should reject a dispatch budget that would take the whole connection pool")
+    void testRejectsBudgetAboveHikariPool() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PoolDispatchExecutor(4, 10, 1.5, 10, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Should reject more workers than dispatch connections")
+    void testRejectsParallelismAboveBudget() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PoolDispatchExecutor(5, 4, 1.5, 10, new SimpleMeterRegistry()));
+    }
+
+    private static RidePool pool(double lat, double lng) {
+        return RidePool.builder().id(UUID.randomUUID()).pickupLat(lat).pickupLng(lng).build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.aerolink.ride.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("PoolDispatchTimer - Timing Wheel Tests")
+class PoolDispatchTimerTest {
+
+    private static final long TICK_MS = 10;
+
+    private PoolDispatchTimer timer;
+    private final BlockingQueue<Fired> fired = new LinkedBlockingQueue<>();
+
+    private record Fired(UUID poolId, LocalDateTime at) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        timer = new PoolDispatchTimer(TICK_MS);
+        timer.setExpiryHandler(ids -> ids.forEach(id -> fired.add(new Fired(id, LocalDateTime.now()))));
+        timer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    @DisplayName("Should fire a pool at its window expiry, not before")
+    void testFiresAtExpiry() throws InterruptedException {
+        UUID poolId = UUID.randomUUID();
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(80));
+
+        timer.schedule(poolId, expiresAt);
+
+        Fired first = fired.poll(2, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(poolId, first.poolId());
+        assertFalse(first.at().isBefore(expiresAt), "fired before expiry");
+        assertNull(fired.poll(100, TimeUnit.MILLISECONDS), "fired twice");
+    }
+
+    @Test
+    @DisplayName("Should replace a deadline when rescheduled and support far deadlines")
+    void testReschedule() throws InterruptedException {
+        UUID poolId = UUID.randomUUID();
+        timer.schedule(poolId, LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(50)));
+        // Further out than one wheel rotation (512 ticks)
+        LocalDateTime later = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(600 * TICK_MS));
+        timer.schedule(poolId, later);
+
+        Fired first = fired.poll(15, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertFalse(first.at().isBefore(later), "fired at the replaced deadline");
+        assertNull(fired.poll(100, TimeUnit.MILLISECONDS), "fired twice");
+    }
+
+    @Test
+    @DisplayName("Should not fire a cancelled pool and should fire dispatchNow immediately")
+    void testCancelAndDispatchNow() throws InterruptedException {
+        UUID cancelled = UUID.randomUUID();
+        timer.schedule(cancelled, LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(50)));
+        timer.cancel(cancelled);
+
+        UUID full = UUID.randomUUID();
+        timer.schedule(full, LocalDateTime.now().plusSeconds(60));
+        timer.dispatchNow(full);
+
+        Fired first = fired.poll(1, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(full, first.poolId());
+        assertNull(fired.poll(200, TimeUnit.MILLISECONDS), "cancelled pool fired");
+    }
+}
@@ -0,0 +1,134 @@
+package com.aerolink.ride.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("RideArchive - Segment Store Tests")
+class RideArchiveTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should find a passenger's archived rides across segments, newest first")
+    void testFindByPassenger() throws IOException {
+        RideArchive archive = new RideArchive(directory.toString());
+        Map<String, Object> oldRide = ride(ALICE, LocalDateTime.of(2026, 1, 5, 9, 0));
+        Map<String, Object> bobRide = ride(BOB, LocalDateTime.of(2026, 1, 6, 9, 0));
+        Map<String, Object> newRide = ride(ALICE, LocalDateTime.of(2026, 2, 1, 18, 30));
+
+        archive.append(List.of(new RideArchive.ArchivedRide(oldRide, pricing(oldRide)),
+                new RideArchive.ArchivedRide(bobRide, null)), List.of());
+        archive.append(List.of(new RideArchive.ArchivedRide(newRide, pricing(newRide))), List.of());
+
+        List<Map<String, Object>> rides = archive.findRidesByPassenger(ALICE, null, 100);
+        assertEquals(2, rides.size());
+        assertEquals(newRide.get("id").toString(), rides.get(0).get("id"));
+        assertEquals(oldRide.get("id").toString(), rides.get(1).get("id"));
+        assertEquals("2026-02-01T18:30", rides.get(0).get("created_at"));
+        assertEquals(7.5, ((Number) rides.get(0).get("direct_km")).doubleValue());
+        assertTrue(archive.findRidesByPassenger(UUID.randomUUID(), null, 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the passenger index from disk and drop re-archived duplicates")
+    void testReloadAndDeduplicate() throws IOException {
+        Map<String, Object> ride = ride(ALICE, LocalDateTime.of(2026, 1, 5, 9, 0));
+        RideArchive first = new RideArchive(directory.toString());
+        first.append(List.of(new RideArchive.ArchivedRide(ride, null)), List.of());
+        // Same batch archived again after a failed delete
+        first.append(List.of(new RideArchive.ArchivedRide(ride, null)), List.of(Map.of("id", UUID.randomUUID())));
+
+        RideArchive reopened = new RideArchive(directory.toString());
+        assertEquals(1, reopened.findRidesByPassenger(ALICE, null, 100).size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")), "temporary file left behind");
+        }
+    }
+
+    @Test
+    @DisplayName("Should find segments another instance wrote to the shared directory after the first lookup")
+    void testSeesOtherInstanceSegments() throws IOException {
+        RideArchive local = new RideArchive(directory.toString());
+        RideArchive other = new RideArchive(directory.toString());
+        Map<String, Object> localRide = ride(ALICE, LocalDateTime.of(2026, 1, 5, 9, 0));
+        local.append(List.of(new RideArchive.ArchivedRide(localRide, null)), List.of());
+        assertEquals(1, local.findRidesByPassenger(ALICE, null, 100).size());
+
+        Map<String, Object> otherRide = ride(ALICE, LocalDateTime.of(2026, 1, 7, 9, 0));
+        other.append(List.of(new RideArchive.ArchivedRide(otherRide, null)), List.of());
+
+        List<Map<String, Object>> rides = local.findRidesByPassenger(ALICE, null, 100);
+        assertEquals(2, rides.size());
+        assertEquals(otherRide.get("id").toString(), rides.get(0).get("id"));
+    }
+
+    @Test
+    @DisplayName("Should page through a passenger's archived rides by cursor")
+    void testPaging() throws IOException {
+        RideArchive archive = new RideArchive(directory.toString());
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int segment = 0; segment < 3; segment++) {
+            List<RideArchive.ArchivedRide> rides = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                rides.add(new RideArchive.ArchivedRide(ride(ALICE, base.plusDays(segment + 3L * i)), null));
+            }
+            archive.append(rides, List.of());
+        }
+
+        List<String> seen = new ArrayList<>();
+        LocalDateTime previous = null;
+        KeysetCursor after = null;
+        List<Map<String, Object>> page;
+        do {
+            page = archive.findRidesByPassenger(ALICE, after, 5);
+            assertTrue(page.size() <= 5, "page larger than asked for: " + page.size());
+            for (Map<String, Object> ride : page) {
+                LocalDateTime createdAt = LocalDateTime.parse((String) ride.get("created_at"));
+                assertTrue(previous == null || createdAt.isBefore(previous), "rides out of order");
+                previous = createdAt;
+                seen.add((String) ride.get("id"));
+            }
+            after = page.isEmpty() ? null : RideArchive.keyOf(page.get(page.size() - 1));
+        } while (page.size() == 5);
+
+        assertEquals(12, seen.size());
+        assertEquals(12, Set.copyOf(seen).size(), "a ride appeared on two pages");
+    }
+
+    private static Map<String, Object> ride(UUID passengerId, LocalDateTime createdAt) {
+        Map<String, Object> ride = new HashMap<>();
+        ride.put("id", UUID.randomUUID());
+        ride.put("passenger_id", passengerId);
+        ride.put("status", "COMPLETED");
+        ride.put("ride_pool_id", null);
+        ride.put("direct_km", 7.5);
+        ride.put("created_at", Timestamp.valueOf(createdAt));
+        return ride;
+    }
+
+    private static Map<String, Object> pricing(Map<String, Object> ride) {
+        return Map.of("id", UUID.randomUUID(), "ride_request_id", ride.get("id"), "final_price", 240.0);
+    }
+}
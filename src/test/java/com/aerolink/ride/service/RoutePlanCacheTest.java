@@ -0,0 +1,94 @@
+package com.aerolink.ride.service;
+
+import com.aerolink.ride.algorithm.RouteDeviationChecker;
+import com.aerolink.ride.algorithm.RoutePlan;
+import com.aerolink.ride.entity.RidePool;
+import com.aerolink.ride.entity.RideRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+@DisplayName("RoutePlanCache - Version and Bound Tests")
+class RoutePlanCacheTest {
+
+    @Test
+    @DisplayName("Should drop a plan made for an older pool version")
+    void testDropsOlderVersion() {
+        RoutePlanCache cache = new RoutePlanCache(100, 30);
+        RidePool pool = pool(3L);
+        RoutePlan plan = plan();
+        cache.put(pool, plan);
+        assertSame(plan, cache.getIfCurrent(pool));
+
+        pool.setVersion(4L);
+
+        assertNull(cache.getIfCurrent(pool));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should keep a plan made for a newer version than the caller read")
+    void testKeepsNewerVersion() {
+        RoutePlanCache cache = new RoutePlanCache(100, 30);
+        RidePool pool = pool(5L);
+        RoutePlan plan = plan();
+        cache.put(pool, plan);
+
+        RidePool staleRead = RidePool.builder().id(pool.getId()).version(4L).build();
+
+        assertNull(cache.getIfCurrent(staleRead));
+        assertSame(plan, cache.getIfCurrent(pool));
+    }
+
+    @Test
+    @DisplayName("Should hold at most the configured number of plans")
+    void testBoundedBySize() {
+        RoutePlanCache cache = new RoutePlanCache(10, 30);
+        RoutePlan plan = plan();
+        for (int i = 0; i < 100; i++) {
+            cache.put(pool(1L), plan);
+        }
+
+        assertTrue(cache.size() <= 10, "Cache grew to " + cache.size());
+    }
+
+    @Test
+    @DisplayName("evictAll should forget every plan")
+    void testEvictAll() {
+        RoutePlanCache cache = new RoutePlanCache(100, 30);
+        RidePool pool = pool(1L);
+        cache.put(pool, plan());
+        cache.put(pool(1L), plan());
+
+        cache.evictAll();
+
+        assertNull(cache.getIfCurrent(pool));
+        assertEquals(0, cache.size());
+    }
+
+    // ---- Helpers ----
+
+    private RidePool pool(long version) {
+        return RidePool.builder().id(UUID.randomUUID()).version(version).build();
+    }
+
+    private RoutePlan plan() {
+        RideRequest rider = RideRequest.builder()
+                .id(UUID.randomUUID())
+                .pickupLat(19.09)
+                .pickupLng(72.87)
+                .dropLat(19.05)
+                .dropLng(72.85)
+                .passengerCount(1)
+                .luggageCount(0)
+                .maxDetourKm(3.0)
+                .build();
+        return RouteDeviationChecker.planRoute(List.of(rider));
+    }
+}
@@ -1,5 +1,6 @@
 -- Clean up test data (preserves seed data structure but resets ride state)
 DELETE FROM pricing_records;
 DELETE FROM ride_requests;
+DELETE FROM ride_request_idempotency_keys;
 DELETE FROM ride_pools;
 UPDATE cabs SET status = 'AVAILABLE';